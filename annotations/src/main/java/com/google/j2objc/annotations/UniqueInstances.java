@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.j2objc.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.*;
+
+/**
+ * Annotation that indicates anonymous classes created within the annotated
+ * type, method or constructor must be allocated each time their creation
+ * expression is evaluated.
+ * <p>
+ * When translated with --share-anonymous-instances, an anonymous class that
+ * has no state and doesn't reference its outer instance or any local
+ * variables is translated as a single, lazily created instance. This
+ * annotation disables that optimization, for code that depends on each
+ * instance being distinct, such as when instances are used as map keys or as
+ * listeners that are later removed.
+ */
+@Target({TYPE, METHOD, CONSTRUCTOR})
+@Retention(SOURCE)
+public @interface UniqueInstances {
+}
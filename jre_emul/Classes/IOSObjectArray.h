@@ -48,6 +48,11 @@
 + (instancetype)newArrayWithLength:(NSUInteger)length type:(IOSClass *)type;
 + (instancetype)arrayWithLength:(NSUInteger)length type:(IOSClass *)type;
 
+// Returns a shared array of length zero with a type. Since it has no
+// elements it can't be modified, so it's passed for varargs parameters
+// that have no arguments instead of a new array.
++ (instancetype)emptyArrayWithType:(IOSClass *)type;
+
 // Create an empty multidimensional array.
 + (instancetype)arrayWithDimensions:(NSUInteger)dimensionCount
                             lengths:(const jint *)dimensionLengths
@@ -24,6 +24,8 @@
 #import "java/lang/ArrayStoreException.h"
 #import "java/lang/AssertionError.h"
 
+#include <objc/runtime.h>
+
 static IOSObjectArray *IOSObjectArray_NewArray(jint length, IOSClass *type) {
   IOSObjectArray *array = NSAllocateObject([IOSObjectArray class], length * sizeof(id), nil);
   array->size_ = length;
@@ -52,6 +54,22 @@ static IOSObjectArray *IOSObjectArray_NewArrayWithObjects(
   return [IOSObjectArray_NewArray((jint)length, type) autorelease];
 }
 
++ (instancetype)emptyArrayWithType:(IOSClass *)type {
+  // Cached by the type, like its array class in FetchArray().
+  static int key;
+  IOSObjectArray *array = objc_getAssociatedObject(type, &key);
+  if (!array) {
+    @synchronized (type) {
+      array = objc_getAssociatedObject(type, &key);
+      if (!array) {
+        array = [IOSObjectArray_NewArray(0, type) autorelease];
+        objc_setAssociatedObject(type, &key, array, OBJC_ASSOCIATION_RETAIN);
+      }
+    }
+  }
+  return array;
+}
+
 + (instancetype)newArrayWithObjects:(const id *)objects
                               count:(NSUInteger)count
                                type:(IOSClass *)type {
@@ -41,6 +41,17 @@
   }
 }
 
+- (void)testEmptyArrayWithType {
+  IOSClass *stringType = [IOSClass classWithClass:[NSString class]];
+  IOSObjectArray *array = [IOSObjectArray emptyArrayWithType:stringType];
+  XCTAssertEqual((int) [array count], 0, @"non-empty array", nil);
+  XCTAssertEqual(array.elementType, stringType, @"incorrect element type", nil);
+  XCTAssertEqual([IOSObjectArray emptyArrayWithType:stringType], array, @"array not shared", nil);
+  IOSClass *objectType = [IOSClass classWithClass:[NSObject class]];
+  XCTAssertEqual([[IOSObjectArray emptyArrayWithType:objectType] elementType], objectType,
+                 @"incorrect element type", nil);
+}
+
 - (void)testElementAccess {
   IOSClass * elementType = [IOSClass classWithClass:[NSString class]];
   IOSObjectArray *array = [IOSObjectArray arrayWithLength:3 type:elementType];
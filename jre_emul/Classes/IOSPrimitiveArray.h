@@ -43,6 +43,7 @@
  *  Constructors:
  *  + (instancetype)newArrayWithInts:(const int *)buf count:(NSUInteger)count;
  *  + (instancetype)arrayWithInts:(const int *)buf count:(NSUInteger)count;
+ *  + (instancetype)emptyArray;  // A shared array of length zero.
  *
  *  Accessors - These throw IndexOutOfBoundsException if index is out of range:
  *  FOUNDATION_EXPORT int IOSIntArray_Get(IOSIntrray *array, NSUInteger index);
@@ -62,6 +63,7 @@
 + (instancetype)arrayWithLength:(NSUInteger)length; \
 + (instancetype)newArrayWith##U_NAME##s:(const C_TYPE *)buf count:(NSUInteger)count; \
 + (instancetype)arrayWith##U_NAME##s:(const C_TYPE *)buf count:(NSUInteger)count; \
++ (instancetype)emptyArray; \
 FOUNDATION_EXPORT C_TYPE IOS##U_NAME##Array_Get(IOS##U_NAME##Array *array, NSUInteger index); \
 FOUNDATION_EXPORT C_TYPE *IOS##U_NAME##Array_GetRef(IOS##U_NAME##Array *array, NSUInteger index); \
 - (C_TYPE)L_NAME##AtIndex:(NSUInteger)index; \
@@ -52,6 +52,15 @@
   \
   + (instancetype)arrayWith##U_NAME##s:(const C_TYPE *)buf count:(NSUInteger)count { \
     return [IOS##U_NAME##Array_NewArrayWith##U_NAME##s((jint)count, buf) autorelease]; \
+  } \
+  \
+  + (instancetype)emptyArray { \
+    static IOS##U_NAME##Array *empty; \
+    static dispatch_once_t once; \
+    dispatch_once(&once, ^{ \
+      empty = IOS##U_NAME##Array_NewArray(0); \
+    }); \
+    return empty; \
   }
 
 /*!
@@ -121,6 +121,24 @@ typedef struct J2ObjcFieldInfo {
   J2ObjcRawValue constantValue;
 } J2ObjcFieldInfo;
 
+// Compact encoding of a class's method and field metadata, generated with
+// --compact-metadata. It's decoded into J2ObjcMethodInfo and J2ObjcFieldInfo
+// arrays the first time the class's metadata is used.
+//
+// Each string is stored once in a table of NUL-terminated strings, and
+// records are sequences of unsigned LEB128 varints. String references are
+// the string's offset in the table plus one, with zero for NULL.
+//   Method record: selector, javaName, returnType, modifiers, exceptions.
+//   Field record: name, javaName, modifiers, type, staticRefs index plus
+//   one (or zero), constantValues index plus one (or zero).
+typedef struct J2ObjcCompactInfo {
+  const char *strings;
+  const uint8_t *methods;
+  const uint8_t *fields;
+  const void * const *staticRefs;
+  const J2ObjcRawValue *constantValues;
+} J2ObjcCompactInfo;
+
 typedef struct J2ObjcClassInfo {
   const char *typeName;
   const char *packageName;
@@ -135,6 +153,8 @@ typedef struct J2ObjcClassInfo {
   uint16_t attribute_count;
   // Inner classes, enclosing method, generic signature.
   const J2ObjCAttribute *attributes;
+  // If set, methods and fields are NULL until decoded from this.
+  const J2ObjcCompactInfo *compactInfo;
 } J2ObjcClassInfo;
 
 // Autoboxing support.
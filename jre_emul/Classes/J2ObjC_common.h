@@ -116,17 +116,21 @@ typedef double          jdouble;        /* 64-bit IEEE 754 */
  * float >= Integer.MAX_VALUE (allowing for rounding) returns 0x80000000,
  * while Java requires 0x7FFFFFFF.  A double >= Long.MAX_VALUE returns
  * 0x8000000000000000L, while Java requires 0x7FFFFFFFFFFFFFFFL.
+ *
+ * These are static so that every file has its own definition, which the
+ * compiler can inline and vectorize. The translator emits a plain C cast
+ * instead when the value is known to be in range.
  */
-__attribute__((always_inline)) inline int J2ObjCFpToInt(double d) {
+static inline int J2ObjCFpToInt(double d) {
   int tmp = (int) d;
   return tmp == (int) 0x80000000 ? (d >= 0 ? 0x7FFFFFFF : tmp) : tmp;
 }
-__attribute__((always_inline)) inline long long J2ObjCFpToLong(double d) {
+static inline long long J2ObjCFpToLong(double d) {
   long long tmp = (long long) d;
   return (unsigned long long) tmp == 0x8000000000000000LL ?
       (d >= 0 ? 0x7FFFFFFFFFFFFFFFL : tmp) : tmp;
 }
-__attribute__((always_inline)) inline unichar J2ObjCFpToUnichar(double d) {
+static inline unichar J2ObjCFpToUnichar(double d) {
   unsigned tmp = (unsigned) d;
   return tmp > 0xFFFF || (tmp == 0 && d > 0) ? 0xFFFF : (unichar) tmp;
 }
@@ -23,6 +23,62 @@
 #import "IOSObjectArray.h"
 #import "IOSReflection.h"
 
+static uint32_t ReadVarint(const uint8_t **data) {
+  uint32_t result = 0;
+  int shift = 0;
+  uint8_t byte;
+  do {
+    byte = *(*data)++;
+    result |= (uint32_t)(byte & 0x7f) << shift;
+    shift += 7;
+  } while (byte & 0x80);
+  return result;
+}
+
+static const char *ReadString(const char *strings, const uint8_t **data) {
+  uint32_t offset = ReadVarint(data);
+  return offset ? strings + offset - 1 : NULL;
+}
+
+// Expands compact method and field records into the arrays that the rest of
+// the reflection code uses. The arrays point into the string table, so no
+// strings are copied, and they are kept for the life of the class.
+static void DecodeCompactMetadata(J2ObjcClassInfo *metadata) {
+  const J2ObjcCompactInfo *compact = metadata->compactInfo;
+  const char *strings = compact->strings;
+  if (!metadata->methods && metadata->methodCount > 0) {
+    J2ObjcMethodInfo *methods = calloc(metadata->methodCount, sizeof(J2ObjcMethodInfo));
+    const uint8_t *data = compact->methods;
+    for (int i = 0; i < metadata->methodCount; i++) {
+      methods[i].selector = ReadString(strings, &data);
+      methods[i].javaName = ReadString(strings, &data);
+      methods[i].returnType = ReadString(strings, &data);
+      methods[i].modifiers = (uint16_t) ReadVarint(&data);
+      methods[i].exceptions = ReadString(strings, &data);
+    }
+    metadata->methods = methods;
+  }
+  if (!metadata->fields && metadata->fieldCount > 0) {
+    J2ObjcFieldInfo *fields = calloc(metadata->fieldCount, sizeof(J2ObjcFieldInfo));
+    const uint8_t *data = compact->fields;
+    for (int i = 0; i < metadata->fieldCount; i++) {
+      fields[i].name = ReadString(strings, &data);
+      fields[i].javaName = ReadString(strings, &data);
+      fields[i].modifiers = (uint16_t) ReadVarint(&data);
+      fields[i].type = ReadString(strings, &data);
+      uint32_t staticRefIndex = ReadVarint(&data);
+      if (staticRefIndex) {
+        fields[i].staticRef = compact->staticRefs[staticRefIndex - 1];
+      }
+      uint32_t constantIndex = ReadVarint(&data);
+      if (constantIndex) {
+        fields[i].constantValue = compact->constantValues[constantIndex - 1];
+      }
+    }
+    metadata->fields = fields;
+  }
+}
+
 @implementation JavaClassMetadata
 
 @synthesize typeName;
@@ -35,6 +91,11 @@
 - (instancetype)initWithMetadata:(J2ObjcClassInfo *)metadata {
   if (self = [super init]) {
     data_ = metadata;
+    if (metadata->compactInfo) {
+      @synchronized([JavaClassMetadata class]) {
+        DecodeCompactMetadata(metadata);
+      }
+    }
     NSStringEncoding defaultEncoding = [NSString defaultCStringEncoding];
     typeName = [[NSString alloc] initWithCString:metadata->typeName encoding:defaultEncoding];
     if (metadata->packageName) {
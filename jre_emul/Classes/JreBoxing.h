@@ -0,0 +1,60 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+// Boxing and unboxing functions, called by code translated with
+// --boxing-functions instead of sending valueOfWith<Type>: and <type>Value
+// messages to the primitive wrapper classes.
+//
+// Each function is named after the selector it replaces, and is defined in
+// the native code of its wrapper class so it can read the class's value
+// ivar and small-value cache. The boxing functions return the same cached
+// instances as valueOf. The unboxing functions require a non-nil argument.
+//
+
+#ifndef _JreBoxing_H_
+#define _JreBoxing_H_
+
+#ifdef __OBJC__
+
+#import <Foundation/Foundation.h>
+
+@class JavaLangBoolean;
+@class JavaLangByte;
+@class JavaLangCharacter;
+@class JavaLangDouble;
+@class JavaLangFloat;
+@class JavaLangInteger;
+@class JavaLangLong;
+@class JavaLangShort;
+
+FOUNDATION_EXPORT JavaLangBoolean *JavaLangBoolean_valueOfWithBoolean_(BOOL b);
+FOUNDATION_EXPORT JavaLangByte *JavaLangByte_valueOfWithByte_(char b);
+FOUNDATION_EXPORT JavaLangCharacter *JavaLangCharacter_valueOfWithChar_(unichar c);
+FOUNDATION_EXPORT JavaLangDouble *JavaLangDouble_valueOfWithDouble_(double d);
+FOUNDATION_EXPORT JavaLangFloat *JavaLangFloat_valueOfWithFloat_(float f);
+FOUNDATION_EXPORT JavaLangInteger *JavaLangInteger_valueOfWithInt_(int i);
+FOUNDATION_EXPORT JavaLangLong *JavaLangLong_valueOfWithLong_(long long v);
+FOUNDATION_EXPORT JavaLangShort *JavaLangShort_valueOfWithShort_(short s);
+
+FOUNDATION_EXPORT BOOL JavaLangBoolean_booleanValue(JavaLangBoolean *self);
+FOUNDATION_EXPORT char JavaLangByte_byteValue(JavaLangByte *self);
+FOUNDATION_EXPORT unichar JavaLangCharacter_charValue(JavaLangCharacter *self);
+FOUNDATION_EXPORT double JavaLangDouble_doubleValue(JavaLangDouble *self);
+FOUNDATION_EXPORT float JavaLangFloat_floatValue(JavaLangFloat *self);
+FOUNDATION_EXPORT int JavaLangInteger_intValue(JavaLangInteger *self);
+FOUNDATION_EXPORT long long JavaLangLong_longValue(JavaLangLong *self);
+FOUNDATION_EXPORT short JavaLangShort_shortValue(JavaLangShort *self);
+
+#endif // __OBJC__
+
+#endif // _JreBoxing_H_
@@ -26,8 +26,10 @@
 
 #ifdef __OBJC__
 #import "J2ObjC_common.h"
+#import "JreBoxing.h"
 #import "JavaObject.h"
 #import "JreMemDebug.h"
+#import "JreProfile.h"
 #import "IOSObjectArray.h"
 #import "IOSPrimitiveArray.h"
 #import "IOSReflection.h"
@@ -138,6 +140,27 @@ static inline id JreOperatorRetainedAssign(id *pIvar, id self, id value) {
 
   return value;
 }
+
+// Like JreOperatorRetainedAssign(), but takes ownership of a value that was
+// just created with a retain count of one, so it isn't retained again.
+static inline id JreOperatorTransferAssign(id *pIvar, id self, id value) {
+#if JREMEMDEBUG_ENABLED
+  if (JreMemDebugEnabled) {
+    JreMemDebugLock();
+  }
+#endif // JREMEMDEBUG_ENABLED
+  if (* pIvar != self) {
+    [* pIvar autorelease];
+  }
+  * pIvar = value;
+#if JREMEMDEBUG_ENABLED
+  if (JreMemDebugEnabled) {
+    JreMemDebugUnlock();
+  }
+#endif // JREMEMDEBUG_ENABLED
+
+  return value;
+}
 #endif
 
 // Converts main() arguments into an IOSObjectArray of NSStrings.
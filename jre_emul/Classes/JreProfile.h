@@ -0,0 +1,91 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+// Method profiling support for code translated with --profile-methods.
+//
+// Each instrumented method counts its calls and the time spent in it, with
+// and without the time of the instrumented methods it calls. The counters
+// are kept in a buffer per thread, so recording a call doesn't take a lock.
+// Counters of threads that have exited are merged into a shared buffer.
+//
+// Exits are recorded by a cleanup attribute, so methods left by a thrown
+// exception are only counted when compiled with -fexceptions; otherwise
+// their time is added to the first caller that returns normally. Time spent
+// in a recursive call is included more than once in its total time, but not
+// in its self time.
+//
+
+#ifndef _JreProfile_H_
+#define _JreProfile_H_
+
+#ifdef __OBJC__
+
+#import <Foundation/Foundation.h>
+
+// A profiled method, statically allocated by J2OBJC_PROFILE_METHOD.
+typedef struct JreProfileSite {
+  const char *className;
+  const char *methodName;  // The name and JVM signature, such as "foo(I)V".
+  int32_t index;           // Assigned when first called, or zero.
+} JreProfileSite;
+
+// An active call of a profiled method, on the stack of the calling thread.
+// Its start time is kept in a per-thread stack at the given depth.
+typedef struct JreProfileFrame {
+  JreProfileSite *site;
+  int32_t depth;  // -1 if profiling was disabled when called.
+} JreProfileFrame;
+
+// JreProfileEnabled should be set to YES at the beginning of main(), or
+// before the code being profiled is run. Calls made while it is NO aren't
+// counted.
+FOUNDATION_EXPORT BOOL JreProfileEnabled;
+
+FOUNDATION_EXPORT void JreProfileEnterInternal(JreProfileFrame *frame);
+FOUNDATION_EXPORT void JreProfileExitInternal(JreProfileFrame *frame);
+
+static inline void JreProfileEnter(JreProfileFrame *frame) {
+  if (JreProfileEnabled) {
+    JreProfileEnterInternal(frame);
+  }
+}
+
+static inline void JreProfileExit(JreProfileFrame *frame) {
+  if (frame->depth >= 0) {
+    JreProfileExitInternal(frame);
+  }
+}
+
+// Generated at the start of each profiled method body.
+#define J2OBJC_PROFILE_METHOD(CLASS, METHOD) \
+  static JreProfileSite J2OBJC_profile_site = { CLASS, METHOD, 0 }; \
+  __attribute__((cleanup(JreProfileExit))) JreProfileFrame J2OBJC_profile_frame = \
+      { &J2OBJC_profile_site, -1 }; \
+  JreProfileEnter(&J2OBJC_profile_frame)
+
+// Returns a flat profile of all threads, one method per line sorted by self
+// time, with tab-separated columns: self time and total time in
+// microseconds, number of calls, and the method as
+// "com.foo.Bar#method(signature)". The first line is a header starting
+// with '#'. Counters of running threads may be slightly behind.
+FOUNDATION_EXPORT NSString *JreProfileFlatProfile(void);
+
+// Writes the flat profile to a file, returning NO if it can't be written.
+FOUNDATION_EXPORT BOOL JreProfileWriteFlatProfile(NSString *path);
+
+// Clears the counters of all threads.
+FOUNDATION_EXPORT void JreProfileReset(void);
+
+#endif // __OBJC__
+
+#endif // _JreProfile_H_
@@ -0,0 +1,272 @@
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//
+// Method profiling counters, see JreProfile.h.
+//
+
+#import "JreProfile.h"
+
+#include <pthread.h>
+#include <stdlib.h>
+#include <string.h>
+#ifdef __APPLE__
+#include <mach/mach_time.h>
+#else
+#include <time.h>
+#endif
+
+BOOL JreProfileEnabled = NO;
+
+typedef struct JreProfileCounter {
+  uint64_t calls;
+  uint64_t ticks;
+  uint64_t selfTicks;
+} JreProfileCounter;
+
+typedef struct JreProfileStackEntry {
+  uint64_t start;
+  uint64_t childTicks;
+} JreProfileStackEntry;
+
+// The counters of a thread, and the start times of its active calls.
+typedef struct JreProfileBuffer {
+  JreProfileCounter *counters;  // Indexed by site index - 1.
+  int32_t counterCount;
+  JreProfileStackEntry *stack;
+  int32_t depth;
+  int32_t stackCapacity;
+  struct JreProfileBuffer *next;
+  struct JreProfileBuffer *previous;
+} JreProfileBuffer;
+
+// Guards the sites, the list of buffers, and the growth of their counters.
+static pthread_mutex_t profileLock = PTHREAD_MUTEX_INITIALIZER;
+static pthread_once_t profileKeyOnce = PTHREAD_ONCE_INIT;
+static pthread_key_t profileKey;
+
+static JreProfileSite **sites = NULL;
+static int32_t siteCount = 0;
+static int32_t siteCapacity = 0;
+
+static JreProfileBuffer *threadBuffers = NULL;
+static JreProfileBuffer exitedThreadsBuffer;
+
+static inline uint64_t Now(void) {
+#ifdef __APPLE__
+  return mach_absolute_time();
+#else
+  struct timespec ts;
+  clock_gettime(CLOCK_MONOTONIC, &ts);
+  return (uint64_t) ts.tv_sec * 1000000000 + ts.tv_nsec;
+#endif
+}
+
+static double TicksToMicroseconds(uint64_t ticks) {
+#ifdef __APPLE__
+  static mach_timebase_info_data_t timebase;
+  if (timebase.denom == 0) {
+    mach_timebase_info(&timebase);
+  }
+  return (double) ticks * timebase.numer / timebase.denom / 1000.0;
+#else
+  return ticks / 1000.0;
+#endif
+}
+
+// Grows a buffer's counters to include a site index. Called with the lock held.
+static void GrowCounters(JreProfileBuffer *buffer, int32_t count) {
+  if (count <= buffer->counterCount) {
+    return;
+  }
+  int32_t newCount = buffer->counterCount > 0 ? buffer->counterCount : 64;
+  while (newCount < count) {
+    newCount *= 2;
+  }
+  buffer->counters = realloc(buffer->counters, newCount * sizeof(JreProfileCounter));
+  memset(buffer->counters + buffer->counterCount, 0,
+         (newCount - buffer->counterCount) * sizeof(JreProfileCounter));
+  buffer->counterCount = newCount;
+}
+
+// Merges the counters of a thread that is exiting into the shared buffer.
+static void ReleaseBuffer(void *value) {
+  JreProfileBuffer *buffer = value;
+  pthread_mutex_lock(&profileLock);
+  GrowCounters(&exitedThreadsBuffer, buffer->counterCount);
+  for (int32_t i = 0; i < buffer->counterCount; i++) {
+    exitedThreadsBuffer.counters[i].calls += buffer->counters[i].calls;
+    exitedThreadsBuffer.counters[i].ticks += buffer->counters[i].ticks;
+    exitedThreadsBuffer.counters[i].selfTicks += buffer->counters[i].selfTicks;
+  }
+  if (buffer->previous) {
+    buffer->previous->next = buffer->next;
+  } else {
+    threadBuffers = buffer->next;
+  }
+  if (buffer->next) {
+    buffer->next->previous = buffer->previous;
+  }
+  pthread_mutex_unlock(&profileLock);
+  free(buffer->counters);
+  free(buffer->stack);
+  free(buffer);
+}
+
+static void CreateKey(void) {
+  pthread_key_create(&profileKey, ReleaseBuffer);
+}
+
+static JreProfileBuffer *GetBuffer(void) {
+  pthread_once(&profileKeyOnce, CreateKey);
+  JreProfileBuffer *buffer = pthread_getspecific(profileKey);
+  if (!buffer) {
+    buffer = calloc(1, sizeof(JreProfileBuffer));
+    pthread_mutex_lock(&profileLock);
+    buffer->next = threadBuffers;
+    if (threadBuffers) {
+      threadBuffers->previous = buffer;
+    }
+    threadBuffers = buffer;
+    pthread_mutex_unlock(&profileLock);
+    pthread_setspecific(profileKey, buffer);
+  }
+  return buffer;
+}
+
+static int32_t GetSiteIndex(JreProfileSite *site) {
+  int32_t index = __atomic_load_n(&site->index, __ATOMIC_ACQUIRE);
+  if (index == 0) {
+    pthread_mutex_lock(&profileLock);
+    index = site->index;
+    if (index == 0) {
+      if (siteCount == siteCapacity) {
+        siteCapacity = siteCapacity > 0 ? siteCapacity * 2 : 256;
+        sites = realloc(sites, siteCapacity * sizeof(JreProfileSite *));
+      }
+      sites[siteCount++] = site;
+      index = siteCount;
+      __atomic_store_n(&site->index, index, __ATOMIC_RELEASE);
+    }
+    pthread_mutex_unlock(&profileLock);
+  }
+  return index;
+}
+
+void JreProfileEnterInternal(JreProfileFrame *frame) {
+  JreProfileBuffer *buffer = GetBuffer();
+  if (buffer->depth == buffer->stackCapacity) {
+    buffer->stackCapacity = buffer->stackCapacity > 0 ? buffer->stackCapacity * 2 : 64;
+    buffer->stack =
+        realloc(buffer->stack, buffer->stackCapacity * sizeof(JreProfileStackEntry));
+  }
+  frame->depth = buffer->depth++;
+  JreProfileStackEntry *entry = &buffer->stack[frame->depth];
+  entry->childTicks = 0;
+  entry->start = Now();
+}
+
+void JreProfileExitInternal(JreProfileFrame *frame) {
+  uint64_t end = Now();
+  JreProfileBuffer *buffer = pthread_getspecific(profileKey);
+  // Also pops any calls above this one whose exits were skipped by an
+  // exception.
+  buffer->depth = frame->depth;
+  JreProfileStackEntry *entry = &buffer->stack[frame->depth];
+  uint64_t ticks = end - entry->start;
+  if (frame->depth > 0) {
+    buffer->stack[frame->depth - 1].childTicks += ticks;
+  }
+  int32_t index = GetSiteIndex(frame->site);
+  if (index > buffer->counterCount) {
+    pthread_mutex_lock(&profileLock);
+    GrowCounters(buffer, index);
+    pthread_mutex_unlock(&profileLock);
+  }
+  JreProfileCounter *counter = &buffer->counters[index - 1];
+  counter->calls++;
+  counter->ticks += ticks;
+  counter->selfTicks += ticks > entry->childTicks ? ticks - entry->childTicks : 0;
+}
+
+static int CompareSelfTicks(const void *a, const void *b) {
+  uint64_t x = ((const JreProfileCounter *) a)->selfTicks;
+  uint64_t y = ((const JreProfileCounter *) b)->selfTicks;
+  return x < y ? 1 : (x > y ? -1 : 0);
+}
+
+typedef struct JreProfileEntry {
+  JreProfileCounter counter;  // Must be first, for CompareSelfTicks.
+  JreProfileSite *site;
+} JreProfileEntry;
+
+static void AddCounters(JreProfileEntry *totals, JreProfileBuffer *buffer) {
+  int32_t count = buffer->counterCount < siteCount ? buffer->counterCount : siteCount;
+  for (int32_t i = 0; i < count; i++) {
+    totals[i].counter.calls += buffer->counters[i].calls;
+    totals[i].counter.ticks += buffer->counters[i].ticks;
+    totals[i].counter.selfTicks += buffer->counters[i].selfTicks;
+  }
+}
+
+NSString *JreProfileFlatProfile(void) {
+  pthread_mutex_lock(&profileLock);
+  int32_t count = siteCount;
+  JreProfileEntry *totals = calloc(count > 0 ? count : 1, sizeof(JreProfileEntry));
+  for (int32_t i = 0; i < count; i++) {
+    totals[i].site = sites[i];
+  }
+  AddCounters(totals, &exitedThreadsBuffer);
+  for (JreProfileBuffer *buffer = threadBuffers; buffer; buffer = buffer->next) {
+    AddCounters(totals, buffer);
+  }
+  pthread_mutex_unlock(&profileLock);
+
+  qsort(totals, count, sizeof(JreProfileEntry), CompareSelfTicks);
+  NSMutableString *result =
+      [NSMutableString stringWithString:@"# self_us\ttotal_us\tcalls\tmethod\n"];
+  for (int32_t i = 0; i < count; i++) {
+    JreProfileEntry *entry = &totals[i];
+    if (entry->counter.calls == 0) {
+      continue;
+    }
+    [result appendFormat:@"%.1f\t%.1f\t%llu\t%s#%s\n",
+        TicksToMicroseconds(entry->counter.selfTicks),
+        TicksToMicroseconds(entry->counter.ticks),
+        (unsigned long long) entry->counter.calls,
+        entry->site->className, entry->site->methodName];
+  }
+  free(totals);
+  return result;
+}
+
+BOOL JreProfileWriteFlatProfile(NSString *path) {
+  NSError *error = nil;
+  BOOL written = [JreProfileFlatProfile() writeToFile:path
+                                           atomically:YES
+                                             encoding:NSUTF8StringEncoding
+                                                error:&error];
+  if (!written) {
+    NSLog(@"J2ObjC profile: can't write %@: %@", path, error);
+  }
+  return written;
+}
+
+void JreProfileReset(void) {
+  pthread_mutex_lock(&profileLock);
+  memset(exitedThreadsBuffer.counters, 0,
+         exitedThreadsBuffer.counterCount * sizeof(JreProfileCounter));
+  for (JreProfileBuffer *buffer = threadBuffers; buffer; buffer = buffer->next) {
+    memset(buffer->counters, 0, buffer->counterCount * sizeof(JreProfileCounter));
+  }
+  pthread_mutex_unlock(&profileLock);
+}
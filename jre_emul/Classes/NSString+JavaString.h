@@ -311,4 +311,72 @@ J2OBJC_STATIC_FIELD_GETTER(NSString, CASE_INSENSITIVE_ORDER_, id<JavaUtilCompara
 FOUNDATION_EXPORT IOSObjectArray *NSString_serialPersistentFields_;
 J2OBJC_STATIC_FIELD_GETTER(NSString, serialPersistentFields_, IOSObjectArray *)
 
+// Functions for frequently called String methods, which code translated
+// with --string-intrinsics calls instead of the category methods when the
+// receiver's type is String. The receiver can't be nil.
+
+FOUNDATION_EXPORT void JreThrowNullPointerException() __attribute__((noreturn));
+FOUNDATION_EXPORT void NSString_throwIndexOutOfBounds(int index) __attribute__((noreturn));
+FOUNDATION_EXPORT int NSString_indexOf(NSString *self, int ch, int fromIndex);
+
+__attribute__((unused)) static inline int NSString_length(NSString *self) {
+  return (int) CFStringGetLength((__bridge CFStringRef) self);
+}
+
+__attribute__((unused)) static inline BOOL NSString_isEmpty(NSString *self) {
+  return CFStringGetLength((__bridge CFStringRef) self) == 0;
+}
+
+__attribute__((unused)) static inline unichar NSString_charAt(NSString *self, int index) {
+  CFStringRef s = (__bridge CFStringRef) self;
+  if (index < 0 || index >= CFStringGetLength(s)) {
+    NSString_throwIndexOutOfBounds(index);
+  }
+  return CFStringGetCharacterAtIndex(s, index);
+}
+
+// CFEqual() sends isEqual: to objects that aren't CF strings, so other is
+// checked first, to keep equals() symmetric.
+__attribute__((unused)) static inline BOOL NSString_equals(NSString *self, id other) {
+  return self == other || ([other isKindOfClass:[NSString class]]
+      && CFEqual((__bridge CFStringRef) self, (__bridge CFStringRef) other));
+}
+
+// The characters of a string read by a loop, fetched a block at a time.
+// Unlike the functions above, the string may be nil, so that a
+// NullPointerException is only thrown if the loop reads it.
+
+__attribute__((unused)) static inline void NSString_initCharBuffer(
+    NSString *self, CFStringInlineBuffer *buffer) {
+  if (self) {
+    CFStringRef s = (__bridge CFStringRef) self;
+    CFStringInitInlineBuffer(s, buffer, CFRangeMake(0, CFStringGetLength(s)));
+  } else {
+    buffer->theString = NULL;
+  }
+}
+
+__attribute__((unused)) static inline int NSString_charBufferLength(
+    CFStringInlineBuffer *buffer) {
+  if (!buffer->theString) {
+    JreThrowNullPointerException();
+  }
+  return (int) buffer->rangeToBuffer.length;
+}
+
+__attribute__((unused)) static inline unichar NSString_charAtFromBuffer(
+    CFStringInlineBuffer *buffer, int index) {
+  if (index < 0 || index >= NSString_charBufferLength(buffer)) {
+    NSString_throwIndexOutOfBounds(index);
+  }
+  return CFStringGetCharacterFromInlineBuffer(buffer, index);
+}
+
+// Returns the index of the case of a switch statement that a string matches,
+// or NSNotFound if it matches none or is nil. Code translated with
+// --string-table passes the Java hash codes of the cases, so that only cases
+// with the same hash code as the string are compared.
+FOUNDATION_EXPORT NSUInteger NSString_indexOfSwitchCase(
+    NSString *self, NSString * const *cases, const int *hashCodes, int count);
+
 #endif // _NSString_JavaString_H_
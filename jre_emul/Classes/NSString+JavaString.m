@@ -991,6 +991,49 @@ NSStringEncoding parseCharsetName(NSString *charset) {
 
 @end
 
+void NSString_throwIndexOutOfBounds(int index) {
+  @throw AUTORELEASE([[JavaLangStringIndexOutOfBoundsException alloc] initWithInt:index]);
+}
+
+int NSString_indexOf(NSString *self, int ch, int fromIndex) {
+  if (ch > 0xFFFF) {
+    return [self indexOf:ch fromIndex:fromIndex];
+  }
+  CFStringRef s = (__bridge CFStringRef) self;
+  CFIndex length = CFStringGetLength(s);
+  CFStringInlineBuffer buffer;
+  CFStringInitInlineBuffer(s, &buffer, CFRangeMake(0, length));
+  for (CFIndex i = fromIndex > 0 ? fromIndex : 0; i < length; i++) {
+    if (CFStringGetCharacterFromInlineBuffer(&buffer, i) == ch) {
+      return (int) i;
+    }
+  }
+  return -1;
+}
+
+NSUInteger NSString_indexOfSwitchCase(
+    NSString *self, NSString * const *cases, const int *hashCodes, int count) {
+  if (!self) {
+    return NSNotFound;
+  }
+  // Computes the hash code directly, since -hash looks up the one it caches
+  // in an associated object. Unsigned, so that overflow wraps.
+  CFStringRef s = (__bridge CFStringRef) self;
+  CFIndex length = CFStringGetLength(s);
+  CFStringInlineBuffer buffer;
+  CFStringInitInlineBuffer(s, &buffer, CFRangeMake(0, length));
+  uint32_t hash = 0;
+  for (CFIndex i = 0; i < length; i++) {
+    hash = 31 * hash + CFStringGetCharacterFromInlineBuffer(&buffer, i);
+  }
+  for (int i = 0; i < count; i++) {
+    if (hashCodes[i] == (int) hash && [self isEqualToString:cases[i]]) {
+      return i;
+    }
+  }
+  return NSNotFound;
+}
+
 BOOL NSString_initialized = NO;
 
 id<JavaUtilComparator> NSString_CASE_INSENSITIVE_ORDER_;
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.j2objc;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the String functions called by code translated with
+ * --string-intrinsics.
+ */
+public class StringIntrinsicsTest extends TestCase {
+
+  // Equal to every object, which String.equals() must not be.
+  static class EqualToAll {
+    @Override
+    public boolean equals(Object o) {
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+  }
+
+  public void testEquals() {
+    assertTrue(stringEquals("x", "x"));
+    assertTrue(stringEquals("x", new StringBuilder("x").toString()));
+    assertFalse(stringEquals("x", "y"));
+    assertFalse(stringEquals("x", null));
+  }
+
+  public void testEqualsNonString() {
+    Object other = new EqualToAll();
+    assertTrue(other.equals("x"));
+    assertFalse(stringEquals("x", other));
+    assertFalse("x".equals(other));
+    assertFalse(stringEquals("1", new Integer(1)));
+  }
+
+  private static native boolean stringEquals(String s, Object other) /*-[
+    return NSString_equals(s, other);
+  ]-*/;
+}
@@ -228,4 +228,15 @@ public final class Boolean implements Serializable, Comparable<Boolean> {
     public static Boolean valueOf(boolean b) {
         return b ? Boolean.TRUE : Boolean.FALSE;
     }
+
+    /*-[
+    JavaLangBoolean *JavaLangBoolean_valueOfWithBoolean_(BOOL b) {
+      JavaLangBoolean_init();
+      return b ? JavaLangBoolean_TRUE__ : JavaLangBoolean_FALSE__;
+    }
+
+    BOOL JavaLangBoolean_booleanValue(JavaLangBoolean *self) {
+      return self->value_;
+    }
+    ]-*/
 }
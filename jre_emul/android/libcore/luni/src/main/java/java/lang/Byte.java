@@ -323,5 +323,14 @@ public final class Byte extends Number implements Comparable<Byte> {
     - (void)getValue:(void *)buffer {
       *((char *) buffer) = value_;
     }
+
+    JavaLangByte *JavaLangByte_valueOfWithByte_(char b) {
+      JavaLangByte_init();
+      return JavaLangByte_VALUES_->buffer_[b + 128];
+    }
+
+    char JavaLangByte_byteValue(JavaLangByte *self) {
+      return self->value_;
+    }
     ]-*/
 }
@@ -4491,4 +4491,17 @@ public final class Character implements Serializable, Comparable<Character> {
       }
       return mid - (c < value ? 1 : 0);
     }
+
+    /*-[
+    JavaLangCharacter *JavaLangCharacter_valueOfWithChar_(unichar c) {
+      JavaLangCharacter_init();
+      return c < 128
+          ? JavaLangCharacter_SMALL_VALUES_->buffer_[c]
+          : AUTORELEASE([[JavaLangCharacter alloc] initWithChar:c]);
+    }
+
+    unichar JavaLangCharacter_charValue(JavaLangCharacter *self) {
+      return self->value_;
+    }
+    ]-*/
 }
@@ -507,5 +507,13 @@ public final class Double extends Number implements Comparable<Double> {
     - (void)getValue:(void *)buffer {
       *((double *) buffer) = value_;
     }
+
+    JavaLangDouble *JavaLangDouble_valueOfWithDouble_(double d) {
+      return AUTORELEASE([[JavaLangDouble alloc] initWithDouble:d]);
+    }
+
+    double JavaLangDouble_doubleValue(JavaLangDouble *self) {
+      return self->value_;
+    }
     ]-*/
 }
@@ -512,5 +512,13 @@ public final class Float extends Number implements Comparable<Float> {
     - (void)getValue:(void *)buffer {
       *((float *) buffer) = value_;
     }
+
+    JavaLangFloat *JavaLangFloat_valueOfWithFloat_(float f) {
+      return AUTORELEASE([[JavaLangFloat alloc] initWithFloat:f]);
+    }
+
+    float JavaLangFloat_floatValue(JavaLangFloat *self) {
+      return self->value_;
+    }
     ]-*/
 }
@@ -730,5 +730,16 @@ public final class Integer extends Number implements Comparable<Integer> {
     - (void)getValue:(void *)buffer {
       *((int *) buffer) = value_;
     }
+
+    JavaLangInteger *JavaLangInteger_valueOfWithInt_(int i) {
+      JavaLangInteger_init();
+      return i >= 128 || i < -128
+          ? AUTORELEASE([[JavaLangInteger alloc] initWithInt:i])
+          : JavaLangInteger_SMALL_VALUES_->buffer_[i + 128];
+    }
+
+    int JavaLangInteger_intValue(JavaLangInteger *self) {
+      return self->value_;
+    }
     ]-*/
 }
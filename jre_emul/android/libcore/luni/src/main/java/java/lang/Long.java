@@ -751,5 +751,16 @@ public final class Long extends Number implements Comparable<Long> {
     - (void)getValue:(void *)buffer {
       *((long long int *) buffer) = value_;
     }
+
+    JavaLangLong *JavaLangLong_valueOfWithLong_(long long v) {
+      JavaLangLong_init();
+      return v >= 128 || v < -128
+          ? AUTORELEASE([[JavaLangLong alloc] initWithLong:v])
+          : JavaLangLong_SMALL_VALUES_->buffer_[((int) v) + 128];
+    }
+
+    long long JavaLangLong_longValue(JavaLangLong *self) {
+      return self->value_;
+    }
     ]-*/
 }
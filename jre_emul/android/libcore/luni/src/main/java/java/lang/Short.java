@@ -331,5 +331,16 @@ public final class Short extends Number implements Comparable<Short> {
     - (void)getValue:(void *)buffer {
       *((short int *) buffer) = value_;
     }
+
+    JavaLangShort *JavaLangShort_valueOfWithShort_(short s) {
+      JavaLangShort_init();
+      return s < -128 || s >= 128
+          ? AUTORELEASE([[JavaLangShort alloc] initWithShort:s])
+          : JavaLangShort_SMALL_VALUES_->buffer_[s + 128];
+    }
+
+    short JavaLangShort_shortValue(JavaLangShort *self) {
+      return self->value_;
+    }
     ]-*/
 }
@@ -31,7 +31,8 @@ public abstract class Enum<E extends Enum<E>> implements Serializable,
 
     private final String name;
 
-    private final int ordinal;
+    // Not private, so translated switch statements can read the ivar directly.
+    final int ordinal;
 
     /**
      * Constructor for constants of enum subtypes.
@@ -118,6 +118,7 @@ TEST_SOURCES = \
     android/text/TextUtilsTest.java \
     com/google/j2objc/ClassTest.java \
     com/google/j2objc/PackageTest.java \
+    com/google/j2objc/StringIntrinsicsTest.java \
     com/google/j2objc/ThrowableTest.java \
     com/google/j2objc/security/IosSecureRandomImplTest.java \
     java/lang/ref/PhantomReferenceTest.java \
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.devtools.j2objc.translate.ClassHierarchyAnalyzer;
+import com.google.devtools.j2objc.util.ClassHierarchyMap;
+import com.google.devtools.j2objc.util.JdtParser;
+import com.google.devtools.j2objc.util.TimeTracker;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.logging.Logger;
+
+/**
+ * Scans all of the files being translated to build the class hierarchy used
+ * by closed-world devirtualization.
+ */
+public class ClassHierarchyProcessor extends FileProcessor {
+
+  private static final Logger logger = Logger.getLogger(ClassHierarchyProcessor.class.getName());
+
+  private final ClassHierarchyMap.Builder builder = ClassHierarchyMap.builder();
+
+  public ClassHierarchyProcessor(JdtParser parser) {
+    super(parser);
+  }
+
+  @Override
+  protected void processUnit(String path, String source, CompilationUnit unit, TimeTracker ticker) {
+    logger.finest("analyzing class hierarchy: " + path);
+    new ClassHierarchyAnalyzer(builder).run(unit);
+    ticker.tick("Class hierarchy analysis");
+  }
+
+  public void postProcess() {
+    Options.setClassHierarchyMap(builder.build());
+  }
+}
@@ -176,12 +176,35 @@ public class J2ObjC {
     // Remove dead-code first, so modified file paths are replaced in the
     // translation list.
     DeadCodeProcessor deadCodeProcessor = DeadCodeProcessor.create(parser);
+    if (Options.treeShaker()) {
+      ReachabilityProcessor reachabilityProcessor = new ReachabilityProcessor(parser);
+      reachabilityProcessor.processFiles(Arrays.asList(files));
+      checkErrors();
+      deadCodeProcessor =
+          DeadCodeProcessor.createWithMap(parser, reachabilityProcessor.postProcess());
+    }
     if (deadCodeProcessor != null) {
       deadCodeProcessor.processFiles(Arrays.asList(files));
       checkErrors();
       files = deadCodeProcessor.postProcess().toArray(new String[0]);
     }
 
+    // Closed-world devirtualization needs every class's overrides before
+    // any file is translated.
+    if (Options.closedWorld()) {
+      ClassHierarchyProcessor classHierarchyProcessor = new ClassHierarchyProcessor(parser);
+      classHierarchyProcessor.processFiles(Arrays.asList(files));
+      checkErrors();
+      classHierarchyProcessor.postProcess();
+    }
+
+    if (Options.selectiveReflection() && !Options.stripReflection()) {
+      ReflectionUsageProcessor reflectionUsageProcessor = new ReflectionUsageProcessor(parser);
+      reflectionUsageProcessor.processFiles(Arrays.asList(files));
+      checkErrors();
+      reflectionUsageProcessor.postProcess();
+    }
+
     TranslationProcessor translationProcessor = new TranslationProcessor(parser);
     translationProcessor.processFiles(Arrays.asList(files));
     translationProcessor.postProcess();
@@ -22,7 +22,9 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Resources;
+import com.google.devtools.j2objc.util.ClassHierarchyMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -36,6 +38,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * The set of tool properties, initialized by the command-line arguments.
@@ -72,11 +76,30 @@ public class Options {
   private static boolean extractUnsequencedModifications = false;
   private static boolean docCommentsEnabled = false;
   private static boolean finalMethodsAsFunctions = false;
+  private static boolean closedWorld = false;
+  private static ClassHierarchyMap classHierarchyMap = null;
+  private static boolean shareAnonymousInstances = false;
+  private static boolean reorderIvars = false;
+  private static boolean compactMetadata = false;
+  private static boolean stringIntrinsics = false;
+  private static boolean boxingFunctions = false;
+  private static String stringTable = null;
+  private static File sizeReport = null;
+  private static boolean selectiveReflection = false;
+  private static File reflectionKeepFile = null;
+  private static ReflectionUsageMap reflectionUsageMap = null;
+  private static boolean inlineAccessors = true;
+  private static int autoreleasePoolThreshold = 0;
+  private static boolean profileMethods = false;
+  private static Pattern profileMethodsFilter = null;
   // TODO(tball): change default to true once clients had a chance to update their builds.
   private static boolean hidePrivateMembers = false;
   private static int batchTranslateMaximum = 0;
+  private static int generationThreads = 0;
 
   private static File proGuardUsageFile = null;
+  private static boolean treeShaker = false;
+  private static File treeShakerRootsFile = null;
 
   private static final String JRE_MAPPINGS_FILE = "JRE.mappings";
   private static final List<String> mappingFiles = Lists.newArrayList(JRE_MAPPINGS_FILE);
@@ -92,6 +115,10 @@ public class Options {
   private static String bootclasspath = System.getProperty("sun.boot.class.path");
   private static Map<String, String> packagePrefixes = Maps.newHashMap();
   private static final String BATCH_PROCESSING_MAX_FLAG = "--batch-translate-max=";
+  private static final String GENERATION_THREADS_FLAG = "--generation-threads=";
+  private static final String AUTORELEASE_POOLS_FLAG = "--auto-autorelease-pools";
+  private static final int DEFAULT_AUTORELEASE_POOL_THRESHOLD = 3;
+  private static final String PROFILE_METHODS_FLAG = "--profile-methods";
 
   static {
     // Load string resources.
@@ -178,6 +205,22 @@ public class Options {
           usage("--dead-code-report requires an argument");
         }
         proGuardUsageFile = new File(args[nArg]);
+      } else if (arg.equals("--tree-shaker")) {
+        treeShaker = true;
+      } else if (arg.equals("--tree-shaker-roots")) {
+        if (++nArg == args.length) {
+          usage("--tree-shaker-roots requires an argument");
+        }
+        treeShakerRootsFile = new File(args[nArg]);
+        treeShaker = true;
+      } else if (arg.equals("--selective-reflection")) {
+        selectiveReflection = true;
+      } else if (arg.equals("--keep-reflection")) {
+        if (++nArg == args.length) {
+          usage("--keep-reflection requires an argument");
+        }
+        reflectionKeepFile = new File(args[nArg]);
+        selectiveReflection = true;
       } else if (arg.equals("--prefix")) {
         if (++nArg == args.length) {
           usage("--prefix requires an argument");
@@ -258,8 +301,53 @@ public class Options {
       } else if (arg.startsWith(BATCH_PROCESSING_MAX_FLAG)) {
         batchTranslateMaximum =
             Integer.parseInt(arg.substring(BATCH_PROCESSING_MAX_FLAG.length()));
+      } else if (arg.startsWith(GENERATION_THREADS_FLAG)) {
+        generationThreads = Integer.parseInt(arg.substring(GENERATION_THREADS_FLAG.length()));
       } else if (arg.equals("--final-methods-as-functions")) {
         finalMethodsAsFunctions = true;
+      } else if (arg.equals("--closed-world")) {
+        closedWorld = true;
+        finalMethodsAsFunctions = true;
+      } else if (arg.equals("--share-anonymous-instances")) {
+        shareAnonymousInstances = true;
+      } else if (arg.equals("--reorder-ivars")) {
+        reorderIvars = true;
+      } else if (arg.equals("--compact-metadata")) {
+        compactMetadata = true;
+      } else if (arg.equals("--string-intrinsics")) {
+        stringIntrinsics = true;
+      } else if (arg.equals("--boxing-functions")) {
+        boxingFunctions = true;
+      } else if (arg.equals("--string-table")) {
+        if (++nArg == args.length) {
+          usage("--string-table requires an argument");
+        }
+        stringTable = args[nArg];
+        if (!stringTable.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+          usage("invalid --string-table name: " + stringTable);
+        }
+      } else if (arg.equals("--size-report")) {
+        if (++nArg == args.length) {
+          usage("--size-report requires an argument");
+        }
+        sizeReport = new File(args[nArg]);
+      } else if (arg.equals("--no-inline-accessors")) {
+        inlineAccessors = false;
+      } else if (arg.equals(AUTORELEASE_POOLS_FLAG)) {
+        autoreleasePoolThreshold = DEFAULT_AUTORELEASE_POOL_THRESHOLD;
+      } else if (arg.startsWith(AUTORELEASE_POOLS_FLAG + "=")) {
+        autoreleasePoolThreshold =
+            Integer.parseInt(arg.substring(AUTORELEASE_POOLS_FLAG.length() + 1));
+      } else if (arg.equals(PROFILE_METHODS_FLAG)) {
+        profileMethods = true;
+      } else if (arg.startsWith(PROFILE_METHODS_FLAG + "=")) {
+        profileMethods = true;
+        try {
+          profileMethodsFilter =
+              Pattern.compile(arg.substring(PROFILE_METHODS_FLAG.length() + 1));
+        } catch (PatternSyntaxException e) {
+          usage("invalid " + PROFILE_METHODS_FLAG + " pattern: " + e.getDescription());
+        }
       } else if (arg.equals("--hide-private-members")) {
         hidePrivateMembers = true;
       } else if (arg.equals("--no-hide-private-members")) {
@@ -278,6 +366,14 @@ public class Options {
       memoryManagementOption = MemoryManagementOption.REFERENCE_COUNTING;
     }
 
+    if (closedWorld && buildClosure) {
+      usage("--closed-world cannot be used with --build-closure");
+    }
+
+    if (treeShaker && proGuardUsageFile != null) {
+      usage("--tree-shaker cannot be used with --dead-code-report");
+    }
+
     int nFiles = args.length - nArg;
     String[] files = new String[nFiles];
     for (int i = 0; i < nFiles; i++) {
@@ -526,6 +622,25 @@ public class Options {
     return proGuardUsageFile;
   }
 
+  public static boolean treeShaker() {
+    return treeShaker;
+  }
+
+  @VisibleForTesting
+  public static void enableTreeShaker() {
+    treeShaker = true;
+  }
+
+  @VisibleForTesting
+  public static void resetTreeShaker() {
+    treeShaker = false;
+    treeShakerRootsFile = null;
+  }
+
+  public static File getTreeShakerRootsFile() {
+    return treeShakerRootsFile;
+  }
+
   public static List<String> getBootClasspath() {
     return getPathArgument(bootclasspath);
   }
@@ -651,6 +766,24 @@ public class Options {
     return batchTranslateMaximum;
   }
 
+  /**
+   * Returns the number of threads that source files are generated on, or
+   * zero if they're generated by the translating thread.
+   */
+  public static int generationThreads() {
+    return generationThreads;
+  }
+
+  @VisibleForTesting
+  public static void setGenerationThreads(int threads) {
+    generationThreads = threads;
+  }
+
+  @VisibleForTesting
+  public static void resetGenerationThreads() {
+    generationThreads = 0;
+  }
+
   public static boolean finalMethodsAsFunctions() {
     return finalMethodsAsFunctions;
   }
@@ -665,6 +798,217 @@ public class Options {
     finalMethodsAsFunctions = false;
   }
 
+  public static boolean closedWorld() {
+    return closedWorld;
+  }
+
+  @VisibleForTesting
+  public static void enableClosedWorld() {
+    closedWorld = true;
+  }
+
+  @VisibleForTesting
+  public static void resetClosedWorld() {
+    closedWorld = false;
+    classHierarchyMap = null;
+  }
+
+  public static ClassHierarchyMap getClassHierarchyMap() {
+    return classHierarchyMap;
+  }
+
+  public static void setClassHierarchyMap(ClassHierarchyMap map) {
+    classHierarchyMap = map;
+  }
+
+  public static boolean shareAnonymousInstances() {
+    return shareAnonymousInstances;
+  }
+
+  @VisibleForTesting
+  public static void enableShareAnonymousInstances() {
+    shareAnonymousInstances = true;
+  }
+
+  @VisibleForTesting
+  public static void resetShareAnonymousInstances() {
+    shareAnonymousInstances = false;
+  }
+
+  public static boolean reorderIvars() {
+    return reorderIvars;
+  }
+
+  @VisibleForTesting
+  public static void enableReorderIvars() {
+    reorderIvars = true;
+  }
+
+  @VisibleForTesting
+  public static void resetReorderIvars() {
+    reorderIvars = false;
+  }
+
+  public static boolean compactMetadata() {
+    return compactMetadata;
+  }
+
+  @VisibleForTesting
+  public static void enableCompactMetadata() {
+    compactMetadata = true;
+  }
+
+  @VisibleForTesting
+  public static void resetCompactMetadata() {
+    compactMetadata = false;
+  }
+
+  public static boolean stringIntrinsics() {
+    return stringIntrinsics;
+  }
+
+  @VisibleForTesting
+  public static void enableStringIntrinsics() {
+    stringIntrinsics = true;
+  }
+
+  @VisibleForTesting
+  public static void resetStringIntrinsics() {
+    stringIntrinsics = false;
+  }
+
+  public static boolean boxingFunctions() {
+    return boxingFunctions;
+  }
+
+  @VisibleForTesting
+  public static void enableBoxingFunctions() {
+    boxingFunctions = true;
+  }
+
+  @VisibleForTesting
+  public static void resetBoxingFunctions() {
+    boxingFunctions = false;
+  }
+
+  /**
+   * Returns the name of the string table that string literals are
+   * referenced from, or null if they're generated inline.
+   */
+  public static String getStringTable() {
+    return stringTable;
+  }
+
+  @VisibleForTesting
+  public static void enableStringTable(String name) {
+    stringTable = name;
+  }
+
+  @VisibleForTesting
+  public static void resetStringTable() {
+    stringTable = null;
+  }
+
+  public static File getSizeReport() {
+    return sizeReport;
+  }
+
+  @VisibleForTesting
+  public static void enableSizeReport(File file) {
+    sizeReport = file;
+  }
+
+  @VisibleForTesting
+  public static void resetSizeReport() {
+    sizeReport = null;
+  }
+
+  public static boolean selectiveReflection() {
+    return selectiveReflection;
+  }
+
+  @VisibleForTesting
+  public static void enableSelectiveReflection() {
+    selectiveReflection = true;
+  }
+
+  @VisibleForTesting
+  public static void resetSelectiveReflection() {
+    selectiveReflection = false;
+    reflectionKeepFile = null;
+    reflectionUsageMap = null;
+  }
+
+  public static File getReflectionKeepFile() {
+    return reflectionKeepFile;
+  }
+
+  public static ReflectionUsageMap getReflectionUsageMap() {
+    return reflectionUsageMap;
+  }
+
+  public static void setReflectionUsageMap(ReflectionUsageMap map) {
+    reflectionUsageMap = map;
+  }
+
+  public static boolean inlineAccessors() {
+    return inlineAccessors;
+  }
+
+  @VisibleForTesting
+  public static void disableInlineAccessors() {
+    inlineAccessors = false;
+  }
+
+  @VisibleForTesting
+  public static void resetInlineAccessors() {
+    inlineAccessors = true;
+  }
+
+  /**
+   * Returns the estimated number of autoreleased objects per iteration at
+   * which loop bodies are wrapped in autorelease pools, or zero if loops
+   * aren't automatically wrapped.
+   */
+  public static int autoreleasePoolThreshold() {
+    return autoreleasePoolThreshold;
+  }
+
+  @VisibleForTesting
+  public static void setAutoreleasePoolThreshold(int threshold) {
+    autoreleasePoolThreshold = threshold;
+  }
+
+  @VisibleForTesting
+  public static void resetAutoreleasePoolThreshold() {
+    autoreleasePoolThreshold = 0;
+  }
+
+  public static boolean profileMethods() {
+    return profileMethods;
+  }
+
+  /**
+   * Returns true if a method should be instrumented with profiling counters.
+   * The name is the method's class and name, such as "com.foo.Bar#baz".
+   */
+  public static boolean profileMethod(String name) {
+    return profileMethods && (profileMethodsFilter == null
+        || profileMethodsFilter.matcher(name).find());
+  }
+
+  @VisibleForTesting
+  public static void enableProfileMethods(String filter) {
+    profileMethods = true;
+    profileMethodsFilter = filter != null ? Pattern.compile(filter) : null;
+  }
+
+  @VisibleForTesting
+  public static void resetProfileMethods() {
+    profileMethods = false;
+    profileMethodsFilter = null;
+  }
+
   public static boolean hidePrivateMembers() {
     return hidePrivateMembers;
   }
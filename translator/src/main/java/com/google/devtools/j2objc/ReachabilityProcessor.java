@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.translate.ReachabilityAnalyzer;
+import com.google.devtools.j2objc.util.DeadCodeMap;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.JdtParser;
+import com.google.devtools.j2objc.util.ReachabilityGraph;
+import com.google.devtools.j2objc.util.TimeTracker;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Scans all of the files being translated to find the classes and methods
+ * that can't be reached from any entry point, so they can be removed like
+ * the dead code in a ProGuard usage report.
+ */
+public class ReachabilityProcessor extends FileProcessor {
+
+  private static final Logger logger = Logger.getLogger(ReachabilityProcessor.class.getName());
+
+  private final ReachabilityGraph graph = new ReachabilityGraph();
+
+  public ReachabilityProcessor(JdtParser parser) {
+    super(parser);
+  }
+
+  @Override
+  protected void processUnit(String path, String source, CompilationUnit unit, TimeTracker ticker) {
+    logger.finest("analyzing reachability: " + path);
+    new ReachabilityAnalyzer(graph).run(unit);
+    ticker.tick("Reachability analysis");
+  }
+
+  public DeadCodeMap postProcess() {
+    File rootsFile = Options.getTreeShakerRootsFile();
+    if (rootsFile != null) {
+      try {
+        addRoots(graph, Files.readLines(rootsFile, Options.getCharset()));
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+      }
+    }
+    return graph.computeDeadCode();
+  }
+
+  /**
+   * Adds the entry points listed in a roots file. Each line names a class
+   * to keep with all of its methods, such as "com.foo.Bar" or
+   * "com.foo.Bar$Inner", or the methods of a class with a given name, such
+   * as "com.foo.Bar#baz". Lines starting with '#' are comments.
+   */
+  @VisibleForTesting
+  static void addRoots(ReachabilityGraph graph, List<String> lines) {
+    for (String line : lines) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      int i = line.indexOf('#');
+      if (i > 0) {
+        graph.keepMethods(line.substring(0, i), line.substring(i + 1));
+      } else {
+        graph.keepClass(line);
+      }
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.translate.ReflectionUsageAnalyzer;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.JdtParser;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
+import com.google.devtools.j2objc.util.TimeTracker;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Scans all of the files being translated to find the types that may be
+ * inspected with reflection, so metadata can be stripped from the others.
+ */
+public class ReflectionUsageProcessor extends FileProcessor {
+
+  private static final Logger logger =
+      Logger.getLogger(ReflectionUsageProcessor.class.getName());
+
+  private final ReflectionUsageMap.Builder builder = ReflectionUsageMap.builder();
+
+  public ReflectionUsageProcessor(JdtParser parser) {
+    super(parser);
+  }
+
+  @Override
+  protected void processUnit(String path, String source, CompilationUnit unit, TimeTracker ticker) {
+    logger.finest("analyzing reflection usage: " + path);
+    new ReflectionUsageAnalyzer(builder).run(unit);
+    ticker.tick("Reflection usage analysis");
+  }
+
+  public void postProcess() {
+    File keepFile = Options.getReflectionKeepFile();
+    if (keepFile != null) {
+      try {
+        addKeptTypes(builder, Files.readLines(keepFile, Options.getCharset()));
+      } catch (IOException e) {
+        ErrorUtil.error(e.getMessage());
+      }
+    }
+    Options.setReflectionUsageMap(builder.build());
+  }
+
+  /**
+   * Adds the types listed in a keep-list, one binary name such as
+   * "com.foo.Bar" or "com.foo.Bar$Inner" per line. The subtypes of listed
+   * types are kept as well. Lines starting with '#' are comments.
+   */
+  @VisibleForTesting
+  static void addKeptTypes(ReflectionUsageMap.Builder builder, List<String> lines) {
+    for (String line : lines) {
+      line = line.trim();
+      if (!line.isEmpty() && !line.startsWith("#")) {
+        builder.addReflectiveSupertype(line);
+      }
+    }
+  }
+}
@@ -17,12 +17,19 @@ package com.google.devtools.j2objc;
 import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.TreeConverter;
+import com.google.devtools.j2objc.gen.GenerationExecutor;
 import com.google.devtools.j2objc.gen.ObjectiveCHeaderGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCImplementationGenerator;
 import com.google.devtools.j2objc.gen.ObjectiveCSegmentedHeaderGenerator;
+import com.google.devtools.j2objc.gen.SizeReportGenerator;
+import com.google.devtools.j2objc.gen.StringTableGenerator;
+import com.google.devtools.j2objc.translate.AccessorInliner;
 import com.google.devtools.j2objc.translate.AnonymousClassConverter;
 import com.google.devtools.j2objc.translate.ArrayRewriter;
 import com.google.devtools.j2objc.translate.Autoboxer;
+import com.google.devtools.j2objc.translate.AutoreleasePoolInserter;
+import com.google.devtools.j2objc.translate.BoxingFunctionRewriter;
+import com.google.devtools.j2objc.translate.CastCheckResolver;
 import com.google.devtools.j2objc.translate.ComplexExpressionExtractor;
 import com.google.devtools.j2objc.translate.ConstantBranchPruner;
 import com.google.devtools.j2objc.translate.CopyAllFieldsWriter;
@@ -39,10 +46,14 @@ import com.google.devtools.j2objc.translate.OcniExtractor;
 import com.google.devtools.j2objc.translate.OperatorRewriter;
 import com.google.devtools.j2objc.translate.OuterReferenceFixer;
 import com.google.devtools.j2objc.translate.OuterReferenceResolver;
+import com.google.devtools.j2objc.translate.ProfileCounterInserter;
 import com.google.devtools.j2objc.translate.Rewriter;
 import com.google.devtools.j2objc.translate.StaticVarRewriter;
+import com.google.devtools.j2objc.translate.StringIntrinsicRewriter;
+import com.google.devtools.j2objc.translate.SynchronizedRewriter;
 import com.google.devtools.j2objc.translate.TypeSorter;
 import com.google.devtools.j2objc.translate.UnsequencedExpressionRewriter;
+import com.google.devtools.j2objc.translate.ValueRangeAnalyzer;
 import com.google.devtools.j2objc.types.HeaderImportCollector;
 import com.google.devtools.j2objc.types.IOSTypeBinding;
 import com.google.devtools.j2objc.types.ImplementationImportCollector;
@@ -63,6 +74,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
@@ -170,6 +183,10 @@ class TranslationProcessor extends FileProcessor {
     new Autoboxer().run(unit);
     ticker.tick("Autoboxer");
 
+    // Adds autorelease pools to loops that autorelease many objects.
+    new AutoreleasePoolInserter().run(unit);
+    ticker.tick("AutoreleasePoolInserter");
+
     // Extract inner and anonymous classes
     new AnonymousClassConverter().run(unit);
     ticker.tick("AnonymousClassConverter");
@@ -184,6 +201,14 @@ class TranslationProcessor extends FileProcessor {
     new OuterReferenceFixer().run(unit);
     ticker.tick("OuterReferenceFixer");
 
+    // Accesses the fields of trivial getters and setters directly.
+    new AccessorInliner().run(unit);
+    ticker.tick("AccessorInliner");
+
+    // Adds profiling counters to methods, before they're renamed.
+    new ProfileCounterInserter().run(unit);
+    ticker.tick("ProfileCounterInserter");
+
     // Rewrites expressions that would cause unsequenced compile errors.
     if (Options.extractUnsequencedModifications()) {
       new UnsequencedExpressionRewriter().run(unit);
@@ -194,6 +219,22 @@ class TranslationProcessor extends FileProcessor {
     new NilCheckResolver().run(unit);
     ticker.tick("NilCheckResolver");
 
+    // Calls C functions for common String methods, after nil_chk calls are added.
+    new StringIntrinsicRewriter().run(unit);
+    ticker.tick("StringIntrinsicRewriter");
+
+    // Calls C functions to box and unbox primitives, after nil_chk calls are added.
+    new BoxingFunctionRewriter().run(unit);
+    ticker.tick("BoxingFunctionRewriter");
+
+    // Removes runtime cast checks from casts that can't fail.
+    new CastCheckResolver().run(unit);
+    ticker.tick("CastCheckResolver");
+
+    // Removes range checks from floating point conversions that can't overflow.
+    new ValueRangeAnalyzer().run(unit);
+    ticker.tick("ValueRangeAnalyzer");
+
     new ArrayRewriter().run(unit);
     ticker.tick("ArrayRewriter");
 
@@ -226,6 +267,9 @@ class TranslationProcessor extends FileProcessor {
       ticker.tick("Functionizer");
     }
 
+    new SynchronizedRewriter().run(unit);
+    ticker.tick("SynchronizedRewriter");
+
     new ConstantBranchPruner().run(unit);
     ticker.tick("ConstantBranchPruner");
 
@@ -253,20 +297,32 @@ class TranslationProcessor extends FileProcessor {
     ticker.pop();
   }
 
-  public static void generateObjectiveCSource(CompilationUnit unit, TimeTracker ticker) {
+  public static void generateObjectiveCSource(final CompilationUnit unit, TimeTracker ticker) {
     ticker.push();
 
-    // write header
-    if (Options.generateSegmentedHeaders()) {
-      ObjectiveCSegmentedHeaderGenerator.generate(unit);
-    } else {
-      ObjectiveCHeaderGenerator.generate(unit);
+    SizeReportGenerator.addUnit(unit);
+
+    // write header, on another thread with --generation-threads
+    if (GenerationExecutor.isParallel()) {
+      GenerationExecutor.resolveBindings(unit);
     }
-    ticker.tick("Header generation");
+    Future<Void> header = GenerationExecutor.submit(new Callable<Void>() {
+      @Override
+      public Void call() {
+        if (Options.generateSegmentedHeaders()) {
+          ObjectiveCSegmentedHeaderGenerator.generate(unit);
+        } else {
+          ObjectiveCHeaderGenerator.generate(unit);
+        }
+        return null;
+      }
+    });
 
     // write implementation file
     ObjectiveCImplementationGenerator.generate(unit);
     ticker.tick("Implementation generation");
+    GenerationExecutor.get(header);
+    ticker.tick("Header generation");
 
     ticker.pop();
   }
@@ -275,6 +331,12 @@ class TranslationProcessor extends FileProcessor {
     for (Plugin plugin : Options.getPlugins()) {
       plugin.endProcessing(Options.getOutputDirectory());
     }
+    if (Options.getStringTable() != null) {
+      StringTableGenerator.generate();
+    }
+    if (Options.getSizeReport() != null) {
+      SizeReportGenerator.generate();
+    }
     if (logger.isLoggable(Level.INFO)) {
       int nFiles = processedFiles.size();
       System.out.println(String.format(
@@ -285,6 +347,54 @@ class TranslationProcessor extends FileProcessor {
         System.out.println(String.format("Translated %d methods as functions",
             ErrorUtil.functionizedMethodCount()));
       }
+      if (Options.closedWorld()) {
+        System.out.println(String.format("Devirtualized %d call sites",
+            ErrorUtil.devirtualizedCallSiteCount()));
+      }
+      if (ErrorUtil.removedCastCheckCount() > 0) {
+        System.out.println(String.format("Removed %d redundant cast checks",
+            ErrorUtil.removedCastCheckCount()));
+      }
+      if (ErrorUtil.removedConversionCheckCount() > 0) {
+        System.out.println(String.format("Removed %d floating point conversion checks",
+            ErrorUtil.removedConversionCheckCount()));
+      }
+      if (Options.shareAnonymousInstances()) {
+        System.out.println(String.format("Shared %d anonymous class instances",
+            ErrorUtil.sharedAnonymousClassInstanceCount()));
+      }
+      if (ErrorUtil.prunedDeadCodeLength() > 0) {
+        System.out.println(String.format("Pruned %d characters of dead source code",
+            ErrorUtil.prunedDeadCodeLength()));
+      }
+      if (Options.treeShaker()) {
+        System.out.println(String.format("Removed %d unreachable classes and %d methods",
+            ErrorUtil.unreachableClassCount(), ErrorUtil.unreachableMethodCount()));
+      }
+      if (Options.useReferenceCounting() && ErrorUtil.elidedRetainCount() > 0) {
+        System.out.println(String.format("Elided %d autorelease and retain pairs",
+            ErrorUtil.elidedRetainCount()));
+      }
+      if (Options.getReflectionUsageMap() != null) {
+        System.out.println(String.format("Stripped reflection metadata from %d types",
+            ErrorUtil.strippedMetadataCount()));
+      }
+      if (Options.reorderIvars()) {
+        System.out.println(String.format("Saved %d bytes of instance variable padding",
+            ErrorUtil.savedIvarPaddingBytes()));
+      }
+      if (Options.getStringTable() != null) {
+        System.out.println(String.format("Defined %d string literals in %s.m",
+            StringTableGenerator.size(), Options.getStringTable()));
+      }
+      if (Options.getSizeReport() != null) {
+        System.out.println(String.format("Wrote size report of %d classes to %s",
+            SizeReportGenerator.size(), Options.getSizeReport()));
+      }
+      if (Options.autoreleasePoolThreshold() > 0) {
+        System.out.println(String.format("Added autorelease pools to %d loops",
+            ErrorUtil.insertedAutoreleasePoolCount()));
+      }
     }
   }
 
@@ -21,6 +21,10 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
  */
 public class CastExpression extends Expression {
 
+  // False if the expression is known to be an instance of the cast type, or
+  // for a floating point conversion, a number in the range of the cast type,
+  // so no runtime check is required.
+  private boolean needsCastCheck = true;
   private ChildLink<Type> type = ChildLink.create(Type.class, this);
   private ChildLink<Expression> expression = ChildLink.create(Expression.class, this);
 
@@ -32,6 +36,7 @@ public class CastExpression extends Expression {
 
   public CastExpression(CastExpression other) {
     super(other);
+    needsCastCheck = other.needsCastCheck();
     type.copyFrom(other.getType());
     expression.copyFrom(other.getExpression());
   }
@@ -60,6 +65,14 @@ public class CastExpression extends Expression {
     return expression.get();
   }
 
+  public boolean needsCastCheck() {
+    return needsCastCheck;
+  }
+
+  public void setNeedsCastCheck(boolean needsCastCheck) {
+    this.needsCastCheck = needsCastCheck;
+  }
+
   @Override
   protected void acceptInner(TreeVisitor visitor) {
     if (visitor.visit(this)) {
@@ -46,6 +46,8 @@ public class ForStatement extends Statement {
     body.copyFrom(other.getBody());
   }
 
+  public ForStatement() {}
+
   @Override
   public Kind getKind() {
     return Kind.FOR_STATEMENT;
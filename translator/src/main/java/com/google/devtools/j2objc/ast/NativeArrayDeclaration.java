@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.ast;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.util.List;
+
+/**
+ * A static C array of constant elements, printed in the type implementation.
+ * Used to build Java arrays from static data instead of per-element code.
+ */
+public class NativeArrayDeclaration extends BodyDeclaration {
+
+  private String name = null;
+  private ITypeBinding componentType = null;
+  private ChildList<Expression> elements = ChildList.create(Expression.class, this);
+
+  public NativeArrayDeclaration(NativeArrayDeclaration other) {
+    super(other);
+    name = other.getName();
+    componentType = other.getComponentType();
+    elements.copyFrom(other.getElements());
+  }
+
+  public NativeArrayDeclaration(String name, ITypeBinding componentType) {
+    this.name = name;
+    this.componentType = componentType;
+  }
+
+  @Override
+  public Kind getKind() {
+    return Kind.NATIVE_ARRAY_DECLARATION;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ITypeBinding getComponentType() {
+    return componentType;
+  }
+
+  public List<Expression> getElements() {
+    return elements;
+  }
+
+  @Override
+  protected void acceptInner(TreeVisitor visitor) {
+    if (visitor.visit(this)) {
+      for (Expression element : elements) {
+        element.accept(visitor);
+      }
+    }
+    visitor.endVisit(this);
+  }
+
+  @Override
+  public NativeArrayDeclaration copy() {
+    return new NativeArrayDeclaration(this);
+  }
+}
@@ -187,6 +187,7 @@ public abstract class TreeNode {
     MEMBER_VALUE_PAIR,
     METHOD_DECLARATION,
     METHOD_INVOCATION,
+    NATIVE_ARRAY_DECLARATION,
     NATIVE_DECLARATION,
     NATIVE_STATEMENT,
     NORMAL_ANNOTATION,
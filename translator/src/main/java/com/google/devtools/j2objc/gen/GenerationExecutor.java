@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs source generation tasks on a pool of --generation-threads threads.
+ * A unit's header, implementation and method bodies can be generated
+ * concurrently; callers wait for the results in the order they print them,
+ * so the output doesn't depend on scheduling. Tasks must not wait for other
+ * tasks, which could exhaust the pool.
+ *
+ * The state that generation tasks share, and why it's safe to share:
+ * <ul>
+ * <li>The unit's tree: generators only read it. All translation passes have
+ * finished, and StatementGenerator keeps its own state instead of marking
+ * nodes.</li>
+ * <li>NameTable and Types: their maps are only written by translation
+ * passes (renamings, renamed types, pointer types); generators only look
+ * names and types up.</li>
+ * <li>JDT bindings: DefaultBindingResolver creates the DOM bindings in
+ * synchronized methods, but the compiler bindings behind them resolve their
+ * supertypes, members and annotations lazily, without locking. The
+ * bindings of a unit's types and their supertypes are therefore resolved by
+ * {@link #resolveBindings} before any of its tasks are submitted.</li>
+ * <li>ErrorUtil: the error and warning methods, and the counters updated
+ * during generation, are synchronized. The current file name is set before
+ * generation starts.</li>
+ * <li>Options, the ClassHierarchyMap and the ReflectionUsageMap are
+ * immutable during generation.</li>
+ * <li>The string table and size report use concurrent maps.</li>
+ * </ul>
+ * Code that generators call must not add state that's written during
+ * generation, unless it's synchronized.
+ *
+ * Without --generation-threads, tasks run when their result is requested.
+ */
+public class GenerationExecutor {
+
+  private static ExecutorService executor = null;
+  private static int executorThreads = 0;
+
+  public static boolean isParallel() {
+    return Options.generationThreads() > 1;
+  }
+
+  public static <T> Future<T> submit(Callable<T> task) {
+    if (!isParallel()) {
+      return new DeferredTask<T>(task);
+    }
+    return getExecutor().submit(task);
+  }
+
+  // A task that is run by the thread that requests its result.
+  private static class DeferredTask<T> extends FutureTask<T> {
+    DeferredTask(Callable<T> task) {
+      super(task);
+    }
+  }
+
+  /**
+   * Returns the result of a task, rethrowing any exception it threw.
+   */
+  public static <T> T get(Future<T> future) {
+    if (future instanceof DeferredTask) {
+      ((DeferredTask<T>) future).run();
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AssertionError(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new AssertionError(cause);
+    }
+  }
+
+  /**
+   * Resolves the bindings of a unit's types, their members and their
+   * supertypes, so that generation tasks don't resolve them concurrently.
+   */
+  public static void resolveBindings(CompilationUnit unit) {
+    Set<ITypeBinding> resolved = Sets.newHashSet();
+    for (AbstractTypeDeclaration type : unit.getTypes()) {
+      resolveBindings(type.getTypeBinding(), resolved);
+    }
+  }
+
+  private static void resolveBindings(ITypeBinding type, Set<ITypeBinding> resolved) {
+    if (type == null || !resolved.add(type)) {
+      return;
+    }
+    type.getAnnotations();
+    for (IVariableBinding field : type.getDeclaredFields()) {
+      field.getType();
+      field.getConstantValue();
+      field.getAnnotations();
+    }
+    for (IMethodBinding method : type.getDeclaredMethods()) {
+      method.getReturnType();
+      method.getParameterTypes();
+      method.getExceptionTypes();
+      method.getAnnotations();
+      for (int i = 0; i < method.getParameterTypes().length; i++) {
+        method.getParameterAnnotations(i);
+      }
+    }
+    for (ITypeBinding member : type.getDeclaredTypes()) {
+      resolveBindings(member, resolved);
+    }
+    resolveBindings(type.getSuperclass(), resolved);
+    for (ITypeBinding intrface : type.getInterfaces()) {
+      resolveBindings(intrface, resolved);
+    }
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    int threads = Options.generationThreads();
+    if (executor == null || executorThreads != threads) {
+      if (executor != null) {
+        executor.shutdown();
+      }
+      executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "j2objc-generation");
+          // Don't keep the translator running after main() returns.
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executorThreads = threads;
+    }
+    return executor;
+  }
+}
@@ -17,6 +17,8 @@ package com.google.devtools.j2objc.gen;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
 import com.google.devtools.j2objc.ast.EnumDeclaration;
@@ -32,11 +34,18 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Generates the "__metadata" method for a class.
  *
+ * With --compact-metadata, the method and field records are encoded as
+ * varints that index a string table, which the runtime decodes the first time
+ * the class's metadata is used. This removes the relocations and pointer-sized
+ * slots of the static J2ObjcMethodInfo and J2ObjcFieldInfo arrays.
+ *
  * @author Tom Ball, Keith Stanger
  */
 public class MetadataGenerator {
@@ -48,6 +57,12 @@ public class MetadataGenerator {
   private int methodMetadataCount = 0;
   private int fieldMetadataCount = 0;
 
+  // String table and side arrays of the compact encoding.
+  private final Map<String, Integer> stringOffsets = Maps.newLinkedHashMap();
+  private int stringTableSize = 0;
+  private final List<String> staticRefs = Lists.newArrayList();
+  private final List<String> constantValues = Lists.newArrayList();
+
   public MetadataGenerator(AbstractTypeDeclaration typeNode) {
     this.builder = new StringBuilder();
     this.typeNode = Preconditions.checkNotNull(typeNode);
@@ -69,8 +84,13 @@ public class MetadataGenerator {
   private void generateMetadata() {
     String fullName = NameTable.getFullName(type);
     println("\n+ (J2ObjcClassInfo *)__metadata {");
-    generateMethodsMetadata();
-    generateFieldsMetadata();
+    boolean compact = Options.compactMetadata();
+    if (compact) {
+      generateCompactMetadata();
+    } else {
+      generateMethodsMetadata();
+      generateFieldsMetadata();
+    }
     int superclassTypeArgsSize = printSuperclassTypeArguments();
     printf("  static J2ObjcClassInfo _%s = { ", fullName);
     printf("\"%s\", ", type.getName());
@@ -83,11 +103,14 @@ public class MetadataGenerator {
     printf("%s, ", getEnclosingName());
     printf("0x%s, ", Integer.toHexString(getTypeModifiers()));
     printf("%s, ", Integer.toString(methodMetadataCount));
-    print(methodMetadataCount > 0 ? "methods, " : "NULL, ");
+    print(methodMetadataCount > 0 && !compact ? "methods, " : "NULL, ");
     printf("%s, ", Integer.toString(fieldMetadataCount));
-    print(fieldMetadataCount > 0 ? "fields, " : "NULL, ");
+    print(fieldMetadataCount > 0 && !compact ? "fields, " : "NULL, ");
     printf("%s, ", Integer.toString(superclassTypeArgsSize));
     printf(superclassTypeArgsSize > 0 ? "superclass_type_args" : "NULL");
+    if (compact) {
+      print(", 0, NULL, &compact_info");
+    }
     println("};");
     printf("  return &_%s;\n}\n", fullName);
   }
@@ -178,6 +201,144 @@ public class MetadataGenerator {
         constantValue);
   }
 
+  private void generateCompactMetadata() {
+    List<Integer> methodData = Lists.newArrayList();
+    for (MethodDeclaration decl : TreeUtil.getMethodDeclarations(typeNode)) {
+      if (addCompactMethodMetadata(decl.getMethodBinding(), methodData)) {
+        methodMetadataCount++;
+      }
+    }
+    List<Integer> fieldData = Lists.newArrayList();
+    String typeName = NameTable.getFullName(type);
+    if (typeNode instanceof EnumDeclaration) {
+      for (EnumConstantDeclaration decl : ((EnumDeclaration) typeNode).getEnumConstants()) {
+        addCompactFieldMetadata(decl.getVariableBinding(), decl.getName(), typeName, fieldData);
+        fieldMetadataCount++;
+      }
+    }
+    for (VariableDeclarationFragment f : TreeUtil.getAllFields(typeNode)) {
+      addCompactFieldMetadata(f.getVariableBinding(), f.getName(), typeName, fieldData);
+      fieldMetadataCount++;
+    }
+
+    print("  static const char strings[] =");
+    if (stringOffsets.isEmpty()) {
+      print(" \"\"");
+    }
+    for (String s : stringOffsets.keySet()) {
+      printf("\n    \"%s\\0\"", s);
+    }
+    println(";");
+    printByteArray("methods_data", methodData);
+    printByteArray("fields_data", fieldData);
+    if (!staticRefs.isEmpty()) {
+      println("  static const void * const static_refs[] = {");
+      for (String ref : staticRefs) {
+        printf("    %s,\n", ref);
+      }
+      println("  };");
+    }
+    if (!constantValues.isEmpty()) {
+      println("  static const J2ObjcRawValue constant_values[] = {");
+      for (String value : constantValues) {
+        printf("    { %s },\n", value);
+      }
+      println("  };");
+    }
+    printf("  static const J2ObjcCompactInfo compact_info = { strings, %s, %s, %s, %s };\n",
+        methodData.isEmpty() ? "NULL" : "methods_data",
+        fieldData.isEmpty() ? "NULL" : "fields_data",
+        staticRefs.isEmpty() ? "NULL" : "static_refs",
+        constantValues.isEmpty() ? "NULL" : "constant_values");
+  }
+
+  private boolean addCompactMethodMetadata(IMethodBinding method, List<Integer> data) {
+    if (method.isSynthetic()) {
+      return false;
+    }
+    String methodName = method instanceof GeneratedMethodBinding ?
+        ((GeneratedMethodBinding) method).getJavaName() : method.getName();
+    String selector = NameTable.getMethodSelector(method);
+    if (selector.equals(methodName)) {
+      methodName = null;  // Reduce redundant data.
+    }
+    String returnTypeStr = method.isConstructor() ? null : getTypeName(method.getReturnType());
+    addVarint(data, stringRef(selector));
+    addVarint(data, stringRef(methodName));
+    addVarint(data, stringRef(returnTypeStr));
+    addVarint(data, getMethodModifiers(method));
+    addVarint(data, stringRef(getThrownExceptions(method)));
+    return true;
+  }
+
+  private void addCompactFieldMetadata(
+      IVariableBinding var, SimpleName name, String typeName, List<Integer> data) {
+    String javaName = name.getIdentifier();
+    String objcName = var.isEnumConstant() ? NameTable.getName(var)
+        : NameTable.javaFieldToObjC(NameTable.getName(var));
+    if (objcName.equals(javaName + '_')) {
+      javaName = null;
+    }
+    int staticRefIndex = 0;
+    int constantIndex = 0;
+    if (BindingUtil.isStatic(var)) {
+      if (BindingUtil.isPrimitiveConstant(var)) {
+        constantValues.add(String.format(".%s = %s",
+            getRawValueField(var), NameTable.getPrimitiveConstantName(var)));
+        constantIndex = constantValues.size();
+      } else {
+        staticRefs.add(String.format("&%s_%s", typeName, objcName));
+        staticRefIndex = staticRefs.size();
+      }
+    }
+    addVarint(data, stringRef(objcName));
+    addVarint(data, stringRef(javaName));
+    addVarint(data, getFieldModifiers(var));
+    addVarint(data, stringRef(getTypeName(var.getType())));
+    addVarint(data, staticRefIndex);
+    addVarint(data, constantIndex);
+  }
+
+  /**
+   * Returns a string's offset in the string table plus one, adding it if
+   * necessary, or zero for null.
+   */
+  private int stringRef(String s) {
+    if (s == null) {
+      return 0;
+    }
+    Integer offset = stringOffsets.get(s);
+    if (offset == null) {
+      offset = stringTableSize;
+      stringOffsets.put(s, offset);
+      stringTableSize += s.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+    return offset + 1;
+  }
+
+  /**
+   * Appends an unsigned LEB128 varint.
+   */
+  private static void addVarint(List<Integer> data, int value) {
+    while ((value & ~0x7f) != 0) {
+      data.add((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    data.add(value);
+  }
+
+  private void printByteArray(String name, List<Integer> data) {
+    if (data.isEmpty()) {
+      return;
+    }
+    printf("  static const uint8_t %s[] = {", name);
+    for (int i = 0; i < data.size(); i++) {
+      print(i % 16 == 0 ? "\n    " : " ");
+      printf("%d,", data.get(i));
+    }
+    println("\n  };");
+  }
+
   private String getRawValueField(IVariableBinding var) {
     ITypeBinding type = var.getType();
     assert type.isPrimitive();
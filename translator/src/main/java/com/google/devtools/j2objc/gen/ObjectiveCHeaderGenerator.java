@@ -37,6 +37,7 @@ import com.google.devtools.j2objc.ast.Type;
 import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.types.HeaderImportCollector;
 import com.google.devtools.j2objc.types.IOSMethod;
+import com.google.devtools.j2objc.types.IOSMethodBinding;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
@@ -153,6 +154,7 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
       printStaticInitFunction(node, methods);
       printFieldSetters(node, false);
       printStaticFields(node);
+      printExportedFunctions(node);
     }
 
     printIncrementAndDecrementFunctions(binding);
@@ -339,6 +341,21 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
     }
   }
 
+  private void printExportedFunctions(AbstractTypeDeclaration node) {
+    boolean needsNewline = true;
+    for (MethodDeclaration method : TreeUtil.getMethodDeclarations(node)) {
+      IMethodBinding m = method.getMethodBinding();
+      if (isExportedFunction(m)) {
+        if (needsNewline) {
+          newline();
+          needsNewline = false;
+        }
+        printf("FOUNDATION_EXPORT %s;\n",
+            functionDeclaration(method, IOSMethodBinding.getIOSMethod(m)));
+      }
+    }
+  }
+
   private void printStaticFields(AbstractTypeDeclaration node) {
     for (IVariableBinding var : getStaticFieldsNeedingAccessors(node)) {
       printStaticField(var);
@@ -407,7 +424,7 @@ public class ObjectiveCHeaderGenerator extends ObjectiveCSourceFileGenerator {
   protected void printMethod(MethodDeclaration m) {
     IMethodBinding binding = m.getMethodBinding();
     if (BindingUtil.isFunction(binding)) {
-      return;  // All function declarations are private.
+      return;  // Function declarations are private, or printed after the type.
     }
     if (!Options.hidePrivateMembers() || !isPrivateOrSynthetic(m.getModifiers())) {
       super.printMethod(m);
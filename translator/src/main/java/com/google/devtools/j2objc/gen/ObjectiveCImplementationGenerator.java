@@ -18,6 +18,7 @@ package com.google.devtools.j2objc.gen;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.J2ObjC;
 import com.google.devtools.j2objc.Options;
@@ -25,6 +26,7 @@ import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.Annotation;
 import com.google.devtools.j2objc.ast.AnnotationTypeDeclaration;
 import com.google.devtools.j2objc.ast.AnnotationTypeMemberDeclaration;
+import com.google.devtools.j2objc.ast.Block;
 import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.ConstructorInvocation;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
@@ -32,6 +34,7 @@ import com.google.devtools.j2objc.ast.EnumDeclaration;
 import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldDeclaration;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.NativeArrayDeclaration;
 import com.google.devtools.j2objc.ast.NativeDeclaration;
 import com.google.devtools.j2objc.ast.PackageDeclaration;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
@@ -48,7 +51,9 @@ import com.google.devtools.j2objc.types.ImplementationImportCollector;
 import com.google.devtools.j2objc.types.Import;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.NameTable;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
 
 import org.eclipse.jdt.core.dom.IAnnotationBinding;
 import org.eclipse.jdt.core.dom.IMemberValuePairBinding;
@@ -57,8 +62,12 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Modifier;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Generates Objective-C implementation (.m) files from compilation units.
@@ -69,6 +78,8 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
   private Set<IVariableBinding> fieldHiders;
   private final String suffix;
   private final Set<String> invokedConstructors = Sets.newHashSet();
+  // Method bodies that are generated concurrently with --generation-threads.
+  private final Map<MethodDeclaration, Future<String>> methodBodies = Maps.newHashMap();
 
   /**
    * Generate an Objective-C implementation file for each type declared in a
@@ -95,6 +106,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     List<AbstractTypeDeclaration> typesToGenerate = collectTypes(unit);
     if (!typesToGenerate.isEmpty()) {
       findInvokedConstructors(unit);
+      submitMethodBodies(typesToGenerate);
       printStart(unit.getSourceFileFullPath());
       printImports(unit);
       pushIgnoreDeprecatedDeclarationsPragma();
@@ -122,6 +134,34 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     save(unit);
   }
 
+  /**
+   * Starts generating the bodies of the methods on the generation threads.
+   * Bodies that contain line directives depend on where they are printed,
+   * so they're only generated then.
+   */
+  private void submitMethodBodies(List<AbstractTypeDeclaration> types) {
+    if (!GenerationExecutor.isParallel() || Options.emitLineDirectives()) {
+      return;
+    }
+    for (AbstractTypeDeclaration type : types) {
+      for (MethodDeclaration method : TreeUtil.getMethodDeclarations(type)) {
+        final Block body = method.getBody();
+        int modifiers = method.getModifiers();
+        if (body == null || Modifier.isNative(modifiers) || Modifier.isAbstract(modifiers)
+            || method.isConstructor() || isInitializeMethod(method)) {
+          continue;
+        }
+        final boolean isFunction = BindingUtil.isFunction(method.getMethodBinding());
+        methodBodies.put(method, GenerationExecutor.submit(new Callable<String>() {
+          @Override
+          public String call() {
+            return StatementGenerator.generate(body, fieldHiders, isFunction, 0);
+          }
+        }));
+      }
+    }
+  }
+
   private List<AbstractTypeDeclaration> collectTypes(CompilationUnit unit) {
     final List<AbstractTypeDeclaration> types = Lists.newArrayList();
     unit.accept(new TreeVisitor() {
@@ -129,15 +169,17 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       public boolean visit(TypeDeclaration node) {
         if (!node.isInterface()
             || !Iterables.isEmpty(getStaticFieldsNeedingInitialization(node))
-            || !Options.stripReflection()) {
+            || needsReflection(node)) {
           types.add(node);
         }
+        countStrippedMetadata(node);
         return false;
       }
 
       @Override
       public boolean visit(EnumDeclaration node) {
         types.add(node); // always print enums
+        countStrippedMetadata(node);
         return false;
       }
 
@@ -202,7 +244,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       printStaticReferencesMethod(node);
       printStaticVars(node);
       printMethods(node);
-      if (!Options.stripReflection()) {
+      if (needsReflection(node)) {
         printTypeAnnotationsMethod(node);
         printMethodAnnotationMethods(methods);
         printFieldAnnotationMethods(node);
@@ -220,6 +262,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     String typeName = NameTable.getFullName(node.getTypeBinding());
     List<MethodDeclaration> methods = TreeUtil.getMethodDeclarationsList(node);
     printInitFlagDefinition(node, methods);
+    printNativeArrayDeclarations(node);
     printf("\n@implementation %s\n", typeName);
     if (BindingUtil.isRuntimeAnnotation(node.getTypeBinding())) {
       List<AnnotationTypeMemberDeclaration> members = Lists.newArrayList(
@@ -235,7 +278,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     printf("  return [IOSClass classWithProtocol:@protocol(%s)];\n", typeName);
     println("}");
     printMethods(methods);
-    if (!Options.stripReflection()) {
+    if (needsReflection(node)) {
       printTypeAnnotationsMethod(node);
       printMetadata(node);
     }
@@ -309,6 +352,35 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     }
   }
 
+  @Override
+  protected void printNativeArrayDeclaration(NativeArrayDeclaration declaration) {
+    ITypeBinding componentType = declaration.getComponentType();
+    String objcType = componentType.isPrimitive()
+        ? NameTable.primitiveTypeToObjC(componentType.getName()) : "id";
+    newline();
+    printf("static %s const %s[] = {", objcType, declaration.getName());
+    StringBuilder line = new StringBuilder();
+    for (Iterator<Expression> it = declaration.getElements().iterator(); it.hasNext(); ) {
+      String element = generateExpression(it.next()) + (it.hasNext() ? "," : "");
+      if (line.length() > 0 && line.length() + element.length() > 96) {
+        printf("\n  %s", line.toString());
+        line.setLength(0);
+      }
+      line.append(line.length() > 0 ? " " : "").append(element);
+    }
+    printf("\n  %s\n};\n", line.toString());
+  }
+
+  /**
+   * Prints the array data of types whose body declarations aren't printed.
+   */
+  private void printNativeArrayDeclarations(AbstractTypeDeclaration node) {
+    for (NativeArrayDeclaration declaration
+         : Iterables.filter(node.getBodyDeclarations(), NativeArrayDeclaration.class)) {
+      printNativeArrayDeclaration(declaration);
+    }
+  }
+
   private void printMethods(TypeDeclaration node) {
     printDeclarations(node.getBodyDeclarations());
     List<VariableDeclarationFragment> properties =
@@ -400,11 +472,12 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
 
   private void printStaticInterface(AbstractTypeDeclaration node,
       String typeName, List<MethodDeclaration> methods) {
-    boolean needsImplementation = !methods.isEmpty() || !Options.stripReflection();
+    boolean needsImplementation = !methods.isEmpty() || needsReflection(node);
     if (needsImplementation && !hasInitializeMethod(node, methods)) {
       printf("\n@interface %s : NSObject\n@end\n", typeName);
     }
     printInitFlagDefinition(node, methods);
+    printNativeArrayDeclarations(node);
     printStaticVars(node);
     if (!needsImplementation) {
       return;
@@ -415,7 +488,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
         printMethod(method);
       }
     }
-    if (!Options.stripReflection()) {
+    if (needsReflection(node)) {
       printMetadata(node);
     }
     println("\n@end");
@@ -439,7 +512,7 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
 
     printDeclarations(node.getBodyDeclarations());
 
-    if (!Options.stripReflection()) {
+    if (needsReflection(node)) {
       printTypeAnnotationsMethod(node);
       printMetadata(node);
     }
@@ -500,7 +573,9 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
       return body + "}";
     } else {
       // generate a normal method body
-      methodBody = generateStatement(m.getBody(), isFunction);
+      Future<String> body = methodBodies.get(m);
+      methodBody = body != null
+          ? GenerationExecutor.get(body) : generateStatement(m.getBody(), isFunction);
     }
 
     boolean isStatic = (m.getModifiers() & Modifier.STATIC) != 0;
@@ -659,14 +734,15 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     collector.collect(node);
     Set<Import> imports = collector.getImports();
 
-    if (!imports.isEmpty()) {
-      Set<String> includeStmts = Sets.newTreeSet();
-      for (Import imp : imports) {
-        includeStmts.add(String.format("#include \"%s.h\"", imp.getImportFileName()));
-      }
-      for (String stmt : includeStmts) {
-        println(stmt);
-      }
+    Set<String> includeStmts = Sets.newTreeSet();
+    for (Import imp : imports) {
+      includeStmts.add(String.format("#include \"%s.h\"", imp.getImportFileName()));
+    }
+    if (StringTableGenerator.isReferenced(node)) {
+      includeStmts.add(String.format("#include \"%s.h\"", Options.getStringTable()));
+    }
+    for (String stmt : includeStmts) {
+      println(stmt);
     }
 
     for (NativeDeclaration decl : node.getNativeBlocks()) {
@@ -866,8 +942,28 @@ public class ObjectiveCImplementationGenerator extends ObjectiveCSourceFileGener
     }
   }
 
+  /**
+   * Returns true unless reflection is stripped, or the type can't be
+   * inspected by reflection and --selective-reflection is set.
+   */
+  private static boolean needsReflection(AbstractTypeDeclaration node) {
+    if (Options.stripReflection()) {
+      return false;
+    }
+    ReflectionUsageMap map = Options.getReflectionUsageMap();
+    return map == null || map.needsMetadata(node.getTypeBinding());
+  }
+
+  private static void countStrippedMetadata(AbstractTypeDeclaration node) {
+    if (Options.getReflectionUsageMap() != null && !needsReflection(node)) {
+      ErrorUtil.strippedMetadata();
+    }
+  }
+
   private void printMetadata(AbstractTypeDeclaration node) {
-    print(new MetadataGenerator(node).getMetadataSource());
+    String metadata = new MetadataGenerator(node).getMetadataSource();
+    SizeReportGenerator.addMetadata(getUnit(), metadata);
+    print(metadata);
   }
 
   private boolean hasPrivateFields(Iterable<FieldDeclaration> fields) {
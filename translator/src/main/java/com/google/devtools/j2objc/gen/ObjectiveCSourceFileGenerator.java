@@ -19,6 +19,7 @@ package com.google.devtools.j2objc.gen;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.Annotation;
@@ -30,6 +31,7 @@ import com.google.devtools.j2objc.ast.FieldDeclaration;
 import com.google.devtools.j2objc.ast.Javadoc;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.Name;
+import com.google.devtools.j2objc.ast.NativeArrayDeclaration;
 import com.google.devtools.j2objc.ast.NativeDeclaration;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.TagElement;
@@ -45,7 +47,9 @@ import com.google.devtools.j2objc.types.IOSMethodBinding;
 import com.google.devtools.j2objc.types.IOSParameter;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.NameTable;
+import com.google.j2objc.annotations.ObjectiveCName;
 
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
@@ -53,9 +57,12 @@ import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Modifier;
 
 import java.text.BreakIterator;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.logging.Logger;
 
 /**
  * Generates source files from AST types.  This class handles common actions
@@ -65,6 +72,12 @@ import java.util.Locale;
  */
 public abstract class ObjectiveCSourceFileGenerator extends SourceFileGenerator {
 
+  private static final Logger logger =
+      Logger.getLogger(ObjectiveCSourceFileGenerator.class.getName());
+
+  // The size and alignment of object pointers, longs and doubles.
+  private static final int POINTER_SIZE = 8;
+
   /**
    * Create a new generator.
    *
@@ -179,11 +192,18 @@ public abstract class ObjectiveCSourceFileGenerator extends SourceFileGenerator
 
   protected abstract void printNativeDeclaration(NativeDeclaration declaration);
 
+  protected void printNativeArrayDeclaration(NativeArrayDeclaration declaration) {
+    // Array data is only declared in the implementation.
+  }
+
   protected void printDeclaration(BodyDeclaration declaration) {
     switch (declaration.getKind()) {
       case METHOD_DECLARATION:
         printMethod((MethodDeclaration) declaration);
         return;
+      case NATIVE_ARRAY_DECLARATION:
+        printNativeArrayDeclaration((NativeArrayDeclaration) declaration);
+        return;
       case NATIVE_DECLARATION:
         printNativeDeclaration((NativeDeclaration) declaration);
         return;
@@ -255,10 +275,19 @@ public abstract class ObjectiveCSourceFileGenerator extends SourceFileGenerator
     sb.append(var.getName().getIdentifier());
   }
 
+  /**
+   * Returns true if a function may be called from other compilation units, so it
+   * needs external linkage and a header declaration.
+   */
+  protected boolean isExportedFunction(IMethodBinding m) {
+    return Options.closedWorld() && BindingUtil.isFunction(m) && !BindingUtil.isPrivate(m);
+  }
+
   protected String functionDeclaration(MethodDeclaration method, IOSMethod mappedMethod) {
     StringBuffer sb = new StringBuffer();
     IMethodBinding m = method.getMethodBinding();
-    sb.append(BindingUtil.isStatic(m) ? "" : "__attribute__ ((unused)) static ");
+    sb.append(BindingUtil.isStatic(m) || isExportedFunction(m)
+        ? "" : "__attribute__ ((unused)) static ");
     Type returnType = method.getReturnType();
     sb.append(String.format("%s %s(",
         NameTable.getObjCType(returnType.getTypeBinding()),
@@ -511,54 +540,131 @@ public abstract class ObjectiveCSourceFileGenerator extends SourceFileGenerator
     indent();
     boolean first = true;
     boolean printAllVars = !Options.hidePrivateMembers() && !privateVars;
+    List<FieldDeclaration> fields = Lists.newArrayList();
     for (FieldDeclaration field : TreeUtil.getFieldDeclarations(node)) {
       int modifiers = field.getModifiers();
       if (!Modifier.isStatic(field.getModifiers())
           && (printAllVars || (privateVars == isPrivateOrSynthetic(modifiers)))) {
-        List<VariableDeclarationFragment> vars = field.getFragments();
-        assert !vars.isEmpty();
-        IVariableBinding varBinding = vars.get(0).getVariableBinding();
-        ITypeBinding varType = varBinding.getType();
-        // Need direct access to fields possibly from inner classes that are
-        // promoted to top level classes, so must make all visible fields public.
-        if (first) {
-          println(" @public");
-          first = false;
-        }
-        printDocComment(field.getJavadoc());
-        printIndent();
-        if (BindingUtil.isWeakReference(varBinding)) {
-          // We must add this even without -use-arc because the header may be
-          // included by a file compiled with ARC.
-          print("__weak ");
-        }
-        String objcType = NameTable.getSpecificObjCType(varType);
-        boolean needsAsterisk = !varType.isPrimitive() && !objcType.matches("id|id<.*>|Class");
-        if (needsAsterisk && objcType.endsWith(" *")) {
-          // Strip pointer from type, as it will be added when appending fragment.
-          // This is necessary to create "Foo *one, *two;" declarations.
-          objcType = objcType.substring(0, objcType.length() - 2);
+        fields.add(field);
+      }
+    }
+    if (Options.reorderIvars()
+        && !BindingUtil.hasAnnotation(node.getTypeBinding(), ObjectiveCName.class)) {
+      reorderInstanceVariables(node, fields);
+    }
+    for (FieldDeclaration field : fields) {
+      List<VariableDeclarationFragment> vars = field.getFragments();
+      assert !vars.isEmpty();
+      IVariableBinding varBinding = vars.get(0).getVariableBinding();
+      ITypeBinding varType = varBinding.getType();
+      // Need direct access to fields possibly from inner classes that are
+      // promoted to top level classes, so must make all visible fields public.
+      if (first) {
+        println(" @public");
+        first = false;
+      }
+      printDocComment(field.getJavadoc());
+      printIndent();
+      if (BindingUtil.isWeakReference(varBinding)) {
+        // We must add this even without -use-arc because the header may be
+        // included by a file compiled with ARC.
+        print("__weak ");
+      }
+      String objcType = NameTable.getSpecificObjCType(varType);
+      boolean needsAsterisk = !varType.isPrimitive() && !objcType.matches("id|id<.*>|Class");
+      if (needsAsterisk && objcType.endsWith(" *")) {
+        // Strip pointer from type, as it will be added when appending fragment.
+        // This is necessary to create "Foo *one, *two;" declarations.
+        objcType = objcType.substring(0, objcType.length() - 2);
+      }
+      print(objcType);
+      print(' ');
+      for (Iterator<VariableDeclarationFragment> it = field.getFragments().iterator();
+           it.hasNext(); ) {
+        VariableDeclarationFragment f = it.next();
+        if (needsAsterisk) {
+          print('*');
         }
-        print(objcType);
-        print(' ');
-        for (Iterator<VariableDeclarationFragment> it = field.getFragments().iterator();
-             it.hasNext(); ) {
-          VariableDeclarationFragment f = it.next();
-          if (needsAsterisk) {
-            print('*');
-          }
-          String name = NameTable.getName(f.getName().getBinding());
-          print(NameTable.javaFieldToObjC(name));
-          if (it.hasNext()) {
-            print(", ");
-          }
+        String name = NameTable.getName(f.getName().getBinding());
+        print(NameTable.javaFieldToObjC(name));
+        if (it.hasNext()) {
+          print(", ");
         }
-        println(";");
       }
+      println(";");
     }
     unindent();
   }
 
+  /**
+   * Sorts instance variables by decreasing alignment, so the compiler doesn't
+   * need to pad between them. Public fields keep their positions, and only
+   * the fields between them are sorted.
+   */
+  private static void reorderInstanceVariables(
+      AbstractTypeDeclaration node, List<FieldDeclaration> fields) {
+    int originalSize = getInstanceVariablesSize(fields);
+    Comparator<FieldDeclaration> byAlignment = new Comparator<FieldDeclaration>() {
+      @Override
+      public int compare(FieldDeclaration f1, FieldDeclaration f2) {
+        return getInstanceVariableSize(f2.getFragments().get(0).getVariableBinding())
+            - getInstanceVariableSize(f1.getFragments().get(0).getVariableBinding());
+      }
+    };
+    int start = 0;
+    for (int i = 0; i <= fields.size(); i++) {
+      if (i == fields.size() || Modifier.isPublic(fields.get(i).getModifiers())) {
+        // Collections.sort() is stable, so fields of the same size keep their order.
+        Collections.sort(fields.subList(start, i), byAlignment);
+        start = i + 1;
+      }
+    }
+    int savedBytes = originalSize - getInstanceVariablesSize(fields);
+    if (savedBytes > 0) {
+      ErrorUtil.savedIvarPadding(savedBytes);
+      logger.finest(String.format("%s: saved %d bytes by reordering instance variables",
+          NameTable.getFullName(node.getTypeBinding()), savedBytes));
+    }
+  }
+
+  /**
+   * Returns the 64-bit size of a list of instance variables, including
+   * alignment padding.
+   */
+  private static int getInstanceVariablesSize(List<FieldDeclaration> fields) {
+    int size = 0;
+    for (FieldDeclaration field : fields) {
+      for (VariableDeclarationFragment fragment : field.getFragments()) {
+        int varSize = getInstanceVariableSize(fragment.getVariableBinding());
+        size = alignTo(size, varSize) + varSize;
+      }
+    }
+    return alignTo(size, POINTER_SIZE);
+  }
+
+  private static int alignTo(int offset, int alignment) {
+    return (offset + alignment - 1) / alignment * alignment;
+  }
+
+  /**
+   * Returns the size of an instance variable, which is also its alignment.
+   */
+  private static int getInstanceVariableSize(IVariableBinding var) {
+    ITypeBinding type = var.getType();
+    if (!type.isPrimitive()) {
+      return POINTER_SIZE;
+    }
+    String name = type.getName();
+    if (name.equals("boolean") || name.equals("byte")) {
+      return 1;
+    } else if (name.equals("char") || name.equals("short")) {
+      return 2;
+    } else if (name.equals("int") || name.equals("float")) {
+      return 4;
+    }
+    return 8;
+  }
+
   protected boolean isPrivateOrSynthetic(int modifiers) {
     return Modifier.isPrivate(modifiers) || BindingUtil.isSynthetic(modifiers);
   }
@@ -0,0 +1,264 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.PackageDeclaration;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.translate.BoxingFunctionRewriter;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the size of the generated code and the number of runtime checks
+ * in it when --size-report is specified, and writes them as JSON, by source
+ * file's main class and by package:
+ *
+ * {
+ *   "classes": {
+ *     "com.foo.Bar": { "headerLines": 42, "headerBytes": 1234, ... }
+ *   },
+ *   "packages": {
+ *     "com.foo": { "headerLines": 42, "headerBytes": 1234, ... }
+ *   }
+ * }
+ *
+ * Metadata is measured in bytes of generated source.
+ */
+public class SizeReportGenerator {
+
+  private enum Stat {
+    HEADER_LINES("headerLines"),
+    HEADER_BYTES("headerBytes"),
+    IMPLEMENTATION_LINES("implementationLines"),
+    IMPLEMENTATION_BYTES("implementationBytes"),
+    METHODS("methods"),
+    FUNCTIONS("functions"),
+    NIL_CHECKS("nilChecks"),
+    CAST_CHECKS("castChecks"),
+    CONVERSION_CHECKS("conversionChecks"),
+    ARRAY_BOUNDS_CHECKS("arrayBoundsChecks"),
+    BOXING_SITES("boxingSites"),
+    METADATA_BYTES("metadataBytes");
+
+    private final String jsonName;
+
+    private Stat(String jsonName) {
+      this.jsonName = jsonName;
+    }
+  }
+
+  private static class Stats {
+    private final int[] values = new int[Stat.values().length];
+
+    synchronized void add(Stat stat, int value) {
+      values[stat.ordinal()] += value;
+    }
+
+    synchronized void addAll(Stats other) {
+      for (Stat stat : Stat.values()) {
+        values[stat.ordinal()] += other.get(stat);
+      }
+    }
+
+    synchronized int get(Stat stat) {
+      return values[stat.ordinal()];
+    }
+  }
+
+  // Stats by the qualified name of a source file's main type.
+  private static final ConcurrentMap<String, Stats> classStats = Maps.newConcurrentMap();
+
+  private static Stats getStats(CompilationUnit unit) {
+    PackageDeclaration pkg = unit.getPackage();
+    String name = pkg.isDefaultPackage() ? unit.getMainTypeName()
+        : pkg.getName().getFullyQualifiedName() + '.' + unit.getMainTypeName();
+    Stats stats = classStats.get(name);
+    if (stats == null) {
+      classStats.putIfAbsent(name, new Stats());
+      stats = classStats.get(name);
+    }
+    return stats;
+  }
+
+  /**
+   * Counts the methods and runtime checks of a translated compilation unit.
+   */
+  public static void addUnit(CompilationUnit unit) {
+    if (Options.getSizeReport() == null) {
+      return;
+    }
+    final Stats stats = getStats(unit);
+    unit.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(MethodDeclaration node) {
+        boolean isFunction = BindingUtil.isFunction(node.getMethodBinding());
+        stats.add(isFunction ? Stat.FUNCTIONS : Stat.METHODS, 1);
+      }
+
+      @Override
+      public void endVisit(FunctionInvocation node) {
+        String name = node.getName();
+        if (name.equals("nil_chk")) {
+          stats.add(Stat.NIL_CHECKS, 1);
+        } else if (name.startsWith("IOS") && (name.endsWith("Array_Get")
+            || name.endsWith("Array_GetRef") || name.equals("IOSObjectArray_Set"))) {
+          stats.add(Stat.ARRAY_BOUNDS_CHECKS, 1);
+        } else if (BoxingFunctionRewriter.isBoxingFunction(node)) {
+          stats.add(Stat.BOXING_SITES, 1);
+        }
+      }
+
+      @Override
+      public void endVisit(CastExpression node) {
+        if (!node.needsCastCheck()) {
+          return;
+        }
+        ITypeBinding type = node.getTypeBinding();
+        if (type.isPrimitive()) {
+          if (Types.isFloatingPointType(node.getExpression().getTypeBinding())
+              && !Types.isFloatingPointType(type)) {
+            stats.add(Stat.CONVERSION_CHECKS, 1);
+          }
+        } else if (type.isInterface() || type.isClass() || type.isArray()) {
+          stats.add(Stat.CAST_CHECKS, 1);
+        }
+      }
+
+      @Override
+      public void endVisit(MethodInvocation node) {
+        IMethodBinding method = node.getMethodBinding();
+        ITypeBinding type = method.getDeclaringClass();
+        if (!Types.isBoxedPrimitive(type)) {
+          return;
+        }
+        ITypeBinding primitiveType = Types.getPrimitiveType(type);
+        String name = method.getName();
+        if ((name.equals("valueOf") && method.getParameterTypes().length == 1
+            && method.getParameterTypes()[0].isEqualTo(primitiveType))
+            || name.equals(primitiveType.getName() + "Value")) {
+          stats.add(Stat.BOXING_SITES, 1);
+        }
+      }
+    });
+  }
+
+  /**
+   * Adds the size of a generated header or implementation file.
+   */
+  public static void addFile(CompilationUnit unit, String path, String source) {
+    if (Options.getSizeReport() == null) {
+      return;
+    }
+    Stats stats = getStats(unit);
+    int lines = 0;
+    for (int i = 0; i < source.length(); i++) {
+      if (source.charAt(i) == '\n') {
+        lines++;
+      }
+    }
+    int bytes = source.getBytes(Options.getCharset()).length;
+    if (path.endsWith(".h")) {
+      stats.add(Stat.HEADER_LINES, lines);
+      stats.add(Stat.HEADER_BYTES, bytes);
+    } else {
+      stats.add(Stat.IMPLEMENTATION_LINES, lines);
+      stats.add(Stat.IMPLEMENTATION_BYTES, bytes);
+    }
+  }
+
+  /**
+   * Adds the size of the reflection metadata generated for a type.
+   */
+  public static void addMetadata(CompilationUnit unit, String metadata) {
+    if (Options.getSizeReport() != null) {
+      getStats(unit).add(Stat.METADATA_BYTES, metadata.getBytes(Options.getCharset()).length);
+    }
+  }
+
+  /**
+   * Writes the report, with the classes and packages sorted by name.
+   */
+  public static void generate() {
+    Map<String, Stats> sortedClasses = Maps.newTreeMap();
+    sortedClasses.putAll(classStats);
+    Map<String, Stats> packageStats = Maps.newTreeMap();
+    for (Map.Entry<String, Stats> entry : sortedClasses.entrySet()) {
+      String name = entry.getKey();
+      int lastDot = name.lastIndexOf('.');
+      String pkg = lastDot >= 0 ? name.substring(0, lastDot) : "";
+      Stats stats = packageStats.get(pkg);
+      if (stats == null) {
+        stats = new Stats();
+        packageStats.put(pkg, stats);
+      }
+      stats.addAll(entry.getValue());
+    }
+
+    SourceBuilder builder = new SourceBuilder(false);
+    builder.println("{");
+    printStats(builder, "classes", sortedClasses);
+    builder.println(",");
+    printStats(builder, "packages", packageStats);
+    builder.newline();
+    builder.println("}");
+    try {
+      Files.write(builder.toString(), Options.getSizeReport(), Options.getCharset());
+    } catch (IOException e) {
+      ErrorUtil.error(e.getMessage());
+    }
+  }
+
+  private static void printStats(SourceBuilder builder, String name, Map<String, Stats> stats) {
+    builder.printf("  \"%s\": {", name);
+    String separator = "\n";
+    for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+      builder.printf("%s    \"%s\": {", separator, entry.getKey());
+      String statSeparator = " ";
+      for (Stat stat : Stat.values()) {
+        builder.printf("%s\"%s\": %d", statSeparator, stat.jsonName, entry.getValue().get(stat));
+        statSeparator = ", ";
+      }
+      builder.print(" }");
+      separator = ",\n";
+    }
+    builder.print(stats.isEmpty() ? "}" : "\n  }");
+  }
+
+  public static int size() {
+    return classStats.size();
+  }
+
+  @VisibleForTesting
+  public static void reset() {
+    classStats.clear();
+  }
+}
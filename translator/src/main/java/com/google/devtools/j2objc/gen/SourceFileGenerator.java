@@ -81,6 +81,7 @@ public abstract class SourceFileGenerator {
       if (!source.endsWith("\n")) {
         source += '\n';
       }
+      SizeReportGenerator.addFile(unit, path, source);
 
       Files.write(source, outputFile, Options.getCharset());
     } catch (IOException e) {
@@ -20,6 +20,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AnonymousClassDeclaration;
 import com.google.devtools.j2objc.ast.ArrayAccess;
@@ -126,6 +127,9 @@ public class StatementGenerator extends TreeVisitor {
   // The boolean value indicates whether the expression should be cast when the
   // resolved type of the expression is known to be "id".
   private final Map<Expression, Boolean> needsCastNodes = Maps.newHashMap();
+  // New objects that are returned with a retain count of one. Tracked here
+  // rather than in the tree, which generators don't modify.
+  private final Set<ClassInstanceCreation> retainedResults = Sets.newHashSet();
 
   private static final Pattern TRIGRAPH_REGEX = Pattern.compile("@\".*\\?\\?[=/'()!<>-].*\"");
 
@@ -449,7 +453,7 @@ public class StatementGenerator extends TreeVisitor {
   public boolean visit(CastExpression node) {
     ITypeBinding type = node.getType().getTypeBinding();
     ITypeBinding exprType = node.getExpression().getTypeBinding();
-    if (Types.isFloatingPointType(exprType)) {
+    if (Types.isFloatingPointType(exprType) && node.needsCastCheck()) {
       if (Types.isLongType(type)) {
         buffer.append("J2ObjCFpToLong(");
         node.getExpression().accept(this);
@@ -476,7 +480,9 @@ public class StatementGenerator extends TreeVisitor {
     buffer.append("(");
     buffer.append(NameTable.getSpecificObjCType(type));
     buffer.append(") ");
-    if (type.isInterface() && !type.isAnnotation()) {
+    if (!node.needsCastCheck()) {
+      node.getExpression().accept(this);
+    } else if (type.isInterface() && !type.isAnnotation()) {
       buffer.append("check_protocol_cast(");
       node.getExpression().accept(this);
       buffer.append(", @protocol(");
@@ -519,7 +525,8 @@ public class StatementGenerator extends TreeVisitor {
   public boolean visit(ClassInstanceCreation node) {
     ITypeBinding type = node.getType().getTypeBinding();
     boolean castPrinted = maybePrintCastFromId(node);
-    boolean addAutorelease = useReferenceCounting && !node.hasRetainedResult();
+    boolean addAutorelease = useReferenceCounting && !node.hasRetainedResult()
+        && !retainedResults.contains(node);
     buffer.append(addAutorelease ? "[[[" : "[[");
     buffer.append(NameTable.getFullName(type));
     buffer.append(" alloc] init");
@@ -1222,6 +1229,11 @@ public class StatementGenerator extends TreeVisitor {
           && useReferenceCounting) {
         shouldRetainResult = true;
       }
+      if (shouldRetainResult && expr instanceof ClassInstanceCreation) {
+        // Return the new object without autoreleasing and retaining it.
+        retainedResults.add((ClassInstanceCreation) expr);
+        shouldRetainResult = false;
+      }
       if (shouldRetainResult) {
         buffer.append("[");
       }
@@ -1310,22 +1322,29 @@ public class StatementGenerator extends TreeVisitor {
 
   @Override
   public boolean visit(StringLiteral node) {
-    String s = generateStringLiteral(node);
-    if (TRIGRAPH_REGEX.matcher(s).matches()) {
-      // Split string between the two '?' chars in the trigraph, so compiler
-      // will concatenate the string without interpreting the trigraph.
-      String[] substrings = s.split("\\?\\?");
-      buffer.append(substrings[0]);
-      for (int i = 1; i < substrings.length; i++) {
-        buffer.append("?\" \"?");
-        buffer.append(substrings[i]);
-      }
+    if (StringTableGenerator.isInterned(node)) {
+      buffer.append(StringTableGenerator.addLiteral(node.getLiteralValue()));
     } else {
-      buffer.append(s);
+      buffer.append(splitTrigraphs(generateStringLiteral(node)));
     }
     return false;
   }
 
+  static String splitTrigraphs(String s) {
+    if (!TRIGRAPH_REGEX.matcher(s).matches()) {
+      return s;
+    }
+    // Split string between the two '?' chars in the trigraph, so compiler
+    // will concatenate the string without interpreting the trigraph.
+    String[] substrings = s.split("\\?\\?");
+    StringBuilder sb = new StringBuilder(substrings[0]);
+    for (int i = 1; i < substrings.length; i++) {
+      sb.append("?\" \"?");
+      sb.append(substrings[i]);
+    }
+    return sb.toString();
+  }
+
   public static String generateStringLiteral(StringLiteral node) {
     if (UnicodeUtils.hasValidCppCharacters(node.getLiteralValue())) {
       return "@\"" + UnicodeUtils.escapeStringLiteral(node.getLiteralValue()) + "\"";
@@ -1336,10 +1355,16 @@ public class StatementGenerator extends TreeVisitor {
 
   @VisibleForTesting
   static String buildStringFromChars(String s) {
+    return "[NSString stringWithCharacters:" + buildCharArray(s) + ']';
+  }
+
+  /**
+   * Returns the characters and length arguments of an NSString initializer.
+   */
+  static String buildCharArray(String s) {
     int length = s.length();
     StringBuilder buffer = new StringBuilder();
-    buffer.append(
-        "[NSString stringWithCharacters:(unichar[]) { ");
+    buffer.append("(unichar[]) { ");
     int i = 0;
     while (i < length) {
       char c = s.charAt(i);
@@ -1352,7 +1377,6 @@ public class StatementGenerator extends TreeVisitor {
     buffer.append(" } length:");
     String lengthString = Integer.toString(length);
     buffer.append(lengthString);
-    buffer.append(']');
     return buffer.toString();
   }
 
@@ -1458,11 +1482,12 @@ public class StatementGenerator extends TreeVisitor {
     }
     buffer.append("switch (");
     if (exprType.isEnum()) {
-      buffer.append('[');
+      // Read the ordinal ivar directly rather than sending an ordinal message.
+      buffer.append("((JavaLangEnum *) nil_chk(");
     }
     expr.accept(this);
     if (exprType.isEnum()) {
-      buffer.append(" ordinal]");
+      buffer.append("))->ordinal_");
     }
     buffer.append(") ");
     buffer.append("{\n");
@@ -1494,14 +1519,31 @@ public class StatementGenerator extends TreeVisitor {
         }
       }
     }
-    buffer.append("NSArray *__caseValues = [NSArray arrayWithObjects:");
-    for (String value : caseValues) {
-      buffer.append("@\"" + UnicodeUtils.escapeStringLiteral(value) + "\", ");
+    if (Options.getStringTable() != null && !caseValues.isEmpty()) {
+      // Only compare the strings of cases whose precomputed hash code matches.
+      buffer.append("NSUInteger __index = NSString_indexOfSwitchCase(");
+      node.getExpression().accept(this);
+      buffer.append(", (NSString *[]){ ");
+      for (int i = 0; i < caseValues.size(); i++) {
+        buffer.append(i > 0 ? ", " : "");
+        buffer.append(StringTableGenerator.addLiteral(caseValues.get(i)));
+      }
+      buffer.append(" }, (int[]){ ");
+      for (int i = 0; i < caseValues.size(); i++) {
+        buffer.append(i > 0 ? ", " : "");
+        buffer.append(LiteralGenerator.generate(caseValues.get(i).hashCode()));
+      }
+      buffer.append(" }, " + caseValues.size() + ");\n");
+    } else {
+      buffer.append("NSArray *__caseValues = [NSArray arrayWithObjects:");
+      for (String value : caseValues) {
+        buffer.append("@\"" + UnicodeUtils.escapeStringLiteral(value) + "\", ");
+      }
+      buffer.append("nil];\n");
+      buffer.append("NSUInteger __index = [__caseValues indexOfObject:");
+      node.getExpression().accept(this);
+      buffer.append("];\n");
     }
-    buffer.append("nil];\n");
-    buffer.append("NSUInteger __index = [__caseValues indexOfObject:");
-    node.getExpression().accept(this);
-    buffer.append("];\n");
     buffer.append("switch (__index) {\n");
     for (Statement stmt : stmts) {
       if (stmt instanceof SwitchCase) {
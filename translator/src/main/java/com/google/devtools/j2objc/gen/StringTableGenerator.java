@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.FieldDeclaration;
+import com.google.devtools.j2objc.ast.NativeArrayDeclaration;
+import com.google.devtools.j2objc.ast.StringLiteral;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.util.ErrorUtil;
+import com.google.devtools.j2objc.util.UnicodeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the string literals of the translated sources when --string-table
+ * is specified, and generates a header and implementation that define each
+ * one once. Generated code references a literal by a symbol derived from the
+ * table's name and the literal's contents, so a literal has the same name in
+ * every file and every build, and libraries with different tables can be
+ * linked together. Literals that aren't valid C++ characters, which are
+ * otherwise built each time they are evaluated, are built once when the table
+ * is loaded.
+ *
+ * A translation that is split across several invocations can share a table:
+ * each invocation adds its literals to the table already in the output
+ * directory. Invocations that share a table must not run concurrently, and
+ * literals that are no longer referenced remain until the table is deleted.
+ *
+ * Literals that initialize static variables or static array data remain
+ * inline, since C requires their initializers to be constants.
+ */
+public class StringTableGenerator {
+
+  private static final Pattern CONSTANT_DEFINITION =
+      Pattern.compile("NSString \\*const (\\w+) = (.*);");
+  private static final Pattern BUILT_DEFINITION =
+      Pattern.compile("  (\\w+) = (\\[\\[NSString alloc\\] initWithCharacters:.*\\]);");
+
+  // Literals by symbol.
+  private static final ConcurrentMap<String, String> literals = Maps.newConcurrentMap();
+
+  /**
+   * Returns true if a string literal is referenced from the string table.
+   */
+  public static boolean isInterned(StringLiteral node) {
+    return Options.getStringTable() != null
+        && TreeUtil.getNearestAncestorWithType(FieldDeclaration.class, node) == null
+        && TreeUtil.getNearestAncestorWithType(NativeArrayDeclaration.class, node) == null;
+  }
+
+  /**
+   * Returns true if a compilation unit references the string table.
+   */
+  public static boolean isReferenced(CompilationUnit unit) {
+    if (Options.getStringTable() == null) {
+      return false;
+    }
+    final boolean[] referenced = new boolean[1];
+    unit.accept(new TreeVisitor() {
+      @Override
+      public boolean preVisit(TreeNode node) {
+        return !referenced[0];
+      }
+
+      @Override
+      public boolean visit(StringLiteral node) {
+        referenced[0] |= isInterned(node);
+        return false;
+      }
+    });
+    return referenced[0];
+  }
+
+  /**
+   * Adds a literal to the string table, returning its symbol.
+   */
+  public static String addLiteral(String value) {
+    String symbol = Options.getStringTable() + "_" + hash(value);
+    String previous = literals.putIfAbsent(symbol, value);
+    if (previous != null && !previous.equals(value)) {
+      ErrorUtil.error("string table symbol " + symbol + " is shared by \"" + previous
+          + "\" and \"" + value + "\"");
+    }
+    return symbol;
+  }
+
+  /**
+   * Returns the first 64 bits of the SHA-1 digest of a string's characters,
+   * in hex.
+   */
+  private static String hash(String value) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      digest.update((byte) (c >> 8));
+      digest.update((byte) c);
+    }
+    byte[] bytes = digest.digest();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 8; i++) {
+      sb.append(String.format("%02x", bytes[i] & 0xff));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the header and implementation of the string table to the output
+   * directory, with the literals sorted by symbol. The literals of an
+   * existing table with the same name are kept.
+   */
+  public static void generate() {
+    String name = Options.getStringTable();
+    // The initializers of the literals by symbol.
+    Map<String, String> constantLiterals = Maps.newTreeMap();
+    Map<String, String> builtLiterals = Maps.newTreeMap();
+    readTable(name, constantLiterals, builtLiterals);
+    for (Map.Entry<String, String> entry : literals.entrySet()) {
+      String value = entry.getValue();
+      if (isConstant(value)) {
+        constantLiterals.put(entry.getKey(), StatementGenerator.splitTrigraphs(
+            "@\"" + UnicodeUtils.escapeStringLiteral(value) + "\""));
+      } else {
+        builtLiterals.put(entry.getKey(), "[[NSString alloc] initWithCharacters:"
+            + StatementGenerator.buildCharArray(value) + "]");
+      }
+    }
+    Set<String> symbols = Sets.newTreeSet(constantLiterals.keySet());
+    symbols.addAll(builtLiterals.keySet());
+
+    SourceBuilder header = new SourceBuilder(false);
+    printFileComment(header);
+    header.printf("#ifndef _%s_H_\n", name);
+    header.printf("#define _%s_H_\n\n", name);
+    header.println("#import <Foundation/Foundation.h>");
+    header.newline();
+    for (String symbol : symbols) {
+      header.printf("FOUNDATION_EXPORT NSString *%s%s;\n",
+          constantLiterals.containsKey(symbol) ? "const " : "", symbol);
+    }
+    header.printf("\n#endif // _%s_H_\n", name);
+    save(header, name + ".h");
+
+    SourceBuilder impl = new SourceBuilder(false);
+    printFileComment(impl);
+    impl.printf("#include \"%s.h\"\n\n", name);
+    for (String symbol : symbols) {
+      String constant = constantLiterals.get(symbol);
+      if (constant != null) {
+        impl.printf("NSString *const %s = %s;\n", symbol, constant);
+      } else {
+        impl.printf("NSString *%s;\n", symbol);
+      }
+    }
+    if (!builtLiterals.isEmpty()) {
+      impl.printf("\n__attribute__((constructor)) static void %s_initialize() {\n", name);
+      for (Map.Entry<String, String> entry : builtLiterals.entrySet()) {
+        impl.printf("  %s = %s;\n", entry.getKey(), entry.getValue());
+      }
+      impl.println("}");
+    }
+    save(impl, name + ".m");
+  }
+
+  /**
+   * Reads the initializers of the literals defined by an existing table in
+   * the output directory, so that they are kept when it is regenerated.
+   */
+  private static void readTable(
+      String name, Map<String, String> constantLiterals, Map<String, String> builtLiterals) {
+    File file = new File(Options.getOutputDirectory(), name + ".m");
+    if (!file.exists()) {
+      return;
+    }
+    List<String> lines;
+    try {
+      lines = Files.readLines(file, Options.getCharset());
+    } catch (IOException e) {
+      ErrorUtil.error(e.getMessage());
+      return;
+    }
+    String symbolPrefix = name + "_";
+    for (String line : lines) {
+      Matcher constant = CONSTANT_DEFINITION.matcher(line);
+      Matcher built = BUILT_DEFINITION.matcher(line);
+      if (constant.matches() && constant.group(1).startsWith(symbolPrefix)) {
+        constantLiterals.put(constant.group(1), constant.group(2));
+      } else if (built.matches() && built.group(1).startsWith(symbolPrefix)) {
+        builtLiterals.put(built.group(1), built.group(2));
+      }
+    }
+  }
+
+  private static boolean isConstant(String value) {
+    return UnicodeUtils.hasValidCppCharacters(value);
+  }
+
+  private static void printFileComment(SourceBuilder builder) {
+    builder.println("//");
+    builder.println("//  Generated by the J2ObjC translator.  DO NOT EDIT!");
+    builder.println("//  String literals of the translated sources.");
+    builder.println("//");
+    builder.newline();
+  }
+
+  private static void save(SourceBuilder builder, String fileName) {
+    try {
+      File outputFile = new File(Options.getOutputDirectory(), fileName);
+      Files.write(builder.toString(), outputFile, Options.getCharset());
+    } catch (IOException e) {
+      ErrorUtil.error(e.getMessage());
+    }
+  }
+
+  public static int size() {
+    return literals.size();
+  }
+
+  @VisibleForTesting
+  public static void reset() {
+    literals.clear();
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThisExpression;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.types.Types;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces invocations of trivial getters and setters that can't be
+ * overridden with direct accesses of their fields. Only accessors declared
+ * in the same compilation unit are inlined, since their fields are always
+ * visible in its implementation file. Assignments of object fields are
+ * translated into the inline field setter functions by OperatorRewriter,
+ * so reference counting is handled as for any other field assignment.
+ */
+public class AccessorInliner extends TreeVisitor {
+
+  private final Map<IMethodBinding, IVariableBinding> getters = Maps.newHashMap();
+  private final Map<IMethodBinding, IVariableBinding> setters = Maps.newHashMap();
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    if (!Options.inlineAccessors()) {
+      return false;
+    }
+    for (AbstractTypeDeclaration type : node.getTypes()) {
+      for (MethodDeclaration method : TreeUtil.getMethodDeclarations(type)) {
+        findAccessor(method);
+      }
+    }
+    return !getters.isEmpty() || !setters.isEmpty();
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    IMethodBinding binding = node.getMethodBinding().getMethodDeclaration();
+    IVariableBinding getterField = getters.get(binding);
+    IVariableBinding setterField = setters.get(binding);
+    if (getterField == null && setterField == null) {
+      return;
+    }
+    Expression receiver = node.getExpression();
+    if (receiver != null) {
+      receiver = TreeUtil.remove(receiver);
+    } else {
+      receiver = new ThisExpression(TreeUtil.getOwningType(node).getTypeBinding());
+    }
+    if (getterField != null) {
+      node.replaceWith(new FieldAccess(getterField, receiver));
+    } else {
+      Expression value = TreeUtil.remove(node.getArguments().get(0));
+      node.replaceWith(new Assignment(new FieldAccess(setterField, receiver), value));
+    }
+  }
+
+  /**
+   * Records the method if it can't be overridden and its body only returns
+   * or assigns an instance field of its class.
+   */
+  private void findAccessor(MethodDeclaration method) {
+    IMethodBinding binding = method.getMethodBinding();
+    ITypeBinding declaringClass = binding.getDeclaringClass();
+    int modifiers = binding.getModifiers();
+    if (method.getBody() == null || binding.isConstructor() || Modifier.isStatic(modifiers)
+        || Modifier.isSynchronized(modifiers) || Modifier.isNative(modifiers)
+        || !(Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)
+             || Modifier.isFinal(declaringClass.getModifiers()))) {
+      return;
+    }
+    List<Statement> stmts = method.getBody().getStatements();
+    if (stmts.size() != 1) {
+      return;
+    }
+    Statement stmt = stmts.get(0);
+    ITypeBinding[] paramTypes = binding.getParameterTypes();
+    if (paramTypes.length == 0 && stmt instanceof ReturnStatement) {
+      IVariableBinding field =
+          getInstanceField(((ReturnStatement) stmt).getExpression(), declaringClass);
+      if (field != null && field.getType().isEqualTo(binding.getReturnType())) {
+        getters.put(binding.getMethodDeclaration(), field);
+      }
+    } else if (paramTypes.length == 1 && Types.isVoidType(binding.getReturnType())
+        && stmt instanceof ExpressionStatement
+        && ((ExpressionStatement) stmt).getExpression() instanceof Assignment) {
+      Assignment assign = (Assignment) ((ExpressionStatement) stmt).getExpression();
+      IVariableBinding field = getInstanceField(assign.getLeftHandSide(), declaringClass);
+      Expression rhs = assign.getRightHandSide();
+      if (field != null && assign.getOperator() == Assignment.Operator.ASSIGN
+          && rhs instanceof SimpleName
+          && ((SimpleName) rhs).getBinding() == method.getParameters().get(0).getVariableBinding()
+          && field.getType().isEqualTo(paramTypes[0])) {
+        setters.put(binding.getMethodDeclaration(), field);
+      }
+    }
+  }
+
+  /**
+   * Returns the field if the expression is a non-volatile instance field of
+   * the specified class, accessed through this.
+   */
+  private static IVariableBinding getInstanceField(Expression expr, ITypeBinding type) {
+    IBinding binding = null;
+    if (expr instanceof SimpleName) {
+      binding = ((SimpleName) expr).getBinding();
+    } else if (expr instanceof FieldAccess) {
+      FieldAccess access = (FieldAccess) expr;
+      Expression receiver = access.getExpression();
+      if (receiver instanceof ThisExpression && ((ThisExpression) receiver).getQualifier() == null) {
+        binding = access.getName().getBinding();
+      }
+    }
+    if (!(binding instanceof IVariableBinding)) {
+      return null;
+    }
+    IVariableBinding var = (IVariableBinding) binding;
+    int modifiers = var.getModifiers();
+    ITypeBinding varType = var.getType();
+    if (!var.isField() || Modifier.isStatic(modifiers) || Modifier.isVolatile(modifiers)
+        || varType.isTypeVariable() || !type.isEqualTo(var.getDeclaringClass())) {
+      return null;
+    }
+    return var;
+  }
+}
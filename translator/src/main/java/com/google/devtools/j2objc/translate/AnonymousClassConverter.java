@@ -17,6 +17,8 @@
 package com.google.devtools.j2objc.translate;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.AnonymousClassDeclaration;
 import com.google.devtools.j2objc.ast.Block;
@@ -26,11 +28,17 @@ import com.google.devtools.j2objc.ast.CompilationUnit;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
 import com.google.devtools.j2objc.ast.EnumDeclaration;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.FieldDeclaration;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.Initializer;
 import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.NullLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
+import com.google.devtools.j2objc.ast.SynchronizedStatement;
+import com.google.devtools.j2objc.ast.ThisExpression;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TreeVisitor;
@@ -39,14 +47,19 @@ import com.google.devtools.j2objc.ast.TypeDeclaration;
 import com.google.devtools.j2objc.types.GeneratedMethodBinding;
 import com.google.devtools.j2objc.types.GeneratedVariableBinding;
 import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.NameTable;
+import com.google.j2objc.annotations.UniqueInstances;
 
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 
 import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.logging.Logger;
 
 /**
  * Converts anonymous classes into inner classes.  This includes creating
@@ -55,10 +68,21 @@ import java.util.Stack;
  * anonymous class conversion from inner class extraction, each step can
  * be separately and more thoroughly verified.
  *
+ * With --share-anonymous-instances, anonymous classes that have no state and
+ * don't reference their outer instance or any local variables are created
+ * once, and stored in a static field of the new inner class, unless a
+ * declaration enclosing them has a UniqueInstances annotation.
+ *
  * @author Tom Ball
  */
 public class AnonymousClassConverter extends TreeVisitor {
 
+  private static final Logger logger = Logger.getLogger(AnonymousClassConverter.class.getName());
+
+  // Instance creations that are replaced by a shared instance, mapped to
+  // the converted classes that hold that instance.
+  private final Map<ClassInstanceCreation, TypeDeclaration> sharedInstances = Maps.newHashMap();
+
   @Override
   public boolean visit(CompilationUnit node) {
     preProcessUnit(node);
@@ -136,6 +160,11 @@ public class AnonymousClassConverter extends TreeVisitor {
       enumConstant.setAnonymousClassDeclaration(null);
     }
 
+    if (Options.shareAnonymousInstances() && newInvocation != null
+        && parentArguments.isEmpty() && outerExpression == null && canShareInstance(node, newInvocation)) {
+      sharedInstances.put(newInvocation, typeDecl);
+    }
+
     // Add type declaration to enclosing type.
     if (outerType.isAnonymous()) {
       AnonymousClassDeclaration outerDecl =
@@ -149,6 +178,93 @@ public class AnonymousClassConverter extends TreeVisitor {
     super.endVisit(node);
   }
 
+  /**
+   * Replaces the creation of a stateless anonymous class with a reference to
+   * a static field, which is initialized when the class is first used.
+   */
+  @Override
+  public void endVisit(ClassInstanceCreation node) {
+    TypeDeclaration typeDecl = sharedInstances.remove(node);
+    if (typeDecl == null) {
+      return;
+    }
+    ITypeBinding type = typeDecl.getTypeBinding();
+    GeneratedVariableBinding sharedVar = new GeneratedVariableBinding("shared$",
+        Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL, type, true, false, type, null);
+    node.replaceWith(new SimpleName(sharedVar));
+    typeDecl.getBodyDeclarations().add(0, new FieldDeclaration(sharedVar, node));
+    ErrorUtil.sharedAnonymousClassInstance();
+    CompilationUnit unit = TreeUtil.getCompilationUnit(typeDecl);
+    logger.finest(String.format("%s:%d: shared instance of anonymous class %s",
+        unit.getSourceFileFullPath(), unit.getLineNumber(typeDecl.getStartPosition()),
+        type.getBinaryName()));
+  }
+
+  /**
+   * Returns true if every evaluation of an anonymous class creation can
+   * return the same instance. The class must not have any state, neither
+   * directly nor inherited, must not capture its outer instance or any local
+   * variables, and must not lock its own instance. Creations whose instances
+   * are compared by identity, or that are only evaluated once by static
+   * initialization, are also excluded.
+   */
+  private static boolean canShareInstance(
+      AnonymousClassDeclaration node, ClassInstanceCreation creation) {
+    ITypeBinding type = node.getTypeBinding();
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass == null || !Types.isJavaObjectType(superclass)
+        || OuterReferenceResolver.needsOuterParam(type)
+        || !OuterReferenceResolver.getCapturedVars(type).isEmpty()) {
+      return false;
+    }
+    for (BodyDeclaration decl : node.getBodyDeclarations()) {
+      int modifiers = decl.getModifiers();
+      if (decl instanceof MethodDeclaration ? Modifier.isSynchronized(modifiers)
+          : (decl instanceof FieldDeclaration || decl instanceof Initializer)
+            && !Modifier.isStatic(modifiers)) {
+        return false;
+      }
+    }
+    final boolean[] locksThis = new boolean[1];
+    node.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(SynchronizedStatement node) {
+        if (node.getExpression() instanceof ThisExpression) {
+          locksThis[0] = true;
+        }
+        return true;
+      }
+    });
+    if (locksThis[0]) {
+      return false;
+    }
+    TreeNode parent = creation.getParent();
+    while (parent instanceof ParenthesizedExpression) {
+      parent = parent.getParent();
+    }
+    if (parent instanceof InfixExpression || parent instanceof SynchronizedStatement) {
+      return false;
+    }
+    boolean inMember = true;
+    for (TreeNode n = parent; n != null; n = n.getParent()) {
+      if (inMember && (n instanceof FieldDeclaration || n instanceof Initializer)
+          && Modifier.isStatic(((BodyDeclaration) n).getModifiers())) {
+        // Static initialization code only runs once.
+        return false;
+      }
+      if (n instanceof BodyDeclaration) {
+        inMember = false;
+      }
+      if (n instanceof MethodDeclaration && BindingUtil.hasAnnotation(
+              ((MethodDeclaration) n).getMethodBinding(), UniqueInstances.class)
+          || n instanceof AbstractTypeDeclaration && BindingUtil.hasAnnotation(
+              ((AbstractTypeDeclaration) n).getTypeBinding(), UniqueInstances.class)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private GeneratedMethodBinding addDefaultConstructor(
       TypeDeclaration node, List<Expression> invocationArguments, Expression outerExpression) {
     ITypeBinding clazz = node.getTypeBinding();
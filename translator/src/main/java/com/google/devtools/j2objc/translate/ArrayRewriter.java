@@ -17,10 +17,13 @@ package com.google.devtools.j2objc.translate;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.AnnotationTypeMemberDeclaration;
 import com.google.devtools.j2objc.ast.ArrayAccess;
 import com.google.devtools.j2objc.ast.ArrayCreation;
 import com.google.devtools.j2objc.ast.ArrayInitializer;
 import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.BodyDeclaration;
 import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.ConstructorInvocation;
 import com.google.devtools.j2objc.ast.EnumConstantDeclaration;
@@ -28,7 +31,9 @@ import com.google.devtools.j2objc.ast.Expression;
 import com.google.devtools.j2objc.ast.FieldAccess;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
 import com.google.devtools.j2objc.ast.InstanceofExpression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NativeArrayDeclaration;
 import com.google.devtools.j2objc.ast.NumberLiteral;
 import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
@@ -46,9 +51,13 @@ import com.google.devtools.j2objc.types.IOSMethod;
 import com.google.devtools.j2objc.types.IOSMethodBinding;
 import com.google.devtools.j2objc.types.IOSTypeBinding;
 import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.NameTable;
+import com.google.devtools.j2objc.util.UnicodeUtils;
 
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Modifier;
 
 import java.util.List;
@@ -91,6 +100,7 @@ public class ArrayRewriter extends TreeVisitor {
   private Map<IOSTypeBinding, IOSMethodBinding> initMethods = Maps.newHashMap();
   private Map<IOSTypeBinding, IOSMethodBinding> singleDimMethods = Maps.newHashMap();
   private Map<IOSTypeBinding, IOSMethodBinding> multiDimMethods = Maps.newHashMap();
+  private Map<IOSTypeBinding, IOSMethodBinding> emptyArrayMethods = Maps.newHashMap();
 
   @Override
   public void endVisit(ArrayCreation node) {
@@ -102,7 +112,7 @@ public class ArrayRewriter extends TreeVisitor {
     assert arrayType.isArray();
     ArrayInitializer initializer = node.getInitializer();
     if (initializer != null) {
-      return newInitializedArrayInvocation(arrayType, initializer.getExpressions());
+      return newInitializedArrayInvocation(node, arrayType, initializer.getExpressions());
     } else {
       List<Expression> dimensions = node.getDimensions();
       if (dimensions.size() == 1) {
@@ -117,7 +127,8 @@ public class ArrayRewriter extends TreeVisitor {
   public void endVisit(ArrayInitializer node) {
     TreeNode parent = node.getParent();
     if (!(parent instanceof ArrayCreation)) {
-      node.replaceWith(newInitializedArrayInvocation(node.getTypeBinding(), node.getExpressions()));
+      node.replaceWith(
+          newInitializedArrayInvocation(node, node.getTypeBinding(), node.getExpressions()));
     }
   }
 
@@ -151,7 +162,7 @@ public class ArrayRewriter extends TreeVisitor {
     List<Expression> varargsCopy = Lists.newArrayList(varargs);
     varargs.clear();
     if (varargsCopy.isEmpty()) {
-      args.add(newSingleDimensionArrayInvocation(lastParam, NumberLiteral.newIntLiteral(0)));
+      args.add(newEmptyArrayInvocation(lastParam));
     } else {
       ArrayInitializer newArray = new ArrayInitializer(lastParam);
       newArray.getExpressions().addAll(varargsCopy);
@@ -160,7 +171,7 @@ public class ArrayRewriter extends TreeVisitor {
   }
 
   private MethodInvocation newInitializedArrayInvocation(
-      ITypeBinding arrayType, List<Expression> elements) {
+      TreeNode node, ITypeBinding arrayType, List<Expression> elements) {
     ITypeBinding componentType = arrayType.getComponentType();
     IOSTypeBinding iosArrayBinding = Types.resolveArrayType(componentType);
 
@@ -168,15 +179,21 @@ public class ArrayRewriter extends TreeVisitor {
     MethodInvocation invocation =
         new MethodInvocation(methodBinding, new SimpleName(iosArrayBinding));
 
-    // Create the array initializer and add it as the first parameter.
-    ArrayInitializer arrayInit = new ArrayInitializer(arrayType);
-    for (Expression element : elements) {
-      arrayInit.getExpressions().add(element.copy());
+    // Add the elements as the first parameter, either as static data or as an
+    // array initializer.
+    Expression staticData = newStaticArrayData(node, arrayType, elements);
+    if (staticData != null) {
+      invocation.getArguments().add(staticData);
+    } else {
+      ArrayInitializer arrayInit = new ArrayInitializer(arrayType);
+      for (Expression element : elements) {
+        arrayInit.getExpressions().add(element.copy());
+      }
+      invocation.getArguments().add(arrayInit);
     }
-    invocation.getArguments().add(arrayInit);
 
     // Add the array size parameter.
-    invocation.getArguments().add(NumberLiteral.newIntLiteral(arrayInit.getExpressions().size()));
+    invocation.getArguments().add(NumberLiteral.newIntLiteral(elements.size()));
 
     // Add the type argument for object arrays.
     if (!componentType.isPrimitive()) {
@@ -186,6 +203,70 @@ public class ArrayRewriter extends TreeVisitor {
     return invocation;
   }
 
+  /**
+   * Declares the elements of an array that is initialized with compile-time
+   * constants as a static C array, so each evaluation of the initializer
+   * copies them in bulk instead of evaluating each element. Returns a
+   * reference to the C array, or null if the array isn't eligible.
+   */
+  private Expression newStaticArrayData(
+      TreeNode node, ITypeBinding arrayType, List<Expression> elements) {
+    ITypeBinding componentType = arrayType.getComponentType();
+    if (elements.isEmpty()
+        || !(componentType.isPrimitive() || Types.isJavaStringType(componentType))
+        // Annotation defaults are only generated for runtime annotations, so
+        // their data could be unused.
+        || TreeUtil.getNearestAncestorWithType(AnnotationTypeMemberDeclaration.class, node)
+            != null) {
+      return null;
+    }
+    List<Expression> values = Lists.newArrayList();
+    for (Expression element : elements) {
+      Object value = element.getConstantValue();
+      if (value == null
+          || (value instanceof String && !UnicodeUtils.hasValidCppCharacters((String) value))) {
+        return null;
+      }
+      values.add(TreeUtil.newLiteral(value));
+    }
+    // Declare the data before any methods, after data declared for earlier arrays.
+    AbstractTypeDeclaration type = TreeUtil.getOwningType(node);
+    List<BodyDeclaration> decls = type.getBodyDeclarations();
+    int index = 0;
+    while (index < decls.size() && decls.get(index) instanceof NativeArrayDeclaration) {
+      index++;
+    }
+    // Data of other arrays is numbered, since it's not named by a field.
+    IVariableBinding var = getStaticFinalField(node);
+    String name = var != null ? NameTable.getStaticVarQualifiedName(var) + "data"
+        : NameTable.getFullName(type.getTypeBinding()) + '_' + index + "_data";
+    NativeArrayDeclaration data = new NativeArrayDeclaration(name, componentType);
+    data.getElements().addAll(values);
+    decls.add(index, data);
+    return new SimpleName(new GeneratedVariableBinding(
+        name, Modifier.FINAL, arrayType, false, false, null, null));
+  }
+
+  /**
+   * Returns the static final field initialized by an array creation in its
+   * class initializer, if any, which names the array's static data.
+   */
+  private static IVariableBinding getStaticFinalField(TreeNode node) {
+    TreeNode parent = node.getParent();
+    if (!(parent instanceof Assignment) || ((Assignment) parent).getRightHandSide() != node) {
+      return null;
+    }
+    IVariableBinding var = TreeUtil.getVariableBinding(((Assignment) parent).getLeftHandSide());
+    if (var == null || !var.isField() || !BindingUtil.isStatic(var) || !BindingUtil.isFinal(var)) {
+      return null;
+    }
+    MethodDeclaration method = TreeUtil.getOwningMethod(node);
+    if (method == null || !BindingUtil.isInitializeMethod(method.getMethodBinding())) {
+      return null;
+    }
+    return var;
+  }
+
   private IOSMethodBinding getInitializeMethod(IOSTypeBinding arrayType) {
     IOSMethodBinding binding = initMethods.get(arrayType);
     if (binding != null) {
@@ -244,6 +325,43 @@ public class ArrayRewriter extends TreeVisitor {
     return binding;
   }
 
+  /**
+   * Returns the shared empty array of an array type, which is passed for a
+   * varargs parameter that has no arguments.
+   */
+  private MethodInvocation newEmptyArrayInvocation(ITypeBinding arrayType) {
+    ITypeBinding componentType = arrayType.getComponentType();
+    IOSTypeBinding iosArrayBinding = Types.resolveArrayType(componentType);
+
+    IOSMethodBinding methodBinding = getEmptyArrayMethod(iosArrayBinding);
+    MethodInvocation invocation =
+        new MethodInvocation(methodBinding, new SimpleName(iosArrayBinding));
+
+    // Add the type argument for object arrays.
+    if (!componentType.isPrimitive()) {
+      invocation.getArguments().add(newTypeLiteral(componentType));
+    }
+
+    return invocation;
+  }
+
+  private IOSMethodBinding getEmptyArrayMethod(IOSTypeBinding arrayType) {
+    IOSMethodBinding binding = emptyArrayMethods.get(arrayType);
+    if (binding != null) {
+      return binding;
+    }
+    boolean needsTypeParam = arrayType.getName().equals("IOSObjectArray");
+    IOSMethod iosMethod = IOSMethod.create(arrayType.getName()
+        + (needsTypeParam ? " emptyArrayWithType:(IOSClass *)type" : " emptyArray"));
+    binding = IOSMethodBinding.newMethod(
+        iosMethod, Modifier.PUBLIC | Modifier.STATIC, arrayType, arrayType);
+    if (needsTypeParam) {
+      binding.addParameter(Types.getIOSClass());
+    }
+    emptyArrayMethods.put(arrayType, binding);
+    return binding;
+  }
+
   private MethodInvocation newMultiDimensionArrayInvocation(
       ITypeBinding arrayType, List<Expression> dimensions) {
     assert dimensions.size() > 1;
@@ -117,6 +117,11 @@ public class Autoboxer extends TreeVisitor {
     ITypeBinding wrapperType = findWrapperSuperclass(expr.getTypeBinding());
     ITypeBinding primitiveType = Types.getPrimitiveType(wrapperType);
     if (primitiveType != null) {
+      Expression boxedValue = getBoxedValue(expr);
+      if (boxedValue != null && boxedValue.getTypeBinding().isEqualTo(primitiveType)) {
+        // Unboxing a value that was just boxed, so use the primitive directly.
+        return boxedValue.copy();
+      }
       IMethodBinding valueMethod = BindingUtil.findDeclaredMethod(
           wrapperType, primitiveType.getName() + VALUE_METHOD);
       assert valueMethod != null : "could not find value method for " + wrapperType;
@@ -126,6 +131,31 @@ public class Autoboxer extends TreeVisitor {
     }
   }
 
+  /**
+   * If expr is a "Wrapper.valueOf(primitive)" invocation, returns the
+   * primitive argument, otherwise null.
+   */
+  private static Expression getBoxedValue(Expression expr) {
+    while (expr instanceof ParenthesizedExpression) {
+      expr = ((ParenthesizedExpression) expr).getExpression();
+    }
+    if (!(expr instanceof MethodInvocation)) {
+      return null;
+    }
+    MethodInvocation invocation = (MethodInvocation) expr;
+    IMethodBinding method = invocation.getMethodBinding();
+    if (!method.getName().equals(VALUEOF_METHOD) || !BindingUtil.isStatic(method)
+        || !Types.isBoxedPrimitive(method.getDeclaringClass())) {
+      return null;
+    }
+    ITypeBinding[] paramTypes = method.getParameterTypes();
+    if (paramTypes.length != 1 || !paramTypes[0].isPrimitive()) {
+      return null;
+    }
+    Expression arg = invocation.getArguments().get(0);
+    return arg.getTypeBinding().isPrimitive() ? arg : null;
+  }
+
   @Override
   public void endVisit(Assignment node) {
     Expression lhs = node.getLeftHandSide();
@@ -323,6 +353,28 @@ public class Autoboxer extends TreeVisitor {
   @Override
   public void endVisit(MethodInvocation node) {
     convertArguments(node.getMethodBinding(), node.getArguments());
+    removeBoxingRoundTrip(node);
+  }
+
+  /**
+   * Replaces an explicit "Wrapper.valueOf(x).primitiveValue()" expression
+   * with "x", when the value method returns the wrapped primitive type.
+   */
+  private void removeBoxingRoundTrip(MethodInvocation node) {
+    IMethodBinding method = node.getMethodBinding();
+    Expression receiver = node.getExpression();
+    if (receiver == null || !node.getArguments().isEmpty()
+        || !Types.isBoxedPrimitive(method.getDeclaringClass())) {
+      return;
+    }
+    ITypeBinding primitiveType = Types.getPrimitiveType(method.getDeclaringClass());
+    if (!method.getName().equals(primitiveType.getName() + VALUE_METHOD)) {
+      return;
+    }
+    Expression boxedValue = getBoxedValue(receiver);
+    if (boxedValue != null && boxedValue.getTypeBinding().isEqualTo(primitiveType)) {
+      node.replaceWith(TreeUtil.remove(boxedValue));
+    }
   }
 
   @Override
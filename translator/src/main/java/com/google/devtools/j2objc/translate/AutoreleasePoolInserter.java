@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.AnonymousClassDeclaration;
+import com.google.devtools.j2objc.ast.ArrayCreation;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.DoStatement;
+import com.google.devtools.j2objc.ast.EnhancedForStatement;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.WhileStatement;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Wraps the bodies of loops that autorelease many objects per iteration in
+ * autorelease pools, like the AutoreleasePool annotation does. Allocations,
+ * string concatenations, array creations and calls of static methods and
+ * String methods that return objects are each counted as one autoreleased
+ * object; those in nested loops without their own pool count as
+ * NESTED_LOOP_WEIGHT objects.
+ *
+ * A loop isn't changed if its body assigns an object to a local variable
+ * declared outside of it, or returns an object, since that object may be
+ * released when the pool is drained.
+ */
+public class AutoreleasePoolInserter extends TreeVisitor {
+
+  private static final Logger logger = Logger.getLogger(AutoreleasePoolInserter.class.getName());
+
+  private static final int NESTED_LOOP_WEIGHT = 10;
+
+  private final int threshold = Options.autoreleasePoolThreshold();
+  private CompilationUnit unit = null;
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    unit = node;
+    return threshold > 0 && !Options.useGC();
+  }
+
+  @Override
+  public void endVisit(DoStatement node) {
+    Statement body = node.getBody();
+    if (needsAutoreleasePool(body)) {
+      addAutoreleasePool(node, body);
+    }
+  }
+
+  @Override
+  public void endVisit(EnhancedForStatement node) {
+    Statement body = node.getBody();
+    if (needsAutoreleasePool(body)) {
+      addAutoreleasePool(node, body);
+    }
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    Statement body = node.getBody();
+    if (needsAutoreleasePool(body)) {
+      addAutoreleasePool(node, body);
+    }
+  }
+
+  @Override
+  public void endVisit(WhileStatement node) {
+    Statement body = node.getBody();
+    if (needsAutoreleasePool(body)) {
+      addAutoreleasePool(node, body);
+    }
+  }
+
+  private boolean needsAutoreleasePool(Statement body) {
+    return !(body instanceof Block && ((Block) body).hasAutoreleasePool())
+        && countAutoreleasedObjects(body) >= threshold && canDrainInLoop(body);
+  }
+
+  private void addAutoreleasePool(Statement loop, Statement body) {
+    Block block;
+    if (body instanceof Block) {
+      block = (Block) body;
+    } else {
+      block = new Block();
+      body.replaceWith(block);
+      block.getStatements().add(body);
+    }
+    block.setHasAutoreleasePool(true);
+    ErrorUtil.insertedAutoreleasePool();
+    logger.finest(String.format("%s:%d: added autorelease pool to loop",
+        unit.getSourceFileFullPath(), unit.getLineNumber(loop.getStartPosition())));
+  }
+
+  /**
+   * Returns the estimated number of objects autoreleased by one execution
+   * of a statement.
+   */
+  private static int countAutoreleasedObjects(Statement stmt) {
+    final int[] count = new int[1];
+    stmt.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(AnonymousClassDeclaration node) {
+        return false;
+      }
+
+      @Override
+      public boolean visit(ArrayCreation node) {
+        count[0]++;
+        return true;
+      }
+
+      @Override
+      public boolean visit(Assignment node) {
+        if (node.getOperator() == Assignment.Operator.PLUS_ASSIGN
+            && Types.isJavaStringType(node.getTypeBinding())) {
+          count[0]++;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(Block node) {
+        return !node.hasAutoreleasePool();
+      }
+
+      @Override
+      public boolean visit(ClassInstanceCreation node) {
+        count[0]++;
+        return true;
+      }
+
+      @Override
+      public boolean visit(DoStatement node) {
+        count[0] += NESTED_LOOP_WEIGHT * countAutoreleasedObjects(node.getBody());
+        return false;
+      }
+
+      @Override
+      public boolean visit(EnhancedForStatement node) {
+        count[0] += NESTED_LOOP_WEIGHT * countAutoreleasedObjects(node.getBody());
+        return false;
+      }
+
+      @Override
+      public boolean visit(ForStatement node) {
+        count[0] += NESTED_LOOP_WEIGHT * countAutoreleasedObjects(node.getBody());
+        return false;
+      }
+
+      @Override
+      public boolean visit(InfixExpression node) {
+        if (node.getOperator() == InfixExpression.Operator.PLUS
+            && Types.isJavaStringType(node.getTypeBinding())) {
+          count[0]++;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(MethodInvocation node) {
+        IMethodBinding binding = node.getMethodBinding();
+        ITypeBinding returnType = binding.getReturnType();
+        if (!returnType.isPrimitive() && (BindingUtil.isStatic(binding)
+            || Types.isJavaStringType(binding.getDeclaringClass()))) {
+          count[0]++;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean visit(WhileStatement node) {
+        count[0] += NESTED_LOOP_WEIGHT * countAutoreleasedObjects(node.getBody());
+        return false;
+      }
+    });
+    return count[0];
+  }
+
+  /**
+   * Returns false if objects autoreleased by the loop body may be referenced
+   * after an iteration, other than through retained fields and containers.
+   */
+  private static boolean canDrainInLoop(Statement body) {
+    final Set<IBinding> localVars = Sets.newHashSet();
+    body.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(SingleVariableDeclaration node) {
+        localVars.add(node.getVariableBinding());
+      }
+
+      @Override
+      public void endVisit(VariableDeclarationFragment node) {
+        localVars.add(node.getVariableBinding());
+      }
+    });
+    final boolean[] result = { true };
+    body.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(AnonymousClassDeclaration node) {
+        return false;
+      }
+
+      @Override
+      public void endVisit(Assignment node) {
+        Expression lhs = node.getLeftHandSide();
+        if (lhs instanceof SimpleName && !lhs.getTypeBinding().isPrimitive()) {
+          IBinding binding = ((SimpleName) lhs).getBinding();
+          if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()
+              && !localVars.contains(binding)) {
+            result[0] = false;
+          }
+        }
+      }
+
+      @Override
+      public void endVisit(ReturnStatement node) {
+        Expression expr = node.getExpression();
+        if (expr != null && !expr.getTypeBinding().isPrimitive()) {
+          result[0] = false;
+        }
+      }
+    });
+    return result[0];
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.NameTable;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.util.List;
+
+/**
+ * Replaces the boxing and unboxing invocations added by Autoboxer, such as
+ * Integer.valueOf(i) and n.intValue(), with calls of the C functions declared
+ * in JreBoxing.h, so they don't need a message send. The functions are named
+ * after the wrapper type and the selector they replace. Runs after
+ * NilCheckResolver, since the unboxing functions require a non-nil argument.
+ */
+public class BoxingFunctionRewriter extends TreeVisitor {
+
+  private static final String VALUEOF_METHOD = "valueOf";
+  private static final String VALUE_METHOD = "Value";
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    return Options.boxingFunctions();
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    IMethodBinding method = node.getMethodBinding();
+    Expression receiver = node.getExpression();
+    String function = getFunctionName(method);
+    if (function == null || (receiver == null && !BindingUtil.isStatic(method))) {
+      return;
+    }
+    FunctionInvocation invocation = new FunctionInvocation(
+        function, node.getTypeBinding(), method.getReturnType(), method.getDeclaringClass());
+    List<Expression> args = invocation.getArguments();
+    if (!BindingUtil.isStatic(method)) {
+      args.add(receiver.copy());
+    }
+    TreeUtil.copyList(node.getArguments(), args);
+    node.replaceWith(invocation);
+  }
+
+  /**
+   * Returns true if the function is one of the boxing or unboxing functions
+   * that this rewriter calls.
+   */
+  public static boolean isBoxingFunction(FunctionInvocation node) {
+    ITypeBinding type = node.getDeclaringType();
+    if (type == null || !Types.isBoxedPrimitive(type)) {
+      return false;
+    }
+    String name = node.getName();
+    String primitiveName = Types.getPrimitiveType(type).getName();
+    return name.equals(getFunctionName(
+            BindingUtil.findDeclaredMethod(type, VALUEOF_METHOD, primitiveName)))
+        || name.equals(getFunctionName(
+            BindingUtil.findDeclaredMethod(type, primitiveName + VALUE_METHOD)));
+  }
+
+  /**
+   * Returns the name of the function that replaces a wrapper type's
+   * valueOf(primitive) or primitiveValue() method, or null if the method
+   * isn't one of them.
+   */
+  private static String getFunctionName(IMethodBinding method) {
+    if (method == null) {
+      return null;
+    }
+    ITypeBinding type = method.getDeclaringClass();
+    ITypeBinding primitiveType = Types.getPrimitiveType(type);
+    if (primitiveType == null) {
+      return null;
+    }
+    ITypeBinding[] paramTypes = method.getParameterTypes();
+    boolean isBoxing = method.getName().equals(VALUEOF_METHOD) && BindingUtil.isStatic(method)
+        && paramTypes.length == 1 && paramTypes[0].isEqualTo(primitiveType);
+    boolean isUnboxing = method.getName().equals(primitiveType.getName() + VALUE_METHOD)
+        && !BindingUtil.isStatic(method) && paramTypes.length == 0;
+    if (!isBoxing && !isUnboxing) {
+      return null;
+    }
+    return NameTable.getFullName(type) + "_"
+        + NameTable.getMethodSelector(method).replace(':', '_');
+  }
+}
@@ -0,0 +1,373 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.BreakStatement;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.ContinueStatement;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.IfStatement;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.InstanceofExpression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThrowStatement;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
+import com.google.devtools.j2objc.ast.WhileStatement;
+import com.google.devtools.j2objc.types.AbstractTypeBinding;
+import com.google.devtools.j2objc.util.ErrorUtil;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes the runtime type check from casts that can't fail: casts to a
+ * supertype of the expression's static type, and casts of local variables
+ * whose dynamic type is already known from an enclosing instanceof test or
+ * an earlier cast in the same block. Only locals that are never reassigned
+ * after their declaration are tracked.
+ */
+public class CastCheckResolver extends TreeVisitor {
+
+  private Set<IVariableBinding> reassignedVars = Sets.newHashSet();
+  // The types each variable is known to be an instance of, by scope.
+  private final List<SetMultimap<IVariableBinding, ITypeBinding>> knownTypesStack =
+      Lists.newArrayList();
+  // Casts in the current statement that complete only if the cast succeeds.
+  private final SetMultimap<IVariableBinding, ITypeBinding> pendingCasts = HashMultimap.create();
+
+  private void pushScope() {
+    knownTypesStack.add(HashMultimap.<IVariableBinding, ITypeBinding>create());
+  }
+
+  private void popScope() {
+    knownTypesStack.remove(knownTypesStack.size() - 1);
+  }
+
+  private void addKnownTypes(SetMultimap<IVariableBinding, ITypeBinding> types) {
+    if (!knownTypesStack.isEmpty()) {
+      knownTypesStack.get(knownTypesStack.size() - 1).putAll(types);
+    }
+  }
+
+  private boolean isKnownInstance(IVariableBinding var, ITypeBinding type) {
+    for (SetMultimap<IVariableBinding, ITypeBinding> scope : knownTypesStack) {
+      for (ITypeBinding knownType : scope.get(var)) {
+        if (isSubtype(knownType, type)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSubtype(ITypeBinding type, ITypeBinding superType) {
+    // Generated bindings don't support subtype checks.
+    if (type instanceof AbstractTypeBinding || superType instanceof AbstractTypeBinding) {
+      return type.isEqualTo(superType);
+    }
+    return type.isSubTypeCompatible(superType);
+  }
+
+  /**
+   * Returns the local variable an expression reads, if its type can be
+   * tracked, otherwise null.
+   */
+  private IVariableBinding getTrackedVariable(Expression expr) {
+    while (expr instanceof ParenthesizedExpression) {
+      expr = ((ParenthesizedExpression) expr).getExpression();
+    }
+    if (!(expr instanceof SimpleName)) {
+      return null;
+    }
+    IBinding binding = ((SimpleName) expr).getBinding();
+    if (!(binding instanceof IVariableBinding)) {
+      return null;
+    }
+    IVariableBinding var = (IVariableBinding) binding;
+    return !var.isField() && !reassignedVars.contains(var) ? var : null;
+  }
+
+  /**
+   * Adds the types that are known when expr evaluates to value.
+   */
+  private void addConditionTypes(
+      Expression expr, boolean value, SetMultimap<IVariableBinding, ITypeBinding> types) {
+    if (expr instanceof ParenthesizedExpression) {
+      addConditionTypes(((ParenthesizedExpression) expr).getExpression(), value, types);
+    } else if (expr instanceof PrefixExpression) {
+      PrefixExpression prefix = (PrefixExpression) expr;
+      if (prefix.getOperator() == PrefixExpression.Operator.NOT) {
+        addConditionTypes(prefix.getOperand(), !value, types);
+      }
+    } else if (expr instanceof InstanceofExpression) {
+      InstanceofExpression instanceofExpr = (InstanceofExpression) expr;
+      IVariableBinding var = getTrackedVariable(instanceofExpr.getLeftOperand());
+      if (value && var != null) {
+        types.put(var, instanceofExpr.getRightOperand().getTypeBinding());
+      }
+    } else if (expr instanceof InfixExpression) {
+      InfixExpression infix = (InfixExpression) expr;
+      InfixExpression.Operator op = infix.getOperator();
+      if ((value && op == InfixExpression.Operator.CONDITIONAL_AND)
+          || (!value && op == InfixExpression.Operator.CONDITIONAL_OR)) {
+        addConditionTypes(infix.getLeftOperand(), value, types);
+        addConditionTypes(infix.getRightOperand(), value, types);
+        for (Expression operand : infix.getExtendedOperands()) {
+          addConditionTypes(operand, value, types);
+        }
+      }
+    }
+  }
+
+  private SetMultimap<IVariableBinding, ITypeBinding> getConditionTypes(
+      Expression expr, boolean value) {
+    SetMultimap<IVariableBinding, ITypeBinding> types = HashMultimap.create();
+    addConditionTypes(expr, value, types);
+    return types;
+  }
+
+  private void acceptWithConditionTypes(TreeNode node, Expression condition, boolean value) {
+    if (node != null) {
+      pushScope();
+      addKnownTypes(getConditionTypes(condition, value));
+      node.accept(this);
+      popScope();
+    }
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    Block body = node.getBody();
+    if (body != null) {
+      reassignedVars = findReassignedVariables(body);
+      body.accept(this);
+      reassignedVars = Sets.newHashSet();
+    }
+    return false;
+  }
+
+  private static Set<IVariableBinding> findReassignedVariables(Block body) {
+    final Set<IVariableBinding> vars = Sets.newHashSet();
+    body.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        addVariable(node.getLeftHandSide());
+      }
+
+      @Override
+      public void endVisit(PrefixExpression node) {
+        PrefixExpression.Operator op = node.getOperator();
+        if (op == PrefixExpression.Operator.INCREMENT
+            || op == PrefixExpression.Operator.DECREMENT) {
+          addVariable(node.getOperand());
+        }
+      }
+
+      @Override
+      public void endVisit(PostfixExpression node) {
+        addVariable(node.getOperand());
+      }
+
+      private void addVariable(Expression expr) {
+        IVariableBinding var = TreeUtil.getVariableBinding(expr);
+        if (var != null) {
+          vars.add(var);
+        }
+      }
+    });
+    return vars;
+  }
+
+  @Override
+  public boolean visit(Block node) {
+    pushScope();
+    return true;
+  }
+
+  @Override
+  public void endVisit(Block node) {
+    popScope();
+  }
+
+  @Override
+  public void endVisit(ExpressionStatement node) {
+    addPendingCasts(node);
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    addPendingCasts(node);
+  }
+
+  /**
+   * Later statements in the same block are only reached if the casts in this
+   * statement succeeded.
+   */
+  private void addPendingCasts(Statement node) {
+    if (node.getParent() instanceof Block) {
+      addKnownTypes(pendingCasts);
+    }
+    pendingCasts.clear();
+  }
+
+  @Override
+  public boolean visit(IfStatement node) {
+    Expression condition = node.getExpression();
+    condition.accept(this);
+    acceptWithConditionTypes(node.getThenStatement(), condition, true);
+    acceptWithConditionTypes(node.getElseStatement(), condition, false);
+    if (node.getParent() instanceof Block && node.getElseStatement() == null
+        && !canCompleteNormally(node.getThenStatement())) {
+      // Statements following "if (!(x instanceof Foo)) return;" know x is a Foo.
+      addKnownTypes(getConditionTypes(condition, false));
+    }
+    return false;
+  }
+
+  private static boolean canCompleteNormally(Statement stmt) {
+    if (stmt instanceof Block) {
+      List<Statement> stmts = ((Block) stmt).getStatements();
+      return stmts.isEmpty() || canCompleteNormally(stmts.get(stmts.size() - 1));
+    }
+    return !(stmt instanceof ReturnStatement || stmt instanceof ThrowStatement
+        || stmt instanceof BreakStatement || stmt instanceof ContinueStatement);
+  }
+
+  @Override
+  public boolean visit(ConditionalExpression node) {
+    Expression condition = node.getExpression();
+    condition.accept(this);
+    acceptWithConditionTypes(node.getThenExpression(), condition, true);
+    acceptWithConditionTypes(node.getElseExpression(), condition, false);
+    return false;
+  }
+
+  @Override
+  public boolean visit(InfixExpression node) {
+    InfixExpression.Operator op = node.getOperator();
+    boolean logicalAnd = op == InfixExpression.Operator.CONDITIONAL_AND;
+    if (!logicalAnd && op != InfixExpression.Operator.CONDITIONAL_OR) {
+      return true;
+    }
+    // Each operand is only evaluated if the previous operands had the value
+    // that doesn't short-circuit the expression.
+    node.getLeftOperand().accept(this);
+    pushScope();
+    addKnownTypes(getConditionTypes(node.getLeftOperand(), logicalAnd));
+    node.getRightOperand().accept(this);
+    addKnownTypes(getConditionTypes(node.getRightOperand(), logicalAnd));
+    for (Expression operand : node.getExtendedOperands()) {
+      operand.accept(this);
+      addKnownTypes(getConditionTypes(operand, logicalAnd));
+    }
+    popScope();
+    return false;
+  }
+
+  @Override
+  public boolean visit(WhileStatement node) {
+    Expression condition = node.getExpression();
+    condition.accept(this);
+    acceptWithConditionTypes(node.getBody(), condition, true);
+    return false;
+  }
+
+  @Override
+  public boolean visit(ForStatement node) {
+    for (Expression initializer : node.getInitializers()) {
+      initializer.accept(this);
+    }
+    Expression condition = node.getExpression();
+    if (condition == null) {
+      node.getBody().accept(this);
+    } else {
+      condition.accept(this);
+      pushScope();
+      addKnownTypes(getConditionTypes(condition, true));
+      node.getBody().accept(this);
+      popScope();
+    }
+    for (Expression updater : node.getUpdaters()) {
+      updater.accept(this);
+    }
+    return false;
+  }
+
+  @Override
+  public void endVisit(CastExpression node) {
+    ITypeBinding type = node.getTypeBinding();
+    if (type.isPrimitive() || type.isEnum()) {
+      return;
+    }
+    Expression expr = node.getExpression();
+    ITypeBinding exprType = expr.getTypeBinding();
+    IVariableBinding var = getTrackedVariable(expr);
+    if ((exprType != null && !exprType.isPrimitive() && isSubtype(exprType, type))
+        || (var != null && isKnownInstance(var, type))) {
+      node.setNeedsCastCheck(false);
+      ErrorUtil.removedCastCheck();
+    } else if (var != null && isUnconditionallyEvaluated(node)) {
+      pendingCasts.put(var, type);
+    }
+  }
+
+  /**
+   * Returns true if the statement containing this cast only completes
+   * normally if the cast is evaluated.
+   */
+  private static boolean isUnconditionallyEvaluated(CastExpression node) {
+    TreeNode child = node;
+    TreeNode parent = node.getParent();
+    while (parent != null && !(parent instanceof Statement)) {
+      if (parent instanceof ConditionalExpression
+          && child != ((ConditionalExpression) parent).getExpression()) {
+        return false;
+      }
+      if (parent instanceof InfixExpression
+          && child != ((InfixExpression) parent).getLeftOperand()) {
+        InfixExpression.Operator op = ((InfixExpression) parent).getOperator();
+        if (op == InfixExpression.Operator.CONDITIONAL_AND
+            || op == InfixExpression.Operator.CONDITIONAL_OR) {
+          return false;
+        }
+      }
+      child = parent;
+      parent = parent.getParent();
+    }
+    return parent instanceof ExpressionStatement || parent instanceof VariableDeclarationStatement;
+  }
+}
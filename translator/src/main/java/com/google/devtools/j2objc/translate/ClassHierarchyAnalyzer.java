@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ClassHierarchyMap;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+/**
+ * Collects the method declarations, overrides and invocations of a
+ * compilation unit, for whole-program devirtualization.
+ */
+public class ClassHierarchyAnalyzer extends ErrorReportingASTVisitor {
+
+  private final ClassHierarchyMap.Builder builder;
+
+  public ClassHierarchyAnalyzer(ClassHierarchyMap.Builder builder) {
+    this.builder = builder;
+  }
+
+  @Override
+  public boolean visit(TypeDeclaration node) {
+    addOverriddenMethods(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(AnonymousClassDeclaration node) {
+    addOverriddenMethods(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(EnumDeclaration node) {
+    addOverriddenMethods(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(AnnotationTypeDeclaration node) {
+    return false;
+  }
+
+  /**
+   * Marks every supertype method that a method of this type overrides.
+   */
+  private void addOverriddenMethods(ITypeBinding type) {
+    if (type == null) {
+      return;
+    }
+    for (IMethodBinding method : type.getDeclaredMethods()) {
+      if (method.isConstructor() || BindingUtil.isStatic(method)) {
+        continue;
+      }
+      for (ITypeBinding superType : BindingUtil.getAllInheritedTypes(type)) {
+        for (IMethodBinding superMethod : superType.getDeclaredMethods()) {
+          if (method.overrides(superMethod)) {
+            addMethod(superMethod, false);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    IMethodBinding binding = node.resolveBinding();
+    if (binding != null && isCandidate(binding) && !hasSuperMethodInvocation(node)) {
+      addMethod(binding, true);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visit(MethodInvocation node) {
+    IMethodBinding binding = node.resolveMethodBinding();
+    if (binding != null) {
+      IMethodBinding decl = binding.getMethodDeclaration();
+      builder.addInvokedMethod(getClassName(decl), decl.getName(), BindingUtil.getSignature(decl));
+    }
+    return true;
+  }
+
+  private void addMethod(IMethodBinding method, boolean declared) {
+    method = method.getMethodDeclaration();
+    String clazz = getClassName(method);
+    String signature = BindingUtil.getSignature(method);
+    if (declared) {
+      builder.addDeclaredMethod(clazz, method.getName(), signature);
+    } else {
+      builder.addOverriddenMethod(clazz, method.getName(), signature);
+    }
+  }
+
+  private static String getClassName(IMethodBinding method) {
+    return method.getDeclaringClass().getTypeDeclaration().getBinaryName();
+  }
+
+  /**
+   * Returns true if the method may be called as a function, as long as no
+   * other class overrides it. Static methods are never overridden, so they
+   * only need to be declared by a translated class. Private methods are
+   * already handled by the Functionizer, and methods of local or anonymous
+   * classes can't be referenced from other compilation units. The Functionizer
+   * doesn't visit enums and annotations, so their members and the members of
+   * types nested in them are skipped too.
+   */
+  private static boolean isCandidate(IMethodBinding method) {
+    ITypeBinding declaringClass = method.getDeclaringClass();
+    if (!declaringClass.isClass() || declaringClass.isAnonymous() || declaringClass.isLocal()) {
+      return false;
+    }
+    for (ITypeBinding outer = declaringClass.getDeclaringClass(); outer != null;
+         outer = outer.getDeclaringClass()) {
+      if (outer.isEnum() || outer.isAnnotation()) {
+        return false;
+      }
+    }
+    int modifiers = method.getModifiers();
+    if (method.isConstructor() || Modifier.isPrivate(modifiers)
+        || Modifier.isAbstract(modifiers) || Modifier.isNative(modifiers)
+        || method.isSynthetic()) {
+      return false;
+    }
+    String name = method.getName();
+    int nParams = method.getParameterTypes().length;
+    return !(name.equals("hashCode") && nParams == 0)
+        && !(name.equals("equals") && nParams == 1)
+        && !(name.equals("finalize") && nParams == 0);
+  }
+
+  private static boolean hasSuperMethodInvocation(MethodDeclaration node) {
+    final boolean[] result = new boolean[1];
+    node.accept(new ASTVisitor() {
+      @Override
+      public boolean visit(SuperMethodInvocation node) {
+        result[0] = true;
+        return false;
+      }
+    });
+    return result[0];
+  }
+}
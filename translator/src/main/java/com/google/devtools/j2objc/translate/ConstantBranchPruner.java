@@ -14,15 +14,47 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
 import com.google.devtools.j2objc.ast.BooleanLiteral;
+import com.google.devtools.j2objc.ast.BreakStatement;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.CharacterLiteral;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.ContinueStatement;
 import com.google.devtools.j2objc.ast.DoStatement;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ForStatement;
 import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.NumberLiteral;
 import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.ReturnStatement;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThrowStatement;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclaration;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.ast.WhileStatement;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.ErrorUtil;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.google.devtools.j2objc.ast.InfixExpression.Operator.CONDITIONAL_AND;
 import static com.google.devtools.j2objc.ast.InfixExpression.Operator.CONDITIONAL_OR;
@@ -31,15 +63,76 @@ import static java.lang.Boolean.TRUE;
 
 /**
  * Removes branches that are tested with boolean constant expressions
- * (like javac does).
+ * (like javac does). Local variables that are initialized with a constant
+ * and never reassigned are treated as constants too, and are removed when
+ * no references to them remain. Statements that follow a pruned branch
+ * which can't complete normally are removed as unreachable.
  *
  * @author Tom Ball
  */
 public class ConstantBranchPruner extends TreeVisitor {
 
+  // Local variables initialized with a boolean, numeric or character
+  // constant that are never reassigned, mapped to their values.
+  private final Map<IBinding, Object> constantLocals = Maps.newHashMap();
+
+  @Override
+  public void run(TreeNode node) {
+    findConstantLocals(node);
+    if (constantLocals.isEmpty()) {
+      super.run(node);
+      return;
+    }
+    Set<IBinding> referencedBefore = getReferencedVariables(node);
+    super.run(node);
+    // Removing a declaration may remove the last reference to another one.
+    boolean removed;
+    do {
+      Set<IBinding> unused = Sets.difference(referencedBefore, getReferencedVariables(node));
+      removed = removeConstantLocals(node, unused);
+    } while (removed);
+  }
+
+  @Override
+  public void endVisit(Block node) {
+    List<Statement> stmts = node.getStatements();
+    for (int i = 0; i < stmts.size() - 1; i++) {
+      if (!canCompleteNormally(stmts.get(i))) {
+        while (stmts.size() > i + 1) {
+          prune(stmts.remove(i + 1));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void endVisit(ConditionalExpression node) {
+    Boolean value = getValue(node.getExpression());
+    if (value != null) {
+      Expression result = (value ? node.getThenExpression() : node.getElseExpression()).copy();
+      ITypeBinding type = node.getTypeBinding();
+      // Keep the binary numeric promotion of the operands, as in "(b ? 1 : 2.0)".
+      if (type.isPrimitive() && !type.isEqualTo(result.getTypeBinding())) {
+        result = new CastExpression(type, result);
+      }
+      node.replaceWith(result);
+    }
+  }
+
   @Override
   public void endVisit(DoStatement node) {
-    if (getValue(node.getExpression()) == FALSE) {
+    // The body of a do statement is run once, so it can only be unwrapped
+    // if it has no break or continue statements.
+    if (getValue(node.getExpression()) == FALSE && !hasBreakOrContinue(node.getBody())) {
+      node.replaceWith(node.getBody().copy());
+    }
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    Expression expr = node.getExpression();
+    if (expr != null && getValue(expr) == FALSE && node.getInitializers().isEmpty()) {
+      prune(node);
       node.remove();
     }
   }
@@ -48,10 +141,13 @@ public class ConstantBranchPruner extends TreeVisitor {
   public void endVisit(IfStatement node) {
     Boolean value = getValue(node.getExpression());
     if (value != null) {
+      Statement thenStmt = node.getThenStatement();
+      Statement elseStmt = node.getElseStatement();
+      prune(value ? elseStmt : thenStmt);
       if (value) {
-        node.replaceWith(node.getThenStatement().copy());
-      } else if (node.getElseStatement() != null) {
-        node.replaceWith(node.getElseStatement().copy());
+        node.replaceWith(thenStmt.copy());
+      } else if (elseStmt != null) {
+        node.replaceWith(elseStmt.copy());
       } else {
         node.remove();
       }
@@ -61,7 +157,8 @@ public class ConstantBranchPruner extends TreeVisitor {
   @Override
   public void endVisit(InfixExpression node) {
     InfixExpression.Operator operator = node.getOperator();
-    if (operator != CONDITIONAL_AND && operator != CONDITIONAL_OR) {
+    if (operator != CONDITIONAL_AND && operator != CONDITIONAL_OR
+        || !node.getExtendedOperands().isEmpty()) {
       return;
     }
     Boolean left = getValue(node.getLeftOperand());
@@ -117,6 +214,7 @@ public class ConstantBranchPruner extends TreeVisitor {
   @Override
   public void endVisit(WhileStatement node) {
     if (getValue(node.getExpression()) == FALSE) {
+      prune(node);
       node.remove();
     }
   }
@@ -126,13 +224,268 @@ public class ConstantBranchPruner extends TreeVisitor {
    * null (unknown statically).
    */
   private Boolean getValue(Expression expr) {
+    Object value = getConstant(expr);
+    return value instanceof Boolean ? (Boolean) value : null;
+  }
+
+  /**
+   * Returns the value of a constant expression, a constant local variable,
+   * or a comparison of them, else null.
+   */
+  private Object getConstant(Expression expr) {
     Object value = expr.getConstantValue();
-    if (value instanceof Boolean) {
-      return (Boolean) value;
+    if (value != null) {
+      return value;
     }
     if (expr instanceof BooleanLiteral) {
       return ((BooleanLiteral) expr).booleanValue();
     }
+    if (expr instanceof NumberLiteral) {
+      return ((NumberLiteral) expr).getValue();
+    }
+    if (expr instanceof CharacterLiteral) {
+      return ((CharacterLiteral) expr).charValue();
+    }
+    if (expr instanceof ParenthesizedExpression) {
+      return getConstant(((ParenthesizedExpression) expr).getExpression());
+    }
+    if (expr instanceof SimpleName) {
+      return constantLocals.get(((SimpleName) expr).getBinding());
+    }
+    if (expr instanceof InfixExpression
+        && ((InfixExpression) expr).getExtendedOperands().isEmpty()) {
+      InfixExpression infix = (InfixExpression) expr;
+      return compare(infix.getOperator(), getConstant(infix.getLeftOperand()),
+          getConstant(infix.getRightOperand()));
+    }
     return null;
   }
+
+  private static Boolean compare(InfixExpression.Operator operator, Object left, Object right) {
+    if (left instanceof Boolean && right instanceof Boolean) {
+      switch (operator) {
+        case EQUALS: return left.equals(right);
+        case NOT_EQUALS: return !left.equals(right);
+        default: return null;
+      }
+    }
+    if (!isNumeric(left) || !isNumeric(right)) {
+      return null;
+    }
+    int result;
+    if (isIntegral(left) && isIntegral(right)) {
+      result = Long.compare(longValue(left), longValue(right));
+    } else if (!(left instanceof Double || right instanceof Double)) {
+      // Binary numeric promotion rounds an integral operand to float.
+      result = Float.compare(floatValue(left), floatValue(right));
+      if (Float.isNaN(floatValue(left)) || Float.isNaN(floatValue(right))) {
+        return null;
+      }
+    } else {
+      result = Double.compare(doubleValue(left), doubleValue(right));
+      if (Double.isNaN(doubleValue(left)) || Double.isNaN(doubleValue(right))) {
+        return null;
+      }
+    }
+    switch (operator) {
+      case EQUALS: return result == 0;
+      case NOT_EQUALS: return result != 0;
+      case LESS: return result < 0;
+      case LESS_EQUALS: return result <= 0;
+      case GREATER: return result > 0;
+      case GREATER_EQUALS: return result >= 0;
+      default: return null;
+    }
+  }
+
+  private static boolean isNumeric(Object value) {
+    return value instanceof Number || value instanceof Character;
+  }
+
+  private static boolean isIntegral(Object value) {
+    return !(value instanceof Float || value instanceof Double);
+  }
+
+  private static long longValue(Object value) {
+    return value instanceof Character ? (Character) value : ((Number) value).longValue();
+  }
+
+  private static float floatValue(Object value) {
+    return isIntegral(value) ? (float) longValue(value) : ((Number) value).floatValue();
+  }
+
+  private static double doubleValue(Object value) {
+    return value instanceof Character ? (Character) value : ((Number) value).doubleValue();
+  }
+
+  private static boolean canCompleteNormally(Statement stmt) {
+    if (stmt instanceof ReturnStatement || stmt instanceof ThrowStatement
+        || stmt instanceof BreakStatement || stmt instanceof ContinueStatement) {
+      return false;
+    }
+    if (stmt instanceof Block) {
+      List<Statement> stmts = ((Block) stmt).getStatements();
+      return stmts.isEmpty() || canCompleteNormally(stmts.get(stmts.size() - 1));
+    }
+    if (stmt instanceof IfStatement) {
+      Statement elseStmt = ((IfStatement) stmt).getElseStatement();
+      return elseStmt == null || canCompleteNormally(((IfStatement) stmt).getThenStatement())
+          || canCompleteNormally(elseStmt);
+    }
+    return true;
+  }
+
+  private static boolean hasBreakOrContinue(Statement stmt) {
+    final boolean[] result = new boolean[1];
+    stmt.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(BreakStatement node) {
+        result[0] = true;
+        return false;
+      }
+
+      @Override
+      public boolean visit(ContinueStatement node) {
+        result[0] = true;
+        return false;
+      }
+    });
+    return result[0];
+  }
+
+  private static void prune(TreeNode node) {
+    if (node != null) {
+      ErrorUtil.prunedDeadCode(node.getLength());
+    }
+  }
+
+  private void findConstantLocals(TreeNode node) {
+    final List<VariableDeclarationFragment> fragments = Lists.newArrayList();
+    final Set<IBinding> assigned = Sets.newHashSet();
+    node.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(VariableDeclarationStatement node) {
+        fragments.addAll(node.getFragments());
+      }
+
+      @Override
+      public void endVisit(Assignment node) {
+        addVariable(node.getLeftHandSide());
+      }
+
+      @Override
+      public void endVisit(PrefixExpression node) {
+        PrefixExpression.Operator op = node.getOperator();
+        if (op == PrefixExpression.Operator.INCREMENT
+            || op == PrefixExpression.Operator.DECREMENT
+            || op == PrefixExpression.Operator.ADDRESS_OF) {
+          addVariable(node.getOperand());
+        }
+      }
+
+      @Override
+      public void endVisit(PostfixExpression node) {
+        addVariable(node.getOperand());
+      }
+
+      private void addVariable(Expression expr) {
+        while (expr instanceof ParenthesizedExpression) {
+          expr = ((ParenthesizedExpression) expr).getExpression();
+        }
+        if (expr instanceof SimpleName) {
+          assigned.add(((SimpleName) expr).getBinding());
+        }
+      }
+    });
+    // Only evaluate initializers once every reassigned variable is known, so
+    // that "int b = a;" isn't constant when a is reassigned later. Locals are
+    // declared before they are referenced, so one pass in source order finds
+    // the values of locals initialized from other constant locals.
+    for (VariableDeclarationFragment fragment : fragments) {
+      IVariableBinding var = fragment.getVariableBinding();
+      Expression initializer = fragment.getInitializer();
+      Object value = initializer != null && !assigned.contains(var)
+          ? convert(getConstant(initializer), var.getType()) : null;
+      if (value != null) {
+        constantLocals.put(var, value);
+      }
+    }
+  }
+
+  /**
+   * Converts a constant to the type of the variable it's assigned to, as
+   * "float f = 16777217;" rounds its value. Returns null if the constant isn't
+   * a boolean or number, or the type isn't primitive or a primitive wrapper.
+   */
+  private static Object convert(Object value, ITypeBinding type) {
+    if (Types.isBoxedPrimitive(type)) {
+      type = Types.getPrimitiveType(type);
+    }
+    if (!type.isPrimitive()) {
+      return null;
+    }
+    char binaryName = type.getBinaryName().charAt(0);
+    if (value instanceof Boolean) {
+      return binaryName == 'Z' ? value : null;
+    }
+    if (!isNumeric(value)) {
+      return null;
+    }
+    boolean isIntegral = isIntegral(value);
+    switch (binaryName) {
+      case 'B': return (byte) longValue(value);
+      case 'S': return (short) longValue(value);
+      case 'C': return (char) longValue(value);
+      case 'I': return (int) longValue(value);
+      case 'J': return longValue(value);
+      // A long is rounded to float directly, rather than through double.
+      case 'F': return isIntegral ? (float) longValue(value) : (float) doubleValue(value);
+      case 'D': return isIntegral ? (double) longValue(value) : doubleValue(value);
+      default: return null;
+    }
+  }
+
+  private static Set<IBinding> getReferencedVariables(TreeNode node) {
+    final Set<IBinding> referenced = Sets.newHashSet();
+    node.accept(new TreeVisitor() {
+      @Override
+      public boolean visit(SimpleName node) {
+        TreeNode parent = node.getParent();
+        if (!(parent instanceof VariableDeclaration
+              && ((VariableDeclaration) parent).getName() == node)) {
+          referenced.add(node.getBinding());
+        }
+        return true;
+      }
+    });
+    return referenced;
+  }
+
+  /**
+   * Removes the declarations of constant locals whose references were all
+   * pruned. Their initializers are constants, so have no side effects.
+   * Returns true if any declarations were removed.
+   */
+  private boolean removeConstantLocals(TreeNode node, final Set<IBinding> unused) {
+    final boolean[] removed = new boolean[1];
+    node.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(VariableDeclarationStatement node) {
+        Iterator<VariableDeclarationFragment> iter = node.getFragments().iterator();
+        while (iter.hasNext()) {
+          VariableDeclarationFragment fragment = iter.next();
+          IBinding var = fragment.getVariableBinding();
+          if (constantLocals.containsKey(var) && unused.contains(var)) {
+            prune(fragment);
+            iter.remove();
+            removed[0] = true;
+          }
+        }
+        if (node.getFragments().isEmpty()) {
+          node.remove();
+        }
+      }
+    });
+    return removed[0];
+  }
 }
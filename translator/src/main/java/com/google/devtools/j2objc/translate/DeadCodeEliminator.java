@@ -721,7 +721,7 @@ public class DeadCodeEliminator extends ErrorReportingASTVisitor {
    * For constructors of inner classes, this is the $-delimited name path
    * from the outermost class declaration to the inner class declaration.
    */
-  private String getProGuardName(IMethodBinding method) {
+  static String getProGuardName(IMethodBinding method) {
     if (!method.isConstructor() || !method.getDeclaringClass().isMember()) {
       return method.getName();
     }
@@ -15,23 +15,34 @@
 package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.EnhancedForStatement;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.IfStatement;
 import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.Name;
+import com.google.devtools.j2objc.ast.NumberLiteral;
 import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.SimpleName;
 import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
 import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.ThrowStatement;
 import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.ast.WhileStatement;
+import com.google.devtools.j2objc.types.GeneratedMethodBinding;
+import com.google.devtools.j2objc.types.GeneratedTypeBinding;
 import com.google.devtools.j2objc.types.GeneratedVariableBinding;
 import com.google.devtools.j2objc.types.PointerTypeBinding;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.NameTable;
 import com.google.j2objc.annotations.AutoreleasePool;
 import com.google.j2objc.annotations.LoopTranslation;
 import com.google.j2objc.annotations.LoopTranslation.LoopStyle;
@@ -61,11 +72,18 @@ public class EnhancedForRewriter extends TreeVisitor {
       makeBlock(node.getBody()).setHasAutoreleasePool(true);
     }
 
-    if (expressionType.isArray()) {
+    if (isEnumValuesInvocation(expression)) {
+      node.replaceWith(makeEnumValuesIterationBlock(
+          expressionType.getComponentType(), loopVariable, node.getBody()));
+    } else if (expressionType.isArray()) {
       node.replaceWith(makeArrayIterationBlock(
           expression, expressionType, loopVariable, node.getBody()));
     } else if (emitJavaIteratorLoop(loopVariable)) {
       node.replaceWith(makeIterableBlock(expression, expressionType, loopVariable, node.getBody()));
+    } else if (isArrayList(expressionType)
+        && !BindingUtil.hasAnnotation(loopVariable, LoopTranslation.class)) {
+      node.replaceWith(makeIndexedListBlock(
+          expression, expressionType, loopVariable, node.getBody()));
     } else if (loopVariable.getType().isPrimitive()) {
       boxLoopVariable(node, expressionType, loopVariable);
     } else {
@@ -125,6 +143,77 @@ public class EnhancedForRewriter extends TreeVisitor {
     return block;
   }
 
+  /**
+   * Returns true if expr is an "Enum.values()" invocation, which can be
+   * iterated without copying the enum's constants into a new array.
+   */
+  private static boolean isEnumValuesInvocation(Expression expr) {
+    if (!(expr instanceof MethodInvocation)) {
+      return false;
+    }
+    MethodInvocation invocation = (MethodInvocation) expr;
+    IMethodBinding method = invocation.getMethodBinding();
+    Expression receiver = invocation.getExpression();
+    ITypeBinding declaringClass = method.getDeclaringClass();
+    return declaringClass.isEnum() && method.getName().equals("values")
+        && BindingUtil.isStatic(method) && method.getParameterTypes().length == 0
+        && (receiver == null || receiver instanceof Name);
+  }
+
+  /**
+   * Iterates directly over an enum's static values array.
+   */
+  private Block makeEnumValuesIterationBlock(
+      ITypeBinding enumType, IVariableBinding loopVariable, Statement loopBody) {
+    String typeName = NameTable.getFullName(enumType);
+    int numConstants = 0;
+    for (IVariableBinding field : enumType.getDeclaredFields()) {
+      if (field.isEnumConstant()) {
+        numConstants++;
+      }
+    }
+    PointerTypeBinding bufferType = Types.getPointerType(enumType);
+    IVariableBinding valuesVariable = new GeneratedVariableBinding(
+        typeName + "_values", 0, bufferType, false, false, null, null);
+    GeneratedVariableBinding bufferVariable = new GeneratedVariableBinding(
+        "b__", 0, bufferType, false, false, null, null);
+    bufferVariable.setTypeQualifiers("const*");
+    GeneratedVariableBinding endVariable = new GeneratedVariableBinding(
+        "e__", 0, bufferType, false, false, null, null);
+    endVariable.setTypeQualifiers("const*");
+
+    // The values array is filled in by the enum's class initializer.
+    FunctionInvocation initInvocation = new FunctionInvocation(
+        typeName + "_init", Types.resolveJavaType("void"), Types.resolveJavaType("void"),
+        enumType);
+    VariableDeclarationStatement bufferDecl =
+        new VariableDeclarationStatement(bufferVariable, new SimpleName(valuesVariable));
+    InfixExpression endInit = new InfixExpression(
+        bufferType, InfixExpression.Operator.PLUS, new SimpleName(bufferVariable),
+        NumberLiteral.newIntLiteral(numConstants));
+    VariableDeclarationStatement endDecl = new VariableDeclarationStatement(endVariable, endInit);
+
+    WhileStatement loop = new WhileStatement();
+    loop.setExpression(new InfixExpression(
+        Types.resolveJavaType("boolean"), InfixExpression.Operator.LESS,
+        new SimpleName(bufferVariable), new SimpleName(endVariable)));
+    Block newLoopBody = makeBlock(loopBody.copy());
+    loop.setBody(newLoopBody);
+    newLoopBody.getStatements().add(0, new VariableDeclarationStatement(
+        loopVariable, new PrefixExpression(
+            PrefixExpression.Operator.DEREFERENCE, new PostfixExpression(
+                bufferVariable, PostfixExpression.Operator.INCREMENT))));
+
+    Block block = new Block();
+    List<Statement> stmts = block.getStatements();
+    stmts.add(new ExpressionStatement(initInvocation));
+    stmts.add(bufferDecl);
+    stmts.add(endDecl);
+    stmts.add(loop);
+
+    return block;
+  }
+
   private boolean emitJavaIteratorLoop(IVariableBinding loopVariable) {
     IAnnotationBinding loopTranslation =
         BindingUtil.getAnnotation(loopVariable, LoopTranslation.class);
@@ -176,6 +265,97 @@ public class EnhancedForRewriter extends TreeVisitor {
     return block;
   }
 
+  private static boolean isArrayList(ITypeBinding type) {
+    return type.getErasure().getQualifiedName().equals("java.util.ArrayList");
+  }
+
+  /**
+   * Iterates over an ArrayList by index instead of with fast enumeration.
+   * The list's modCount is checked before each element is fetched, which
+   * matches the ConcurrentModificationException behavior of the list's
+   * iterator.
+   */
+  private Block makeIndexedListBlock(
+      Expression expression, ITypeBinding expressionType, IVariableBinding loopVariable,
+      Statement loopBody) {
+    ITypeBinding intType = Types.resolveJavaType("int");
+    ITypeBinding booleanType = Types.resolveJavaType("boolean");
+    IMethodBinding sizeMethod = BindingUtil.findDeclaredMethod(expressionType, "size");
+    IMethodBinding getMethod = BindingUtil.findDeclaredMethod(expressionType, "get", "int");
+    IVariableBinding modCountField = findField(expressionType, "modCount");
+    assert sizeMethod != null && getMethod != null && modCountField != null;
+
+    IVariableBinding listVariable = new GeneratedVariableBinding(
+        "l__", 0, expressionType, false, false, null, null);
+    IVariableBinding sizeVariable = new GeneratedVariableBinding(
+        "n__", 0, intType, false, false, null, null);
+    IVariableBinding modCountVariable = new GeneratedVariableBinding(
+        "m__", 0, intType, false, false, null, null);
+    IVariableBinding indexVariable = new GeneratedVariableBinding(
+        "i__", 0, intType, false, false, null, null);
+
+    VariableDeclarationStatement listDecl =
+        new VariableDeclarationStatement(listVariable, expression.copy());
+    VariableDeclarationStatement sizeDecl = new VariableDeclarationStatement(
+        sizeVariable, new MethodInvocation(sizeMethod, new SimpleName(listVariable)));
+    VariableDeclarationStatement modCountDecl = new VariableDeclarationStatement(
+        modCountVariable, new FieldAccess(modCountField, new SimpleName(listVariable)));
+    VariableDeclarationStatement indexDecl =
+        new VariableDeclarationStatement(indexVariable, NumberLiteral.newIntLiteral(0));
+
+    ITypeBinding cmeType = GeneratedTypeBinding.newTypeBinding(
+        "java.util.ConcurrentModificationException",
+        Types.resolveJavaType("java.lang.RuntimeException"), false);
+    Block throwBlock = new Block();
+    throwBlock.getStatements().add(new ThrowStatement(
+        new ClassInstanceCreation(GeneratedMethodBinding.newConstructor(cmeType, 0))));
+    IfStatement modCountCheck = new IfStatement();
+    modCountCheck.setExpression(new InfixExpression(
+        booleanType, InfixExpression.Operator.NOT_EQUALS,
+        new FieldAccess(modCountField, new SimpleName(listVariable)),
+        new SimpleName(modCountVariable)));
+    modCountCheck.setThenStatement(throwBlock);
+
+    MethodInvocation getInvocation =
+        new MethodInvocation(getMethod, new SimpleName(listVariable));
+    getInvocation.getArguments().add(new SimpleName(indexVariable));
+
+    Block newLoopBody = makeBlock(loopBody.copy());
+    List<Statement> bodyStmts = newLoopBody.getStatements();
+    bodyStmts.add(0, modCountCheck);
+    bodyStmts.add(1, new VariableDeclarationStatement(loopVariable, getInvocation));
+
+    ForStatement loop = new ForStatement();
+    loop.setExpression(new InfixExpression(
+        booleanType, InfixExpression.Operator.LESS, new SimpleName(indexVariable),
+        new SimpleName(sizeVariable)));
+    loop.getUpdaters().add(
+        new PostfixExpression(indexVariable, PostfixExpression.Operator.INCREMENT));
+    loop.setBody(newLoopBody);
+
+    Block block = new Block();
+    List<Statement> stmts = block.getStatements();
+    stmts.add(listDecl);
+    stmts.add(sizeDecl);
+    stmts.add(modCountDecl);
+    stmts.add(indexDecl);
+    stmts.add(loop);
+
+    return block;
+  }
+
+  private static IVariableBinding findField(ITypeBinding type, String name) {
+    while (type != null) {
+      for (IVariableBinding field : type.getDeclaredFields()) {
+        if (field.getName().equals(name)) {
+          return field;
+        }
+      }
+      type = type.getSuperclass();
+    }
+    return null;
+  }
+
   private void boxLoopVariable(
       EnhancedForStatement node, ITypeBinding expressionType, IVariableBinding loopVariable) {
     ITypeBinding[] typeArgs = expressionType.getTypeArguments();
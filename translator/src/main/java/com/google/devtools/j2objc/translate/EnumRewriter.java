@@ -51,6 +51,9 @@ import java.util.List;
  */
 public class EnumRewriter extends TreeVisitor {
 
+  // Enums with more constants than this use a hash table for valueOf().
+  private static final int HASHED_VALUE_OF_THRESHOLD = 8;
+
   private GeneratedVariableBinding nameVar = null;
   private GeneratedVariableBinding ordinalVar = null;
 
@@ -156,14 +159,33 @@ public class EnumRewriter extends TreeVisitor {
         + "[IOSClass classWithClass:[%s class]]];\n"
         + "}\n\n", typeName, numConstants, typeName));
 
-    sb.append(String.format(
-        "+ (%s *)valueOfWithNSString:(NSString *)name {\n"
-        + "  for (int i = 0; i < %s; i++) {\n"
-        + "    %s *e = %s_values[i];\n"
-        + "    if ([name isEqual:[e name]]) {\n"
-        + "      return e;\n"
-        + "    }\n"
-        + "  }\n", typeName, numConstants, typeName, typeName));
+    if (numConstants > HASHED_VALUE_OF_THRESHOLD) {
+      // Look up larger enums' constants by name in a lazily built table.
+      sb.append(String.format(
+          "+ (%s *)valueOfWithNSString:(NSString *)name {\n"
+          + "  static NSDictionary *constantsByName;\n"
+          + "  static dispatch_once_t once;\n"
+          + "  dispatch_once(&once, ^{\n"
+          + "    NSMutableDictionary *map = [[NSMutableDictionary alloc] initWithCapacity:%s];\n"
+          + "    for (int i = 0; i < %s; i++) {\n"
+          + "      [map setObject:%s_values[i] forKey:[%s_values[i] name]];\n"
+          + "    }\n"
+          + "    constantsByName = map;\n"
+          + "  });\n"
+          + "  %s *e = [constantsByName objectForKey:name];\n"
+          + "  if (e) {\n"
+          + "    return e;\n"
+          + "  }\n", typeName, numConstants, numConstants, typeName, typeName, typeName));
+    } else {
+      sb.append(String.format(
+          "+ (%s *)valueOfWithNSString:(NSString *)name {\n"
+          + "  for (int i = 0; i < %s; i++) {\n"
+          + "    %s *e = %s_values[i];\n"
+          + "    if ([name isEqual:[e name]]) {\n"
+          + "      return e;\n"
+          + "    }\n"
+          + "  }\n", typeName, numConstants, typeName, typeName));
+    }
     if (Options.useReferenceCounting()) {
       sb.append(
           "  @throw [[[JavaLangIllegalArgumentException alloc] initWithNSString:name]"
@@ -16,6 +16,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.AnnotationTypeDeclaration;
 import com.google.devtools.j2objc.ast.Block;
@@ -46,6 +47,7 @@ import com.google.devtools.j2objc.types.GeneratedVariableBinding;
 import com.google.devtools.j2objc.types.IOSMethodBinding;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ClassHierarchyMap;
 import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.NameTable;
 
@@ -60,14 +62,16 @@ import java.util.Set;
 
 /**
  * Converts methods that don't need dynamic dispatch to C functions. This optimization
- * initially just targets private methods, but will be expanded to include final methods
- * that don't override superclass methods.
+ * targets private and final methods, plus, when translating with --closed-world,
+ * static methods and methods that no translated class overrides.
  *
  * @author Tom Ball
  */
 public class Functionizer extends TreeVisitor {
 
   private Set<IMethodBinding> functionizableMethods;
+  private final ClassHierarchyMap classHierarchy =
+      Options.closedWorld() ? Options.getClassHierarchyMap() : null;
 
   @Override
   public boolean visit(CompilationUnit node) {
@@ -77,7 +81,8 @@ public class Functionizer extends TreeVisitor {
 
   /**
    * Determines the set of methods to functionize. In addition to a method being
-   * final we must also find an invocation for that method.
+   * final we must also find an invocation for that method. Devirtualizable methods
+   * may be invoked from other compilation units, so they don't need a local invocation.
    */
   private Set<IMethodBinding> determineFunctionizableMethods(CompilationUnit unit) {
     final Set<IMethodBinding> functionizableDeclarations = Sets.newHashSet();
@@ -95,7 +100,24 @@ public class Functionizer extends TreeVisitor {
         invocations.add(node.getMethodBinding().getMethodDeclaration());
       }
     });
-    return Sets.intersection(functionizableDeclarations, invocations);
+    Set<IMethodBinding> result = Sets.newHashSet();
+    for (IMethodBinding m : functionizableDeclarations) {
+      if (invocations.contains(m) || isDevirtualizable(m)) {
+        result.add(m);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the class hierarchy shows that the method is never overridden,
+   * so its invocations can be statically dispatched. This includes the static
+   * methods of translated classes, which other units then call as functions
+   * instead of sending class messages.
+   */
+  private boolean isDevirtualizable(IMethodBinding m) {
+    return classHierarchy != null && !BindingUtil.isPrivate(m)
+        && classHierarchy.isDevirtualizable(m);
   }
 
   @Override
@@ -134,7 +156,7 @@ public class Functionizer extends TreeVisitor {
       return false;
     }
 
-    if (!BindingUtil.isPrivate(m) && !BindingUtil.isFinal(m)) {
+    if (!BindingUtil.isPrivate(m) && !BindingUtil.isFinal(m) && !isDevirtualizable(m)) {
       return false;
     }
 
@@ -156,9 +178,13 @@ public class Functionizer extends TreeVisitor {
   @Override
   public void endVisit(MethodInvocation node) {
     IMethodBinding binding = node.getMethodBinding().getMethodDeclaration();
-    if (!functionizableMethods.contains(binding)) {
+    boolean devirtualize = isDevirtualizable(binding);
+    if (!functionizableMethods.contains(binding) && !devirtualize) {
       return;
     }
+    if (devirtualize && !BindingUtil.isStatic(binding)) {
+      ErrorUtil.devirtualizedCallSite();
+    }
 
     IOSMethodBinding functionBinding = IOSMethodBinding.newFunction(
         binding, NameTable.makeFunctionName(binding), binding.getParameterTypes());
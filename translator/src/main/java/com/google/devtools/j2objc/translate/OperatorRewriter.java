@@ -14,36 +14,170 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.ClassInstanceCreation;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConstructorInvocation;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
 import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
 import com.google.devtools.j2objc.ast.NullLiteral;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.ThisExpression;
+import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TreeVisitor;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
 import com.google.devtools.j2objc.util.NameTable;
 
+import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Rewrites certain operators, such as object assignment, into appropriate
  * method calls.
  *
+ * With reference counting, stores of newly created objects don't autorelease
+ * them only to retain them again. A constructor's first store to one of its
+ * class's fields, whose old value is nil, becomes a plain assignment of the
+ * retained object, and other stores to fields of this object and to static
+ * variables transfer the object's ownership with JreOperatorTransferAssign().
+ *
  * @author Keith Stanger
  */
 public class OperatorRewriter extends TreeVisitor {
 
+  // Fields that may be assigned a value by code other than their class's
+  // constructors. Generated methods like copyAllFieldsTo: and dealloc, which
+  // can't run while an object is constructed, are ignored.
+  private final Set<IVariableBinding> fieldsAssignedOutsideConstructors = Sets.newHashSet();
+
+  // Assignments that store a new object as the first value of a field.
+  private final Set<Assignment> firstStores = Sets.newHashSet();
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    if (Options.useReferenceCounting()) {
+      node.accept(new TreeVisitor() {
+        @Override
+        public void endVisit(Assignment node) {
+          IVariableBinding var = TreeUtil.getVariableBinding(node.getLeftHandSide());
+          if (var != null && var.isField() && !(node.getRightHandSide() instanceof NullLiteral)
+              && !isInSyntheticMethod(node) && !isInConstructorOf(node, var.getDeclaringClass())) {
+            fieldsAssignedOutsideConstructors.add(var.getVariableDeclaration());
+          }
+        }
+      });
+    }
+    return true;
+  }
+
+  private static boolean isInSyntheticMethod(Assignment node) {
+    MethodDeclaration method = TreeUtil.getOwningMethod(node);
+    return method != null && BindingUtil.isSynthetic(method.getMethodBinding());
+  }
+
+  private static boolean isInConstructorOf(Assignment node, ITypeBinding type) {
+    MethodDeclaration method = TreeUtil.getOwningMethod(node);
+    if (method == null) {
+      return false;
+    }
+    IMethodBinding binding = method.getMethodBinding();
+    return binding.isConstructor()
+        && binding.getDeclaringClass().getTypeDeclaration().isEqualTo(type.getTypeDeclaration());
+  }
+
+  /**
+   * Finds the top-level statements of a constructor that store a new object
+   * in a field before any other code could have assigned it. Constructors
+   * that delegate to another constructor of their class are skipped.
+   */
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    if (!Options.useReferenceCounting() || !node.getMethodBinding().isConstructor()
+        || node.getBody() == null) {
+      return true;
+    }
+    List<Statement> stmts = node.getBody().getStatements();
+    if (!stmts.isEmpty() && stmts.get(0) instanceof ConstructorInvocation) {
+      return true;
+    }
+    ITypeBinding type = node.getMethodBinding().getDeclaringClass().getTypeDeclaration();
+    Set<IVariableBinding> assigned = Sets.newHashSet();
+    for (Statement stmt : stmts) {
+      if (stmt instanceof ExpressionStatement
+          && ((ExpressionStatement) stmt).getExpression() instanceof Assignment) {
+        Assignment assignment = (Assignment) ((ExpressionStatement) stmt).getExpression();
+        // The value is evaluated before it's stored.
+        addAssignedVariables(assignment.getRightHandSide(), assigned);
+        if (isFirstStore(assignment, type, assigned)) {
+          firstStores.add(assignment);
+        }
+      }
+      addAssignedVariables(stmt, assigned);
+    }
+    return true;
+  }
+
+  private static void addAssignedVariables(TreeNode node, final Set<IVariableBinding> assigned) {
+    node.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        IVariableBinding var = TreeUtil.getVariableBinding(node.getLeftHandSide());
+        if (var != null) {
+          assigned.add(var.getVariableDeclaration());
+        }
+      }
+    });
+  }
+
+  private boolean isFirstStore(Assignment node, ITypeBinding type, Set<IVariableBinding> assigned) {
+    Expression lhs = node.getLeftHandSide();
+    IVariableBinding var = TreeUtil.getVariableBinding(lhs);
+    if (node.getOperator() != Assignment.Operator.ASSIGN || var == null || !var.isField()
+        || var.getType().isPrimitive() || BindingUtil.isStatic(var)
+        || BindingUtil.isWeakReference(var)
+        || !(node.getRightHandSide() instanceof ClassInstanceCreation)) {
+      return false;
+    }
+    var = var.getVariableDeclaration();
+    // Only private and final fields can't be assigned by a subclass's method
+    // that's invoked by a superclass constructor.
+    int modifiers = var.getModifiers();
+    return (Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers))
+        && var.getDeclaringClass().getTypeDeclaration().isEqualTo(type)
+        && isThisTarget(lhs) && !assigned.contains(var)
+        && !fieldsAssignedOutsideConstructors.contains(var);
+  }
+
+  /**
+   * Returns true if a field expression refers to a field of this object.
+   */
+  private static boolean isThisTarget(Expression node) {
+    if (node instanceof SimpleName) {
+      return true;
+    } else if (node instanceof FieldAccess) {
+      Expression target = ((FieldAccess) node).getExpression();
+      return target instanceof ThisExpression && ((ThisExpression) target).getQualifier() == null;
+    }
+    return false;
+  }
+
   private static Expression getTarget(Expression node, IVariableBinding var) {
     if (node instanceof QualifiedName) {
       return ((QualifiedName) node).getQualifier();
@@ -65,11 +199,25 @@ public class OperatorRewriter extends TreeVisitor {
       if (var == null || var.getType().isPrimitive() || !Options.useReferenceCounting()) {
         return;
       }
-      if (BindingUtil.isStatic(var)) {
-        node.replaceWith(newStaticAssignInvocation(var, rhs));
+      if (firstStores.contains(node)) {
+        ((ClassInstanceCreation) rhs).setHasRetainedResult(true);
+        ErrorUtil.elidedRetain();
+      } else if (BindingUtil.isStatic(var)) {
+        if (rhs instanceof ClassInstanceCreation) {
+          node.replaceWith(newTransferAssignInvocation(
+              new SimpleName(var), new NullLiteral(), (ClassInstanceCreation) rhs));
+        } else {
+          node.replaceWith(newStaticAssignInvocation(var, rhs));
+        }
       } else if (var.isField() && !BindingUtil.isWeakReference(var)) {
         Expression target = getTarget(lhs, var);
-        node.replaceWith(newFieldSetterInvocation(var, target, rhs));
+        if (rhs instanceof ClassInstanceCreation && isThisTarget(lhs)
+            && isDeclaredByOwningType(node, var)) {
+          node.replaceWith(newTransferAssignInvocation(
+              lhs, target, (ClassInstanceCreation) rhs));
+        } else {
+          node.replaceWith(newFieldSetterInvocation(var, target, rhs));
+        }
       }
     } else if (op == Assignment.Operator.RIGHT_SHIFT_UNSIGNED_ASSIGN) {
       if (!lhsType.getName().equals("char")) {
@@ -109,6 +257,30 @@ public class OperatorRewriter extends TreeVisitor {
     return invocation;
   }
 
+  private static boolean isDeclaredByOwningType(Assignment node, IVariableBinding var) {
+    return TreeUtil.getOwningType(node).getTypeBinding().getTypeDeclaration().isEqualTo(
+        var.getDeclaringClass().getTypeDeclaration());
+  }
+
+  /**
+   * Returns a call that stores a new object, which is created with a retain
+   * count of one:
+   *   JreOperatorTransferAssign(&var, owner, [[Foo alloc] init])
+   */
+  private static FunctionInvocation newTransferAssignInvocation(
+      Expression var, Expression owner, ClassInstanceCreation value) {
+    FunctionInvocation invocation = new FunctionInvocation(
+        "JreOperatorTransferAssign", value.getTypeBinding(), Types.resolveIOSType("id"), null);
+    List<Expression> args = invocation.getArguments();
+    args.add(new PrefixExpression(PrefixExpression.Operator.ADDRESS_OF, var.copy()));
+    args.add(owner.copy());
+    ClassInstanceCreation retainedValue = value.copy();
+    retainedValue.setHasRetainedResult(true);
+    args.add(retainedValue);
+    ErrorUtil.elidedRetain();
+    return invocation;
+  }
+
   private static FunctionInvocation newFieldSetterInvocation(
       IVariableBinding var, Expression instance, Expression value) {
     ITypeBinding varType = var.getType();
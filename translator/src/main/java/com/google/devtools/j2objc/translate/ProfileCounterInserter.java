@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.ConstructorInvocation;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.NativeStatement;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.SuperConstructorInvocation;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.util.BindingUtil;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+
+import java.util.List;
+
+/**
+ * Adds profiling counters to the start of each method and constructor whose
+ * "com.foo.Bar#method" name matches the --profile-methods filter. The
+ * J2OBJC_PROFILE_METHOD macro counts the calls and time of the method, keyed
+ * by its class's binary name and its name and signature, so it runs before
+ * methods are renamed or converted into functions.
+ */
+public class ProfileCounterInserter extends TreeVisitor {
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    return Options.profileMethods();
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    IMethodBinding binding = node.getMethodBinding();
+    Block body = node.getBody();
+    if (body == null || BindingUtil.isSynthetic(binding)) {
+      return false;
+    }
+    String className = binding.getDeclaringClass().getErasure().getBinaryName();
+    String name = binding.isConstructor() ? "<init>" : binding.getName();
+    if (className == null || !Options.profileMethod(className + '#' + name)) {
+      return false;
+    }
+    List<Statement> stmts = body.getStatements();
+    // Enum constructors need to start with their constructor invocation.
+    int index = 0;
+    if (binding.getDeclaringClass().isEnum() && !stmts.isEmpty()
+        && (stmts.get(0) instanceof ConstructorInvocation
+            || stmts.get(0) instanceof SuperConstructorInvocation)) {
+      index = 1;
+    }
+    stmts.add(index, new NativeStatement(String.format("J2OBJC_PROFILE_METHOD(\"%s\", \"%s%s\");",
+        className, name, BindingUtil.getSignature(binding))));
+    return false;
+  }
+}
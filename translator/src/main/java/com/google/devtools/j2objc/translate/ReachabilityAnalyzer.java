@@ -0,0 +1,360 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+import com.google.devtools.j2objc.util.ReachabilityGraph;
+import com.google.j2objc.annotations.ObjectiveCName;
+
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adds the classes, methods and references of a compilation unit to the
+ * reachability graph used to find dead code without a ProGuard usage report.
+ * Main methods and members annotated with ObjectiveCName are entry points.
+ */
+public class ReachabilityAnalyzer extends ErrorReportingASTVisitor {
+
+  private static final Set<String> SERIALIZATION_METHODS = ImmutableSet.of(
+      "readObject", "readObjectNoData", "readResolve", "writeObject", "writeReplace");
+
+  private final ReachabilityGraph graph;
+
+  // The class or method that contains the code being visited.
+  private final Deque<String> owners = new ArrayDeque<String>();
+
+  public ReachabilityAnalyzer(ReachabilityGraph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public boolean visit(TypeDeclaration node) {
+    addType(node.resolveBinding(), node.bodyDeclarations(), !node.isInterface());
+    return true;
+  }
+
+  @Override
+  public void endVisit(TypeDeclaration node) {
+    owners.pop();
+  }
+
+  @Override
+  public boolean visit(EnumDeclaration node) {
+    // Enum constructors implicitly invoke java.lang.Enum's constructor.
+    addType(node.resolveBinding(), node.bodyDeclarations(), false);
+    return true;
+  }
+
+  @Override
+  public void endVisit(EnumDeclaration node) {
+    owners.pop();
+  }
+
+  @Override
+  public boolean visit(AnonymousClassDeclaration node) {
+    // The anonymous class's superclass constructor is added by its creation.
+    addType(node.resolveBinding(), node.bodyDeclarations(), false);
+    return true;
+  }
+
+  @Override
+  public void endVisit(AnonymousClassDeclaration node) {
+    owners.pop();
+  }
+
+  @Override
+  public boolean visit(AnnotationTypeDeclaration node) {
+    // Annotation types are never dead, so they aren't added to the graph.
+    return false;
+  }
+
+  @Override
+  public boolean visit(Javadoc node) {
+    return false;
+  }
+
+  private void addType(
+      ITypeBinding type, List<?> bodyDeclarations, boolean needsDefaultConstructor) {
+    String name = getClassName(type);
+    List<String> supertypes = Lists.newArrayList();
+    for (ITypeBinding supertype : BindingUtil.getAllInheritedTypes(type)) {
+      supertypes.add(getClassName(supertype));
+    }
+    graph.addClass(name, supertypes);
+    if (BindingUtil.hasAnnotation(type, ObjectiveCName.class)) {
+      graph.keepClass(name);
+    }
+    if (needsDefaultConstructor && !hasConstructor(bodyDeclarations)) {
+      addSuperConstructorReference(name, type);
+    }
+    if (!type.isInterface()) {
+      addInheritedImplementations(name, type);
+    }
+    owners.push(name);
+  }
+
+  /**
+   * Adds the inherited methods that implement methods of the interfaces a
+   * class adds to its superclass, when the class doesn't declare the
+   * implementation itself.
+   */
+  private void addInheritedImplementations(String name, ITypeBinding type) {
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass == null) {
+      return;
+    }
+    for (ITypeBinding supertype : BindingUtil.getAllInheritedTypes(type)) {
+      if (!supertype.isInterface()
+          || superclass.getErasure().isSubTypeCompatible(supertype.getErasure())) {
+        continue;
+      }
+      for (IMethodBinding interfaceMethod : supertype.getDeclaredMethods()) {
+        if (BindingUtil.isStatic(interfaceMethod)
+            || findImplementation(type, interfaceMethod) != null) {
+          continue;
+        }
+        for (ITypeBinding cls = superclass; cls != null; cls = cls.getSuperclass()) {
+          IMethodBinding implementation = findImplementation(cls, interfaceMethod);
+          if (implementation != null) {
+            graph.addInheritedImplementation(
+                name, getMethodKey(implementation), getMethodKey(interfaceMethod));
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  private static IMethodBinding findImplementation(
+      ITypeBinding type, IMethodBinding interfaceMethod) {
+    for (IMethodBinding method : type.getDeclaredMethods()) {
+      if (!method.isConstructor() && !BindingUtil.isStatic(method)
+          && method.getName().equals(interfaceMethod.getName())
+          && method.isSubsignature(interfaceMethod)) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private static boolean hasConstructor(List<?> bodyDeclarations) {
+    for (Object decl : bodyDeclarations) {
+      if (decl instanceof MethodDeclaration && ((MethodDeclaration) decl).isConstructor()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    IMethodBinding binding = node.resolveBinding();
+    String clazz = getClassName(binding.getDeclaringClass());
+    String key = getMethodKey(binding);
+    if (binding.isConstructor()) {
+      graph.addConstructor(
+          clazz, DeadCodeEliminator.getProGuardName(binding), BindingUtil.getSignature(binding));
+      if (node.getBody() != null && !hasConstructorInvocation(node)) {
+        addSuperConstructorReference(key, binding.getDeclaringClass());
+      }
+    } else {
+      graph.addMethod(clazz, binding.getName(), BindingUtil.getSignature(binding),
+          getOverriddenMethods(binding));
+    }
+    int modifiers = node.getModifiers();
+    if (isMainMethod(binding) || BindingUtil.hasAnnotation(binding, ObjectiveCName.class)) {
+      graph.addRoot(key);
+    }
+    if (SERIALIZATION_METHODS.contains(binding.getName())) {
+      graph.keepIfClassLive(key);
+    }
+    if (Modifier.isNative(modifiers)) {
+      // Native code may call any method of its class.
+      graph.keepAllMethods(clazz);
+    }
+    owners.push(key);
+    return true;
+  }
+
+  @Override
+  public void endVisit(MethodDeclaration node) {
+    owners.pop();
+  }
+
+  private static boolean hasConstructorInvocation(MethodDeclaration node) {
+    List<?> stmts = node.getBody().statements();
+    if (stmts.isEmpty()) {
+      return false;
+    }
+    Statement first = (Statement) stmts.get(0);
+    return first instanceof ConstructorInvocation || first instanceof SuperConstructorInvocation;
+  }
+
+  private static List<String> getOverriddenMethods(IMethodBinding method) {
+    List<String> result = Lists.newArrayList();
+    if (BindingUtil.isStatic(method)) {
+      return result;
+    }
+    for (ITypeBinding supertype : BindingUtil.getAllInheritedTypes(method.getDeclaringClass())) {
+      for (IMethodBinding superMethod : supertype.getDeclaredMethods()) {
+        if (method.overrides(superMethod)) {
+          result.add(getMethodKey(superMethod));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean isMainMethod(IMethodBinding method) {
+    int modifiers = method.getModifiers();
+    ITypeBinding[] params = method.getParameterTypes();
+    return method.getName().equals("main") && Modifier.isPublic(modifiers)
+        && Modifier.isStatic(modifiers) && params.length == 1 && params[0].isArray()
+        && params[0].getElementType().getQualifiedName().equals("java.lang.String");
+  }
+
+  /**
+   * Adds a reference to the no-argument constructor of a type's superclass,
+   * which constructors invoke implicitly.
+   */
+  private void addSuperConstructorReference(String owner, ITypeBinding type) {
+    ITypeBinding superclass = type.getSuperclass();
+    if (superclass == null) {
+      return;
+    }
+    for (IMethodBinding method : superclass.getDeclaredMethods()) {
+      if (method.isConstructor() && method.getParameterTypes().length == 0) {
+        graph.addReference(owner, getMethodKey(method));
+      }
+    }
+  }
+
+  @Override
+  public boolean visit(SimpleName node) {
+    if (owners.isEmpty()) {
+      return false;
+    }
+    IBinding binding = node.resolveBinding();
+    if (binding instanceof ITypeBinding) {
+      addReference(getClassName((ITypeBinding) binding));
+    } else if (binding instanceof IMethodBinding) {
+      addReference(getMethodKey((IMethodBinding) binding));
+    } else if (binding instanceof IVariableBinding) {
+      IVariableBinding var = (IVariableBinding) binding;
+      if (var.isField() && var.getDeclaringClass() != null) {
+        addReference(getClassName(var.getDeclaringClass()));
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(ClassInstanceCreation node) {
+    AnonymousClassDeclaration anonymousClass = node.getAnonymousClassDeclaration();
+    if (anonymousClass != null) {
+      // Conservatively keep every superclass constructor with the same number
+      // of arguments, since the anonymous class's constructor is implicit.
+      ITypeBinding type = anonymousClass.resolveBinding();
+      addReference(getClassName(type));
+      ITypeBinding superclass = type.getSuperclass();
+      int nArgs = node.arguments().size();
+      for (IMethodBinding method : superclass.getDeclaredMethods()) {
+        if (method.isConstructor() && method.getParameterTypes().length == nArgs) {
+          addReference(getMethodKey(method));
+        }
+      }
+    } else {
+      addReference(getMethodKey(node.resolveConstructorBinding()));
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visit(ConstructorInvocation node) {
+    addReference(getMethodKey(node.resolveConstructorBinding()));
+    return true;
+  }
+
+  @Override
+  public boolean visit(SuperConstructorInvocation node) {
+    addReference(getMethodKey(node.resolveConstructorBinding()));
+    return true;
+  }
+
+  @Override
+  public boolean visit(EnumConstantDeclaration node) {
+    addReference(getMethodKey(node.resolveConstructorBinding()));
+    AnonymousClassDeclaration anonymousClass = node.getAnonymousClassDeclaration();
+    if (anonymousClass != null) {
+      addReference(getClassName(anonymousClass.resolveBinding()));
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visit(StringLiteral node) {
+    if (!owners.isEmpty()) {
+      graph.addStringReference(owners.peek(), node.getLiteralValue());
+    }
+    return false;
+  }
+
+  private void addReference(String target) {
+    if (target != null) {
+      graph.addReference(owners.peek(), target);
+    }
+  }
+
+  private static String getClassName(ITypeBinding type) {
+    if (type.isArray()) {
+      type = type.getElementType();
+    }
+    if (type.isPrimitive() || type.isNullType()) {
+      return null;
+    }
+    return BindingUtil.getSignature(type.getErasure().getTypeDeclaration());
+  }
+
+  private static String getMethodKey(IMethodBinding method) {
+    method = method.getMethodDeclaration();
+    return ReachabilityGraph.methodKey(getClassName(method.getDeclaringClass()),
+        DeadCodeEliminator.getProGuardName(method), BindingUtil.getSignature(method));
+  }
+}
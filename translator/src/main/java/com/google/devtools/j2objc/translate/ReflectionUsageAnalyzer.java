@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorReportingASTVisitor;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.TypeLiteral;
+
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Finds the types of a compilation unit that may be inspected with
+ * reflection, so their metadata is kept when the metadata of other types
+ * is stripped. A type is reflective if:
+ * <ul>
+ * <li>it's named by a constant passed to Class.forName(),</li>
+ * <li>its class object, or one of a supertype, has a method called that
+ *     reads metadata, such as getDeclaredMethods() or getName(),</li>
+ * <li>it or one of its members has a runtime annotation, such as
+ *     javax.inject.Inject,</li>
+ * <li>it's serializable, since ObjectStreamClass reads its fields, or</li>
+ * <li>it's an annotation type.</li>
+ * </ul>
+ * Class objects whose type isn't known, such as a Class&lt;?&gt; parameter,
+ * can't be resolved; their classes need to be listed in a keep-list.
+ */
+public class ReflectionUsageAnalyzer extends ErrorReportingASTVisitor {
+
+  private static final Logger logger = Logger.getLogger(ReflectionUsageAnalyzer.class.getName());
+
+  // Methods of java.lang.Class that don't read reflection metadata.
+  private static final Set<String> NON_REFLECTIVE_CLASS_METHODS = ImmutableSet.of(
+      "asSubclass", "cast", "desiredAssertionStatus", "equals", "getClassLoader",
+      "getComponentType", "getInterfaces", "getResource", "getResourceAsStream",
+      "getSuperclass", "hashCode", "isArray", "isAssignableFrom", "isInstance", "isInterface",
+      "isPrimitive");
+
+  private final ReflectionUsageMap.Builder builder;
+
+  public ReflectionUsageAnalyzer(ReflectionUsageMap.Builder builder) {
+    this.builder = builder;
+  }
+
+  @Override
+  public boolean visit(TypeDeclaration node) {
+    addType(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(EnumDeclaration node) {
+    addType(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(AnonymousClassDeclaration node) {
+    addType(node.resolveBinding());
+    return true;
+  }
+
+  @Override
+  public boolean visit(AnnotationTypeDeclaration node) {
+    ITypeBinding type = node.resolveBinding();
+    addType(type);
+    builder.addReflectiveType(getName(type));
+    return true;
+  }
+
+  @Override
+  public boolean visit(Javadoc node) {
+    return false;
+  }
+
+  private void addType(ITypeBinding type) {
+    String name = getName(type);
+    if (name == null) {
+      return;
+    }
+    List<String> supertypes = Lists.newArrayList();
+    boolean serializable = false;
+    for (ITypeBinding supertype : BindingUtil.getAllInheritedTypes(type)) {
+      String supertypeName = getName(supertype);
+      supertypes.add(supertypeName);
+      serializable |= supertypeName.equals("java.io.Serializable");
+    }
+    builder.addType(name, supertypes);
+    if (serializable || hasRuntimeAnnotations(type)) {
+      builder.addReflectiveType(name);
+    }
+  }
+
+  private static boolean hasRuntimeAnnotations(ITypeBinding type) {
+    if (hasRuntimeAnnotation(type)) {
+      return true;
+    }
+    for (IMethodBinding method : type.getDeclaredMethods()) {
+      if (hasRuntimeAnnotation(method)) {
+        return true;
+      }
+    }
+    for (IVariableBinding field : type.getDeclaredFields()) {
+      if (hasRuntimeAnnotation(field)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasRuntimeAnnotation(IBinding binding) {
+    for (IAnnotationBinding annotation : binding.getAnnotations()) {
+      if (BindingUtil.isRuntimeAnnotation(annotation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean visit(MethodInvocation node) {
+    IMethodBinding method = node.resolveMethodBinding();
+    if (method == null
+        || !method.getDeclaringClass().getErasure().getQualifiedName().equals("java.lang.Class")) {
+      return true;
+    }
+    String name = method.getName();
+    if (name.equals("forName")) {
+      Expression arg = (Expression) node.arguments().get(0);
+      if (arg instanceof StringLiteral) {
+        builder.addReflectiveType(((StringLiteral) arg).getLiteralValue());
+      } else {
+        logger.fine("unresolved Class.forName() argument: " + arg);
+      }
+    } else if (!NON_REFLECTIVE_CLASS_METHODS.contains(name) && !BindingUtil.isStatic(method)) {
+      addClassObject(node.getExpression(), node);
+    }
+    return true;
+  }
+
+  /**
+   * Adds the types whose metadata may be read through a class object.
+   */
+  private void addClassObject(Expression expr, MethodInvocation node) {
+    while (expr instanceof ParenthesizedExpression) {
+      expr = ((ParenthesizedExpression) expr).getExpression();
+    }
+    if (expr instanceof TypeLiteral) {
+      ITypeBinding type = ((TypeLiteral) expr).getType().resolveBinding();
+      addReflectiveType(type.isArray() ? type.getElementType() : type);
+      return;
+    }
+    if (expr instanceof MethodInvocation && isGetClass((MethodInvocation) expr)) {
+      Expression receiver = ((MethodInvocation) expr).getExpression();
+      ITypeBinding type = receiver != null ? receiver.resolveTypeBinding()
+          : getEnclosingType(expr);
+      addReflectiveSupertype(type);
+      return;
+    }
+    // Use the type argument of a Class<T> or Class<? extends T> expression.
+    ITypeBinding classType = expr != null ? expr.resolveTypeBinding() : null;
+    ITypeBinding[] typeArgs =
+        classType != null ? classType.getTypeArguments() : new ITypeBinding[0];
+    if (typeArgs.length == 1) {
+      ITypeBinding typeArg = typeArgs[0];
+      if (typeArg.isCapture()) {
+        typeArg = typeArg.getWildcard();
+      }
+      if (typeArg.isWildcardType()) {
+        typeArg = typeArg.isUpperbound() ? typeArg.getBound() : null;
+      }
+      if (typeArg != null && typeArg.isTypeVariable()) {
+        ITypeBinding[] bounds = typeArg.getTypeBounds();
+        typeArg = bounds.length > 0 ? bounds[0] : null;
+      }
+      if (typeArg != null && !typeArg.getErasure().getQualifiedName().equals("java.lang.Object")) {
+        addReflectiveSupertype(typeArg);
+        return;
+      }
+    }
+    logger.fine("unresolved class object: " + node);
+  }
+
+  private static boolean isGetClass(MethodInvocation node) {
+    return node.getName().getIdentifier().equals("getClass") && node.arguments().isEmpty();
+  }
+
+  private static ITypeBinding getEnclosingType(ASTNode node) {
+    for (ASTNode n = node; n != null; n = n.getParent()) {
+      if (n instanceof AbstractTypeDeclaration) {
+        return ((AbstractTypeDeclaration) n).resolveBinding();
+      } else if (n instanceof AnonymousClassDeclaration) {
+        return ((AnonymousClassDeclaration) n).resolveBinding();
+      }
+    }
+    return null;
+  }
+
+  private void addReflectiveType(ITypeBinding type) {
+    String name = type != null ? getName(type) : null;
+    if (name != null) {
+      builder.addReflectiveType(name);
+    }
+  }
+
+  private void addReflectiveSupertype(ITypeBinding type) {
+    String name = type != null ? getName(type) : null;
+    if (name != null) {
+      builder.addReflectiveSupertype(name);
+    }
+  }
+
+  private static String getName(ITypeBinding type) {
+    if (type.isPrimitive() || type.isNullType() || type.isArray()) {
+      return null;
+    }
+    return type.getErasure().getTypeDeclaration().getBinaryName();
+  }
+}
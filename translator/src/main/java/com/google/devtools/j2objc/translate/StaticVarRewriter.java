@@ -14,19 +14,27 @@
 
 package com.google.devtools.j2objc.translate;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
 import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
 import com.google.devtools.j2objc.ast.FieldAccess;
 import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.InfixExpression;
 import com.google.devtools.j2objc.ast.Name;
 import com.google.devtools.j2objc.ast.PostfixExpression;
 import com.google.devtools.j2objc.ast.PrefixExpression;
 import com.google.devtools.j2objc.ast.QualifiedName;
 import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
 import com.google.devtools.j2objc.ast.SwitchCase;
 import com.google.devtools.j2objc.ast.TreeNode;
 import com.google.devtools.j2objc.ast.TreeUtil;
 import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationStatement;
 import com.google.devtools.j2objc.types.Types;
 import com.google.devtools.j2objc.util.BindingUtil;
 import com.google.devtools.j2objc.util.NameTable;
@@ -34,17 +42,117 @@ import com.google.devtools.j2objc.util.NameTable;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 
+import java.util.Deque;
+import java.util.Set;
+
 /**
  * Converts static variable access to static method calls where necessary.
+ * Accessors are only needed where the access may trigger initialization of
+ * the declaring class. Variables are accessed directly when the class must
+ * already be initialized: from the class itself or one of its subclasses, or
+ * after an earlier statement in an enclosing block has called an accessor of
+ * the same class.
  *
  * @author Keith Stanger
  */
 public class StaticVarRewriter extends TreeVisitor {
 
+  // The classes known to be initialized before each enclosing block's current statement.
+  private final Deque<Set<ITypeBinding>> initializedTypes = Lists.newLinkedList();
+
+  // The classes initialized by the current statement, when it is executed.
+  private final Set<ITypeBinding> pendingTypes = Sets.newHashSet();
+
   private boolean useAccessor(TreeNode currentNode, IVariableBinding var) {
-    return BindingUtil.isStatic(var) && !BindingUtil.isPrimitiveConstant(var)
-        && !TreeUtil.getOwningType(currentNode).getTypeBinding().getTypeDeclaration().isEqualTo(
-            var.getDeclaringClass().getTypeDeclaration());
+    if (!BindingUtil.isStatic(var) || BindingUtil.isPrimitiveConstant(var)) {
+      return false;
+    }
+    ITypeBinding declaringType = var.getDeclaringClass().getTypeDeclaration();
+    if (isInitialized(currentNode, declaringType)) {
+      return false;
+    }
+    if (isUnconditionallyEvaluated(currentNode)) {
+      pendingTypes.add(declaringType);
+    }
+    return true;
+  }
+
+  private boolean isInitialized(TreeNode currentNode, ITypeBinding type) {
+    // A class's superclasses are initialized before it is.
+    ITypeBinding owningType = TreeUtil.getOwningType(currentNode).getTypeBinding();
+    for (ITypeBinding t = owningType; t != null; t = t.getSuperclass()) {
+      if (t.getTypeDeclaration().isEqualTo(type)) {
+        return true;
+      }
+    }
+    return !initializedTypes.isEmpty() && initializedTypes.peek().contains(type);
+  }
+
+  /**
+   * Returns true if the node is always evaluated when its statement is
+   * executed, and that statement is part of a block.
+   */
+  private static boolean isUnconditionallyEvaluated(TreeNode node) {
+    TreeNode child = node;
+    TreeNode parent = node.getParent();
+    while (parent != null && !(parent instanceof Statement)) {
+      if (parent instanceof ConditionalExpression
+          && child != ((ConditionalExpression) parent).getExpression()) {
+        return false;
+      }
+      if (parent instanceof InfixExpression) {
+        InfixExpression infix = (InfixExpression) parent;
+        InfixExpression.Operator op = infix.getOperator();
+        if ((op == InfixExpression.Operator.CONDITIONAL_AND
+             || op == InfixExpression.Operator.CONDITIONAL_OR)
+            && child != infix.getLeftOperand()) {
+          return false;
+        }
+      }
+      child = parent;
+      parent = parent.getParent();
+    }
+    return (parent instanceof ExpressionStatement
+            || parent instanceof VariableDeclarationStatement)
+        && parent.getParent() instanceof Block;
+  }
+
+  @Override
+  public boolean visit(Block node) {
+    Set<ITypeBinding> types = Sets.newHashSet();
+    if (node.getParent() instanceof Statement && !initializedTypes.isEmpty()) {
+      types.addAll(initializedTypes.peek());
+    }
+    initializedTypes.push(types);
+    return true;
+  }
+
+  @Override
+  public void endVisit(Block node) {
+    initializedTypes.pop();
+  }
+
+  @Override
+  public void endVisit(ExpressionStatement node) {
+    endStatement(node);
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationStatement node) {
+    endStatement(node);
+  }
+
+  private void endStatement(Statement node) {
+    if (node.getParent() instanceof Block && !initializedTypes.isEmpty()) {
+      Set<ITypeBinding> types = initializedTypes.peek();
+      for (ITypeBinding type : pendingTypes) {
+        // Accessors initialize the class's superclasses too.
+        for (ITypeBinding t = type; t != null; t = t.getSuperclass()) {
+          types.add(t.getTypeDeclaration());
+        }
+      }
+    }
+    pendingTypes.clear();
   }
 
   @Override
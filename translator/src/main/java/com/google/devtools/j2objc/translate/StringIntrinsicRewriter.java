@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.CompilationUnit;
+import com.google.devtools.j2objc.ast.DoStatement;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.ExpressionStatement;
+import com.google.devtools.j2objc.ast.ForStatement;
+import com.google.devtools.j2objc.ast.FunctionInvocation;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NativeStatement;
+import com.google.devtools.j2objc.ast.NumberLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.SingleVariableDeclaration;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.ast.WhileStatement;
+import com.google.devtools.j2objc.types.GeneratedVariableBinding;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces invocations of frequently called String methods with calls of the
+ * C functions declared in NSString+JavaString.h, so that s.charAt(i) doesn't
+ * need a message send to the NSString category. Invocations whose receiver
+ * is a CharSequence or Object still call the category methods.
+ *
+ * Loops that read the characters of a local String variable with charAt()
+ * fetch them into a CFStringInlineBuffer, declared before the loop, which
+ * copies them a block at a time instead of one per call. The variable can't
+ * be assigned by the loop. Runs after NilCheckResolver, since the functions
+ * require a non-nil receiver.
+ */
+public class StringIntrinsicRewriter extends TreeVisitor {
+
+  // Keyed by the method's name and signature.
+  private static final Map<String, String> INTRINSICS = ImmutableMap.<String, String>builder()
+      .put("charAt(I)C", "NSString_charAt")
+      .put("equals(Ljava/lang/Object;)Z", "NSString_equals")
+      .put("indexOf(I)I", "NSString_indexOf")
+      .put("indexOf(II)I", "NSString_indexOf")
+      .put("isEmpty()Z", "NSString_isEmpty")
+      .put("length()I", "NSString_length")
+      .build();
+
+  private static final String CHAR_AT = "NSString_charAt";
+  private static final String LENGTH = "NSString_length";
+
+  @Override
+  public boolean visit(CompilationUnit node) {
+    return Options.stringIntrinsics();
+  }
+
+  @Override
+  public void endVisit(MethodInvocation node) {
+    IMethodBinding method = node.getMethodBinding();
+    Expression receiver = node.getExpression();
+    if (receiver == null || BindingUtil.isStatic(method)
+        || !Types.isJavaStringType(method.getDeclaringClass())) {
+      return;
+    }
+    String function = INTRINSICS.get(method.getName() + BindingUtil.getSignature(method));
+    if (function == null) {
+      return;
+    }
+    FunctionInvocation invocation = new FunctionInvocation(
+        function, node.getTypeBinding(), method.getReturnType(), method.getDeclaringClass());
+    List<Expression> args = invocation.getArguments();
+    args.add(receiver.copy());
+    TreeUtil.copyList(node.getArguments(), args);
+    if (method.getName().equals("indexOf") && args.size() == 2) {
+      args.add(NumberLiteral.newIntLiteral(0));
+    }
+    node.replaceWith(invocation);
+  }
+
+  @Override
+  public void endVisit(ForStatement node) {
+    bufferCharacters(node);
+  }
+
+  @Override
+  public void endVisit(WhileStatement node) {
+    bufferCharacters(node);
+  }
+
+  @Override
+  public void endVisit(DoStatement node) {
+    bufferCharacters(node);
+  }
+
+  /**
+   * Reads the characters of the String variables scanned by a loop from
+   * buffers, which are initialized in a block around the loop.
+   */
+  private void bufferCharacters(Statement loop) {
+    final Set<IVariableBinding> assigned = Sets.newHashSet();
+    final SetMultimap<IVariableBinding, FunctionInvocation> reads = LinkedHashMultimap.create();
+    final Set<IVariableBinding> scanned = Sets.newLinkedHashSet();
+    loop.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        IVariableBinding var = TreeUtil.getVariableBinding(node.getLeftHandSide());
+        if (var != null) {
+          assigned.add(var);
+        }
+      }
+
+      @Override
+      public void endVisit(VariableDeclarationFragment node) {
+        assigned.add(node.getVariableBinding());
+      }
+
+      @Override
+      public void endVisit(SingleVariableDeclaration node) {
+        assigned.add(node.getVariableBinding());
+      }
+
+      @Override
+      public void endVisit(FunctionInvocation node) {
+        String name = node.getName();
+        if (name.equals(CHAR_AT) || name.equals(LENGTH)) {
+          IVariableBinding var = getLocalVariable(node.getArguments().get(0));
+          if (var != null) {
+            reads.put(var, node);
+            if (name.equals(CHAR_AT)) {
+              scanned.add(var);
+            }
+          }
+        }
+      }
+    });
+    scanned.removeAll(assigned);
+    if (scanned.isEmpty()) {
+      return;
+    }
+
+    Block block = new Block();
+    loop.replaceWith(block);
+    List<Statement> stmts = block.getStatements();
+    ITypeBinding voidType = Types.resolveJavaType("void");
+    ITypeBinding stringType = Types.resolveJavaType("java.lang.String");
+    for (IVariableBinding var : scanned) {
+      GeneratedVariableBinding buffer = new GeneratedVariableBinding(
+          var.getName() + "Chars__", 0, Types.resolveIOSType("id"), false, false, null, null);
+      stmts.add(new NativeStatement("CFStringInlineBuffer " + buffer.getName() + ";"));
+      FunctionInvocation init = new FunctionInvocation(
+          "NSString_initCharBuffer", voidType, voidType, stringType);
+      init.getArguments().add(new SimpleName(var));
+      init.getArguments().add(addressOf(buffer));
+      stmts.add(new ExpressionStatement(init));
+
+      for (FunctionInvocation read : reads.get(var)) {
+        boolean isCharAt = read.getName().equals(CHAR_AT);
+        FunctionInvocation bufferRead = new FunctionInvocation(
+            isCharAt ? "NSString_charAtFromBuffer" : "NSString_charBufferLength",
+            read.getTypeBinding(), read.getDeclaredReturnType(), stringType);
+        bufferRead.getArguments().add(addressOf(buffer));
+        if (isCharAt) {
+          // Moved rather than copied, since it may contain other reads.
+          bufferRead.getArguments().add(TreeUtil.remove(read.getArguments().get(1)));
+        }
+        read.replaceWith(bufferRead);
+      }
+    }
+    stmts.add(loop);
+  }
+
+  private static Expression addressOf(IVariableBinding var) {
+    return new PrefixExpression(PrefixExpression.Operator.ADDRESS_OF, new SimpleName(var));
+  }
+
+  /**
+   * Returns the local String variable or parameter that an expression reads,
+   * if any, including one wrapped in a nil_chk() call.
+   */
+  private static IVariableBinding getLocalVariable(Expression expr) {
+    while (true) {
+      if (expr instanceof ParenthesizedExpression) {
+        expr = ((ParenthesizedExpression) expr).getExpression();
+      } else if (expr instanceof FunctionInvocation
+          && ((FunctionInvocation) expr).getName().equals("nil_chk")) {
+        expr = ((FunctionInvocation) expr).getArguments().get(0);
+      } else {
+        break;
+      }
+    }
+    if (!(expr instanceof SimpleName)) {
+      return null;
+    }
+    IVariableBinding var = TreeUtil.getVariableBinding(expr);
+    return var != null && !var.isField() && Types.isJavaStringType(var.getType()) ? var : null;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
+import com.google.devtools.j2objc.ast.Block;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.SimpleName;
+import com.google.devtools.j2objc.ast.Statement;
+import com.google.devtools.j2objc.ast.SynchronizedStatement;
+import com.google.devtools.j2objc.ast.ThisExpression;
+import com.google.devtools.j2objc.ast.TreeNode;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.TypeLiteral;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+
+import java.util.List;
+
+/**
+ * Merges adjacent synchronized statements that lock the same object, so its
+ * monitor is only acquired once, and removes synchronized statements that
+ * lock a monitor already held by an enclosing synchronized statement or
+ * synchronized instance method. Synchronized statements are still generated
+ * as @synchronized blocks, which release the monitor when an exception is
+ * thrown.
+ */
+public class SynchronizedRewriter extends TreeVisitor {
+
+  @Override
+  public boolean visit(Block node) {
+    List<Statement> stmts = node.getStatements();
+    for (int i = stmts.size() - 1; i > 0; i--) {
+      Statement stmt = stmts.get(i);
+      Statement previous = stmts.get(i - 1);
+      if (stmt instanceof SynchronizedStatement && previous instanceof SynchronizedStatement
+          && isSameLock(((SynchronizedStatement) previous).getExpression(),
+                        ((SynchronizedStatement) stmt).getExpression())) {
+        // Keep each body in its own block, so their local variables don't clash.
+        Block body = ((SynchronizedStatement) stmt).getBody();
+        List<Statement> previousBody = ((SynchronizedStatement) previous).getBody().getStatements();
+        if (!previousBody.isEmpty() && !(previousBody.size() == 1
+            && previousBody.get(0) instanceof Block)) {
+          Block firstBody = new Block();
+          TreeUtil.moveList(previousBody, firstBody.getStatements());
+          previousBody.add(firstBody);
+        }
+        previousBody.add(TreeUtil.remove(body));
+        stmts.remove(i);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void endVisit(SynchronizedStatement node) {
+    if (isHeld(node)) {
+      // Monitors are reentrant, so the body just runs in a block.
+      node.replaceWith(TreeUtil.remove(node.getBody()));
+    }
+  }
+
+  /**
+   * Returns true if the lock of a synchronized statement is already held by
+   * the synchronized statement or method that encloses it.
+   */
+  private static boolean isHeld(SynchronizedStatement node) {
+    Expression lock = node.getExpression();
+    for (TreeNode n = node.getParent(); n != null; n = n.getParent()) {
+      if (n instanceof SynchronizedStatement
+          && isSameLock(((SynchronizedStatement) n).getExpression(), lock)) {
+        return true;
+      }
+      if (n instanceof MethodDeclaration) {
+        int modifiers = ((MethodDeclaration) n).getModifiers();
+        return Modifier.isSynchronized(modifiers) && !Modifier.isStatic(modifiers)
+            && lock instanceof ThisExpression && ((ThisExpression) lock).getQualifier() == null;
+      }
+      if (n instanceof AbstractTypeDeclaration) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if both expressions always evaluate to the same object,
+   * without side effects.
+   */
+  private static boolean isSameLock(Expression first, Expression second) {
+    if (first instanceof ThisExpression && second instanceof ThisExpression) {
+      return ((ThisExpression) first).getQualifier() == null
+          && ((ThisExpression) second).getQualifier() == null;
+    }
+    if (first instanceof TypeLiteral && second instanceof TypeLiteral) {
+      return ((TypeLiteral) first).getType().getTypeBinding().isEqualTo(
+          ((TypeLiteral) second).getType().getTypeBinding());
+    }
+    if (first instanceof SimpleName && second instanceof SimpleName) {
+      IBinding binding = ((SimpleName) first).getBinding();
+      return binding instanceof IVariableBinding && binding == ((SimpleName) second).getBinding()
+          && Modifier.isFinal(binding.getModifiers());
+    }
+    return false;
+  }
+}
@@ -0,0 +1,339 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.devtools.j2objc.ast.Assignment;
+import com.google.devtools.j2objc.ast.CastExpression;
+import com.google.devtools.j2objc.ast.CharacterLiteral;
+import com.google.devtools.j2objc.ast.ConditionalExpression;
+import com.google.devtools.j2objc.ast.Expression;
+import com.google.devtools.j2objc.ast.InfixExpression;
+import com.google.devtools.j2objc.ast.MethodDeclaration;
+import com.google.devtools.j2objc.ast.MethodInvocation;
+import com.google.devtools.j2objc.ast.NumberLiteral;
+import com.google.devtools.j2objc.ast.ParenthesizedExpression;
+import com.google.devtools.j2objc.ast.PostfixExpression;
+import com.google.devtools.j2objc.ast.PrefixExpression;
+import com.google.devtools.j2objc.ast.TreeUtil;
+import com.google.devtools.j2objc.ast.TreeVisitor;
+import com.google.devtools.j2objc.ast.VariableDeclarationFragment;
+import com.google.devtools.j2objc.types.Types;
+import com.google.devtools.j2objc.util.BindingUtil;
+import com.google.devtools.j2objc.util.ErrorUtil;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes the NaN and overflow handling from floating point to integral
+ * conversions whose operand is known to be a number in the range of the
+ * result type, so they are translated as plain C casts instead of calls of
+ * J2ObjCFpToInt() and friends. Ranges are computed from literals, constants,
+ * integral values, arithmetic, a few java.lang.Math methods, and the
+ * initializers of local variables that are never reassigned.
+ */
+public class ValueRangeAnalyzer extends TreeVisitor {
+
+  private static final Map<String, Range> PRIMITIVE_RANGES = ImmutableMap.of(
+      "byte", new Range(Byte.MIN_VALUE, Byte.MAX_VALUE),
+      "char", new Range(Character.MIN_VALUE, Character.MAX_VALUE),
+      "short", new Range(Short.MIN_VALUE, Short.MAX_VALUE),
+      "int", new Range(Integer.MIN_VALUE, Integer.MAX_VALUE),
+      "long", new Range(Long.MIN_VALUE, Long.MAX_VALUE));
+
+  private Set<IVariableBinding> reassignedVars = Sets.newHashSet();
+  // The ranges of the initializers of locals that aren't reassigned.
+  private final Map<IVariableBinding, Range> localRanges = Maps.newHashMap();
+
+  /**
+   * A closed interval of numbers; a null Range is unknown, and may be NaN.
+   */
+  private static class Range {
+    final double lo;
+    final double hi;
+
+    Range(double lo, double hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    static Range of(double... values) {
+      double lo = Double.POSITIVE_INFINITY;
+      double hi = Double.NEGATIVE_INFINITY;
+      for (double value : values) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+          return null;
+        }
+        lo = Math.min(lo, value);
+        hi = Math.max(hi, value);
+      }
+      return new Range(lo, hi);
+    }
+
+    boolean contains(double value) {
+      return lo <= value && value <= hi;
+    }
+  }
+
+  @Override
+  public boolean visit(MethodDeclaration node) {
+    if (node.getBody() != null) {
+      reassignedVars = findReassignedVariables(node);
+      node.getBody().accept(this);
+      reassignedVars = Sets.newHashSet();
+      localRanges.clear();
+    }
+    return false;
+  }
+
+  private static Set<IVariableBinding> findReassignedVariables(MethodDeclaration method) {
+    final Set<IVariableBinding> vars = Sets.newHashSet();
+    method.accept(new TreeVisitor() {
+      @Override
+      public void endVisit(Assignment node) {
+        addVariable(node.getLeftHandSide());
+      }
+
+      @Override
+      public void endVisit(PostfixExpression node) {
+        addVariable(node.getOperand());
+      }
+
+      @Override
+      public void endVisit(PrefixExpression node) {
+        PrefixExpression.Operator op = node.getOperator();
+        if (op == PrefixExpression.Operator.INCREMENT
+            || op == PrefixExpression.Operator.DECREMENT) {
+          addVariable(node.getOperand());
+        }
+      }
+
+      private void addVariable(Expression expr) {
+        IVariableBinding var = TreeUtil.getVariableBinding(expr);
+        if (var != null) {
+          vars.add(var);
+        }
+      }
+    });
+    return vars;
+  }
+
+  @Override
+  public void endVisit(VariableDeclarationFragment node) {
+    IVariableBinding var = node.getVariableBinding();
+    Expression initializer = node.getInitializer();
+    if (initializer != null && !var.isField() && !reassignedVars.contains(var)) {
+      Range range = getRange(initializer);
+      if (range != null) {
+        localRanges.put(var, range);
+      }
+    }
+  }
+
+  @Override
+  public void endVisit(CastExpression node) {
+    ITypeBinding type = node.getTypeBinding();
+    if (!type.isPrimitive() || !Types.isFloatingPointType(node.getExpression().getTypeBinding())) {
+      return;
+    }
+    Range typeRange = PRIMITIVE_RANGES.get(type.getName());
+    Range range = getRange(node.getExpression());
+    // C truncates toward zero, and the result must fit in the type.
+    if (typeRange != null && range != null
+        && range.lo > typeRange.lo - 1 && range.hi < typeRange.hi + 1) {
+      node.setNeedsCastCheck(false);
+      ErrorUtil.removedConversionCheck();
+    }
+  }
+
+  /**
+   * Returns the range of values an expression can evaluate to, or null if
+   * it's unknown.
+   */
+  private Range getRange(Expression expr) {
+    ITypeBinding type = expr.getTypeBinding();
+    if (type == null || !type.isPrimitive()) {
+      return null;
+    }
+    if (expr instanceof NumberLiteral) {
+      return Range.of(((NumberLiteral) expr).getValue().doubleValue());
+    } else if (expr instanceof PrefixExpression
+        && ((PrefixExpression) expr).getOperator() == PrefixExpression.Operator.MINUS
+        && ((PrefixExpression) expr).getOperand() instanceof NumberLiteral) {
+      return Range.of(-((NumberLiteral) ((PrefixExpression) expr).getOperand()).getValue()
+          .doubleValue());
+    } else if (expr instanceof CharacterLiteral) {
+      return Range.of(((CharacterLiteral) expr).charValue());
+    }
+    Range typeRange = PRIMITIVE_RANGES.get(type.getName());
+    if (typeRange != null) {
+      return typeRange;
+    }
+    Range range = getFloatingPointRange(expr);
+    return isFloat(type) ? roundToFloat(range) : range;
+  }
+
+  private static boolean isFloat(ITypeBinding type) {
+    return type.getName().equals("float");
+  }
+
+  /**
+   * Widens a range to cover rounding to float, or returns null if the
+   * rounded values may overflow to infinity.
+   */
+  private static Range roundToFloat(Range range) {
+    if (range == null) {
+      return null;
+    }
+    return Range.of(Math.nextAfter((float) range.lo, Double.NEGATIVE_INFINITY),
+        Math.nextUp((float) range.hi));
+  }
+
+  private Range getFloatingPointRange(Expression expr) {
+    switch (expr.getKind()) {
+      case PARENTHESIZED_EXPRESSION:
+        return getRange(((ParenthesizedExpression) expr).getExpression());
+      case CAST_EXPRESSION:
+        return getRange(((CastExpression) expr).getExpression());
+      case SIMPLE_NAME:
+        IVariableBinding var = TreeUtil.getVariableBinding(expr);
+        if (var == null) {
+          return null;
+        } else if (var.getConstantValue() instanceof Number) {
+          return Range.of(((Number) var.getConstantValue()).doubleValue());
+        }
+        return localRanges.get(var);
+      case CONDITIONAL_EXPRESSION:
+        ConditionalExpression conditional = (ConditionalExpression) expr;
+        Range thenRange = getRange(conditional.getThenExpression());
+        Range elseRange = getRange(conditional.getElseExpression());
+        return thenRange != null && elseRange != null
+            ? Range.of(thenRange.lo, thenRange.hi, elseRange.lo, elseRange.hi) : null;
+      case PREFIX_EXPRESSION:
+        PrefixExpression prefix = (PrefixExpression) expr;
+        Range operand = getRange(prefix.getOperand());
+        if (operand == null) {
+          return null;
+        } else if (prefix.getOperator() == PrefixExpression.Operator.MINUS) {
+          return Range.of(-operand.hi, -operand.lo);
+        } else if (prefix.getOperator() == PrefixExpression.Operator.PLUS) {
+          return operand;
+        }
+        return null;
+      case INFIX_EXPRESSION:
+        return getInfixRange((InfixExpression) expr);
+      case METHOD_INVOCATION:
+        return getMathRange((MethodInvocation) expr);
+      default:
+        return null;
+    }
+  }
+
+  private Range getInfixRange(InfixExpression node) {
+    List<Expression> operands = Lists.newArrayList(node.getLeftOperand(), node.getRightOperand());
+    operands.addAll(node.getExtendedOperands());
+    // Float arithmetic is rounded after each operation, so an intermediate
+    // result can overflow even if the final one wouldn't in double.
+    boolean isFloat = isFloat(node.getTypeBinding());
+    Range result = getOperandRange(operands.get(0), isFloat);
+    for (int i = 1; i < operands.size() && result != null; i++) {
+      Range operand = getOperandRange(operands.get(i), isFloat);
+      if (operand == null) {
+        return null;
+      }
+      switch (node.getOperator()) {
+        case PLUS:
+          result = Range.of(result.lo + operand.lo, result.hi + operand.hi);
+          break;
+        case MINUS:
+          result = Range.of(result.lo - operand.hi, result.hi - operand.lo);
+          break;
+        case TIMES:
+          result = Range.of(result.lo * operand.lo, result.lo * operand.hi,
+              result.hi * operand.lo, result.hi * operand.hi);
+          break;
+        case DIVIDE:
+          if (operand.contains(0)) {
+            return null;
+          }
+          result = Range.of(result.lo / operand.lo, result.lo / operand.hi,
+              result.hi / operand.lo, result.hi / operand.hi);
+          break;
+        case REMAINDER:
+          if (operand.contains(0)) {
+            return null;
+          }
+          // The result has the dividend's sign and is no larger.
+          result = Range.of(Math.min(result.lo, 0), Math.max(result.hi, 0));
+          break;
+        default:
+          return null;
+      }
+      if (isFloat) {
+        result = roundToFloat(result);
+      }
+    }
+    return result;
+  }
+
+  private Range getOperandRange(Expression operand, boolean isFloat) {
+    Range range = getRange(operand);
+    return isFloat ? roundToFloat(range) : range;
+  }
+
+  private Range getMathRange(MethodInvocation node) {
+    IMethodBinding method = node.getMethodBinding();
+    if (!BindingUtil.isStatic(method)
+        || !method.getDeclaringClass().getQualifiedName().equals("java.lang.Math")) {
+      return null;
+    }
+    String name = method.getName();
+    List<Expression> args = node.getArguments();
+    if (name.equals("random")) {
+      return Range.of(0, 1);
+    }
+    Range arg = args.size() > 0 ? getRange(args.get(0)) : null;
+    if (arg == null) {
+      return null;
+    }
+    if (name.equals("sin") || name.equals("cos")) {
+      return Range.of(-1, 1);
+    } else if (name.equals("floor") || name.equals("ceil") || name.equals("rint")) {
+      return Range.of(Math.floor(arg.lo), Math.ceil(arg.hi));
+    } else if (name.equals("abs")) {
+      return arg.contains(0) ? Range.of(0, -arg.lo, arg.hi)
+          : Range.of(Math.abs(arg.lo), Math.abs(arg.hi));
+    } else if (name.equals("sqrt") && arg.lo >= 0) {
+      return Range.of(Math.sqrt(arg.lo), Math.sqrt(arg.hi));
+    } else if ((name.equals("min") || name.equals("max")) && args.size() == 2) {
+      Range arg2 = getRange(args.get(1));
+      if (arg2 == null) {
+        return null;
+      }
+      return name.equals("min") ? Range.of(Math.min(arg.lo, arg2.lo), Math.min(arg.hi, arg2.hi))
+          : Range.of(Math.max(arg.lo, arg2.lo), Math.max(arg.hi, arg2.hi));
+    }
+    return null;
+  }
+}
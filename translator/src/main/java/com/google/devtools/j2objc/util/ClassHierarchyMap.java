@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+
+import java.util.Set;
+
+/**
+ * Records which methods are never overridden by any class in a closed-world
+ * translation, so invocations of them can be statically dispatched.
+ */
+public class ClassHierarchyMap {
+
+  public static class Builder {
+    private final Set<String> declaredMethods = Sets.newHashSet();
+    private final Set<String> overriddenMethods = Sets.newHashSet();
+    private final Set<String> invokedMethods = Sets.newHashSet();
+
+    public ClassHierarchyMap build() {
+      Set<String> devirtualizable = Sets.newHashSet(declaredMethods);
+      devirtualizable.retainAll(invokedMethods);
+      devirtualizable.removeAll(overriddenMethods);
+      return new ClassHierarchyMap(ImmutableSet.copyOf(devirtualizable));
+    }
+
+    /**
+     * Adds a method that is a candidate for static dispatch.
+     */
+    public Builder addDeclaredMethod(String clazz, String name, String signature) {
+      declaredMethods.add(methodKey(clazz, name, signature));
+      return this;
+    }
+
+    public Builder addOverriddenMethod(String clazz, String name, String signature) {
+      overriddenMethods.add(methodKey(clazz, name, signature));
+      return this;
+    }
+
+    public Builder addInvokedMethod(String clazz, String name, String signature) {
+      invokedMethods.add(methodKey(clazz, name, signature));
+      return this;
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final ImmutableSet<String> devirtualizableMethods;
+
+  private ClassHierarchyMap(ImmutableSet<String> devirtualizableMethods) {
+    this.devirtualizableMethods = devirtualizableMethods;
+  }
+
+  private static String methodKey(String clazz, String name, String signature) {
+    return clazz + '.' + name + signature;
+  }
+
+  public boolean isDevirtualizable(String clazz, String name, String signature) {
+    return devirtualizableMethods.contains(methodKey(clazz, name, signature));
+  }
+
+  /**
+   * Returns true if the method is declared by a translated class, is invoked,
+   * and is not overridden by any translated class.
+   */
+  public boolean isDevirtualizable(IMethodBinding method) {
+    method = method.getMethodDeclaration();
+    return isDevirtualizable(method.getDeclaringClass().getTypeDeclaration().getBinaryName(),
+        method.getName(), BindingUtil.getSignature(method));
+  }
+
+  public boolean isEmpty() {
+    return devirtualizableMethods.isEmpty();
+  }
+}
@@ -35,6 +35,17 @@ public class ErrorUtil {
   private static int errorCount = 0;
   private static int warningCount = 0;
   private static int functionizedMethodCount = 0;
+  private static int devirtualizedCallSiteCount = 0;
+  private static int removedCastCheckCount = 0;
+  private static int removedConversionCheckCount = 0;
+  private static int sharedAnonymousClassInstanceCount = 0;
+  private static int prunedDeadCodeLength = 0;
+  private static int insertedAutoreleasePoolCount = 0;
+  private static int unreachableClassCount = 0;
+  private static int savedIvarPaddingBytes = 0;
+  private static int unreachableMethodCount = 0;
+  private static int strippedMetadataCount = 0;
+  private static int elidedRetainCount = 0;
   private static String currentFileName = null;
   private static PrintStream errorStream = System.err;
   private static List<String> errorMessages = Lists.newArrayList();
@@ -42,6 +53,18 @@ public class ErrorUtil {
   public static void reset() {
     errorCount = 0;
     warningCount = 0;
+    functionizedMethodCount = 0;
+    devirtualizedCallSiteCount = 0;
+    removedCastCheckCount = 0;
+    removedConversionCheckCount = 0;
+    sharedAnonymousClassInstanceCount = 0;
+    prunedDeadCodeLength = 0;
+    insertedAutoreleasePoolCount = 0;
+    unreachableClassCount = 0;
+    savedIvarPaddingBytes = 0;
+    unreachableMethodCount = 0;
+    strippedMetadataCount = 0;
+    elidedRetainCount = 0;
     currentFileName = null;
     errorMessages = Lists.newArrayList();
   }
@@ -72,13 +95,13 @@ public class ErrorUtil {
     });
   }
 
-  public static void error(String message) {
+  public static synchronized void error(String message) {
     errorMessages.add(message);
     errorStream.println("error: " + message);
     errorCount++;
   }
 
-  public static void warning(String message) {
+  public static synchronized void warning(String message) {
     errorStream.println("warning: " + message);
     warningCount++;
   }
@@ -119,4 +142,92 @@ public class ErrorUtil {
   public static int functionizedMethodCount() {
     return functionizedMethodCount;
   }
+
+  public static void devirtualizedCallSite() {
+    ++devirtualizedCallSiteCount;
+  }
+
+  public static int devirtualizedCallSiteCount() {
+    return devirtualizedCallSiteCount;
+  }
+
+  public static void removedCastCheck() {
+    ++removedCastCheckCount;
+  }
+
+  public static int removedCastCheckCount() {
+    return removedCastCheckCount;
+  }
+
+  public static void removedConversionCheck() {
+    ++removedConversionCheckCount;
+  }
+
+  public static int removedConversionCheckCount() {
+    return removedConversionCheckCount;
+  }
+
+  public static void sharedAnonymousClassInstance() {
+    ++sharedAnonymousClassInstanceCount;
+  }
+
+  public static int sharedAnonymousClassInstanceCount() {
+    return sharedAnonymousClassInstanceCount;
+  }
+
+  public static void prunedDeadCode(int length) {
+    prunedDeadCodeLength += length;
+  }
+
+  public static int prunedDeadCodeLength() {
+    return prunedDeadCodeLength;
+  }
+
+  public static void insertedAutoreleasePool() {
+    ++insertedAutoreleasePoolCount;
+  }
+
+  public static int insertedAutoreleasePoolCount() {
+    return insertedAutoreleasePoolCount;
+  }
+
+  public static void unreachableClass() {
+    ++unreachableClassCount;
+  }
+
+  public static int unreachableClassCount() {
+    return unreachableClassCount;
+  }
+
+  public static void unreachableMethod() {
+    ++unreachableMethodCount;
+  }
+
+  public static int unreachableMethodCount() {
+    return unreachableMethodCount;
+  }
+
+  public static synchronized void strippedMetadata() {
+    ++strippedMetadataCount;
+  }
+
+  public static int strippedMetadataCount() {
+    return strippedMetadataCount;
+  }
+
+  public static void elidedRetain() {
+    ++elidedRetainCount;
+  }
+
+  public static int elidedRetainCount() {
+    return elidedRetainCount;
+  }
+
+  public static synchronized void savedIvarPadding(int bytes) {
+    savedIvarPaddingBytes += bytes;
+  }
+
+  public static int savedIvarPaddingBytes() {
+    return savedIvarPaddingBytes;
+  }
 }
@@ -0,0 +1,343 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The classes, methods and references of a whole translation, used to find
+ * the code that can't be reached from any entry point.
+ *
+ * Classes are keyed by their binary name, and methods by their class, name
+ * and signature, using the same names as the ProGuard usage reports read into
+ * a DeadCodeMap. A method is live if a live class or method invokes it or a
+ * method it overrides. Methods that override a method of a class that isn't
+ * part of the translation are live whenever their class is, since library
+ * code may call them. A method that implements an interface method only
+ * because a subclass inherits it is treated as overriding that interface
+ * method while the subclass is live.
+ */
+public class ReachabilityGraph {
+
+  private static class ClassInfo {
+    private final String name;
+    private final Set<String> supertypes;
+    private final List<MethodInfo> methods = Lists.newArrayList();
+    private final List<InheritedImplementation> inheritedImplementations = Lists.newArrayList();
+    private boolean keepAllMethods = false;
+
+    private ClassInfo(String name, Collection<String> supertypes) {
+      this.name = name;
+      this.supertypes = Sets.newHashSet(supertypes);
+    }
+  }
+
+  private static class MethodInfo {
+    private final String clazz;
+    private final String name;
+    private final String signature;
+    private final String key;
+    private final Set<String> overriddenMethods;
+    private final boolean isConstructor;
+
+    private MethodInfo(String clazz, String name, String signature,
+        Collection<String> overriddenMethods, boolean isConstructor) {
+      this.clazz = clazz;
+      this.name = name;
+      this.signature = signature;
+      this.key = methodKey(clazz, name, signature);
+      this.overriddenMethods = Sets.newHashSet(overriddenMethods);
+      this.isConstructor = isConstructor;
+    }
+  }
+
+  /**
+   * An inherited method that implements an interface method for a class,
+   * such as Base.run() in "class Task extends Base implements Runnable {}".
+   */
+  private static class InheritedImplementation {
+    private final String clazz;
+    private final String method;
+    private final String interfaceMethod;
+
+    private InheritedImplementation(String clazz, String method, String interfaceMethod) {
+      this.clazz = clazz;
+      this.method = method;
+      this.interfaceMethod = interfaceMethod;
+    }
+  }
+
+  private final Map<String, ClassInfo> classes = Maps.newHashMap();
+  private final SetMultimap<String, MethodInfo> overriders = HashMultimap.create();
+  private final SetMultimap<String, InheritedImplementation> implementers =
+      HashMultimap.create();
+  private final SetMultimap<String, String> references = HashMultimap.create();
+  private final SetMultimap<String, String> stringReferences = HashMultimap.create();
+  private final Set<String> roots = Sets.newHashSet();
+  private final Set<String> keptIfClassLive = Sets.newHashSet();
+  private final Set<String> keptClasses = Sets.newHashSet();
+  private final SetMultimap<String, String> keptMethodNames = HashMultimap.create();
+  private final Set<String> reached = Sets.newHashSet();
+  private final Deque<String> worklist = new ArrayDeque<String>();
+
+  public static String methodKey(String clazz, String name, String signature) {
+    return clazz + '.' + name + signature;
+  }
+
+  private static boolean isMethodKey(String key) {
+    return key.indexOf('(') >= 0;
+  }
+
+  private static String getClassName(String methodKey) {
+    return methodKey.substring(0, methodKey.lastIndexOf('.', methodKey.indexOf('(')));
+  }
+
+  /**
+   * Adds a class declared by the translation, with the binary names of all
+   * the types it inherits.
+   */
+  public void addClass(String clazz, Collection<String> supertypes) {
+    classes.put(clazz, new ClassInfo(clazz, supertypes));
+  }
+
+  /**
+   * Adds a method declared by a class of the translation, with the keys of
+   * the methods that it overrides.
+   */
+  public void addMethod(
+      String clazz, String name, String signature, Collection<String> overriddenMethods) {
+    addMethod(new MethodInfo(clazz, name, signature, overriddenMethods, false));
+  }
+
+  public void addConstructor(String clazz, String name, String signature) {
+    addMethod(new MethodInfo(clazz, name, signature, Collections.<String>emptySet(), true));
+  }
+
+  private void addMethod(MethodInfo method) {
+    classes.get(method.clazz).methods.add(method);
+    for (String overridden : method.overriddenMethods) {
+      overriders.put(overridden, method);
+    }
+  }
+
+  /**
+   * Adds an inherited method that implements an interface method for a class
+   * of the translation, which isn't one of the overridden methods of the
+   * inherited method because its own class doesn't implement the interface.
+   */
+  public void addInheritedImplementation(
+      String clazz, String methodKey, String interfaceMethodKey) {
+    InheritedImplementation implementation =
+        new InheritedImplementation(clazz, methodKey, interfaceMethodKey);
+    classes.get(clazz).inheritedImplementations.add(implementation);
+    implementers.put(interfaceMethodKey, implementation);
+  }
+
+  /**
+   * Keeps every method of a class that is live, such as classes with native
+   * methods whose code can't be analyzed.
+   */
+  public void keepAllMethods(String clazz) {
+    classes.get(clazz).keepAllMethods = true;
+  }
+
+  /**
+   * Records that a class or method references a class or invokes a method.
+   * The owner of class initializers and field initializers is their class.
+   */
+  public void addReference(String owner, String target) {
+    if (!owner.equals(target)) {
+      references.put(owner, target);
+    }
+  }
+
+  /**
+   * Records a string literal, which keeps the class it names in case it's
+   * loaded by reflection.
+   */
+  public void addStringReference(String owner, String value) {
+    stringReferences.put(owner, value);
+  }
+
+  /**
+   * Adds an entry point, which is either a class or method key.
+   */
+  public void addRoot(String key) {
+    roots.add(key);
+  }
+
+  /**
+   * Keeps a method as long as its class is live, for methods that are
+   * invoked implicitly, such as serialization methods.
+   */
+  public void keepIfClassLive(String methodKey) {
+    keptIfClassLive.add(methodKey);
+  }
+
+  /**
+   * Keeps a class and all of its methods.
+   */
+  public void keepClass(String clazz) {
+    keptClasses.add(clazz);
+  }
+
+  /**
+   * Keeps all methods of a class with the specified name.
+   */
+  public void keepMethods(String clazz, String name) {
+    keptMethodNames.put(clazz, name);
+  }
+
+  /**
+   * Returns the classes and methods of the translation that aren't reachable
+   * from the entry points.
+   */
+  public DeadCodeMap computeDeadCode() {
+    Set<String> reached = findReachable();
+    DeadCodeMap.Builder deadCode = DeadCodeMap.builder();
+    for (ClassInfo clazz : classes.values()) {
+      if (!reached.contains(clazz.name)) {
+        deadCode.addDeadClass(clazz.name);
+        ErrorUtil.unreachableClass();
+        continue;
+      }
+      for (MethodInfo method : clazz.methods) {
+        if (!reached.contains(method.key)) {
+          deadCode.addDeadMethod(clazz.name, method.name, method.signature);
+          ErrorUtil.unreachableMethod();
+        }
+      }
+    }
+    return deadCode.build();
+  }
+
+  private Set<String> findReachable() {
+    reached.clear();
+    for (String root : roots) {
+      reach(root);
+    }
+    for (String clazz : keptClasses) {
+      reachClass(clazz, true);
+    }
+    for (Map.Entry<String, String> entry : keptMethodNames.entries()) {
+      ClassInfo clazz = classes.get(entry.getKey());
+      if (clazz != null) {
+        for (MethodInfo method : clazz.methods) {
+          if (method.name.equals(entry.getValue())) {
+            reach(method.key);
+          }
+        }
+      }
+    }
+
+    while (!worklist.isEmpty()) {
+      String key = worklist.remove();
+      for (String target : references.get(key)) {
+        reach(target);
+      }
+      for (String value : stringReferences.get(key)) {
+        if (classes.containsKey(value)) {
+          reachClass(value, false);
+        }
+      }
+      if (isMethodKey(key)) {
+        reach(getClassName(key));
+        for (MethodInfo overrider : overriders.get(key)) {
+          if (reached.contains(overrider.clazz)) {
+            reach(overrider.key);
+          }
+        }
+        for (InheritedImplementation implementation : implementers.get(key)) {
+          if (reached.contains(implementation.clazz)) {
+            reach(implementation.method);
+          }
+        }
+        continue;
+      }
+      ClassInfo clazz = classes.get(key);
+      if (clazz == null) {
+        continue;
+      }
+      for (String supertype : clazz.supertypes) {
+        reach(supertype);
+      }
+      for (MethodInfo method : clazz.methods) {
+        if (clazz.keepAllMethods || keptIfClassLive.contains(method.key)
+            || overridesExternalMethod(method) || reachedAny(method.overriddenMethods)) {
+          reach(method.key);
+        }
+      }
+      for (InheritedImplementation implementation : clazz.inheritedImplementations) {
+        String interfaceMethod = implementation.interfaceMethod;
+        if (!classes.containsKey(getClassName(interfaceMethod))
+            || reached.contains(interfaceMethod)) {
+          reach(implementation.method);
+        }
+      }
+    }
+    return reached;
+  }
+
+  private void reach(String key) {
+    if (reached.add(key)) {
+      worklist.add(key);
+    }
+  }
+
+  /**
+   * Reaches a class and either all of its methods, or just its constructors.
+   */
+  private void reachClass(String name, boolean allMethods) {
+    reach(name);
+    ClassInfo clazz = classes.get(name);
+    if (clazz != null) {
+      for (MethodInfo method : clazz.methods) {
+        if (allMethods || method.isConstructor) {
+          reach(method.key);
+        }
+      }
+    }
+  }
+
+  private boolean overridesExternalMethod(MethodInfo method) {
+    for (String overridden : method.overriddenMethods) {
+      if (!classes.containsKey(getClassName(overridden))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean reachedAny(Set<String> keys) {
+    for (String key : keys) {
+      if (reached.contains(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.util;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records which translated types may be inspected with reflection, so that
+ * reflection metadata is only generated for them.
+ */
+public class ReflectionUsageMap {
+
+  public static class Builder {
+    private final SetMultimap<String, String> supertypes = HashMultimap.create();
+    private final Set<String> reflectiveTypes = Sets.newHashSet();
+    private final Set<String> reflectiveSupertypes = Sets.newHashSet();
+
+    /**
+     * Returns the reflective types, with every translated type that inherits
+     * a type whose subclasses are reflective, and the supertypes of all of
+     * them, since reflection on a class also reads its superclasses.
+     */
+    public ReflectionUsageMap build() {
+      Set<String> result = Sets.newHashSet(reflectiveTypes);
+      result.addAll(reflectiveSupertypes);
+      for (Map.Entry<String, String> entry : supertypes.entries()) {
+        if (reflectiveSupertypes.contains(entry.getValue())) {
+          result.add(entry.getKey());
+        }
+      }
+      Deque<String> worklist = new ArrayDeque<String>(result);
+      while (!worklist.isEmpty()) {
+        for (String supertype : supertypes.get(worklist.remove())) {
+          if (result.add(supertype)) {
+            worklist.add(supertype);
+          }
+        }
+      }
+      return new ReflectionUsageMap(ImmutableSet.copyOf(result));
+    }
+
+    /**
+     * Adds a translated type, with the binary names of all the types it
+     * inherits.
+     */
+    public Builder addType(String type, Collection<String> inheritedTypes) {
+      supertypes.putAll(type, inheritedTypes);
+      return this;
+    }
+
+    public Builder addReflectiveType(String type) {
+      reflectiveTypes.add(type);
+      return this;
+    }
+
+    /**
+     * Adds a type whose instances are inspected with reflection, so that it
+     * and all of its subtypes are reflective.
+     */
+    public Builder addReflectiveSupertype(String type) {
+      reflectiveSupertypes.add(type);
+      return this;
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final ImmutableSet<String> reflectiveTypes;
+
+  private ReflectionUsageMap(ImmutableSet<String> reflectiveTypes) {
+    this.reflectiveTypes = reflectiveTypes;
+  }
+
+  public boolean needsMetadata(String type) {
+    return reflectiveTypes.contains(type);
+  }
+
+  /**
+   * Returns true if the type may be inspected with reflection. Types without
+   * a binary name are conservatively assumed to be reflective.
+   */
+  public boolean needsMetadata(ITypeBinding type) {
+    String name = type.getErasure().getTypeDeclaration().getBinaryName();
+    return name == null || needsMetadata(name);
+  }
+}
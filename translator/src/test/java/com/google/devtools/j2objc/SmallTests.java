@@ -25,10 +25,16 @@ import com.google.devtools.j2objc.gen.ObjectiveCImplementationGeneratorTest;
 import com.google.devtools.j2objc.gen.ObjectiveCSegmentedHeaderGeneratorTest;
 import com.google.devtools.j2objc.gen.ObjectiveCSourceFileGeneratorTest;
 import com.google.devtools.j2objc.gen.PrimitiveArrayTest;
+import com.google.devtools.j2objc.gen.SizeReportGeneratorTest;
 import com.google.devtools.j2objc.gen.StatementGeneratorTest;
+import com.google.devtools.j2objc.gen.StringTableGeneratorTest;
+import com.google.devtools.j2objc.translate.AccessorInlinerTest;
 import com.google.devtools.j2objc.translate.AnonymousClassConverterTest;
 import com.google.devtools.j2objc.translate.ArrayRewriterTest;
 import com.google.devtools.j2objc.translate.AutoboxerTest;
+import com.google.devtools.j2objc.translate.AutoreleasePoolInserterTest;
+import com.google.devtools.j2objc.translate.BoxingFunctionRewriterTest;
+import com.google.devtools.j2objc.translate.CastCheckResolverTest;
 import com.google.devtools.j2objc.translate.ComplexExpressionExtractorTest;
 import com.google.devtools.j2objc.translate.ConstantBranchPrunerTest;
 import com.google.devtools.j2objc.translate.CopyAllFieldsWriterTest;
@@ -45,10 +51,16 @@ import com.google.devtools.j2objc.translate.NilCheckResolverTest;
 import com.google.devtools.j2objc.translate.OperatorRewriterTest;
 import com.google.devtools.j2objc.translate.OuterReferenceFixerTest;
 import com.google.devtools.j2objc.translate.OuterReferenceResolverTest;
+import com.google.devtools.j2objc.translate.ProfileCounterInserterTest;
+import com.google.devtools.j2objc.translate.ReachabilityAnalyzerTest;
+import com.google.devtools.j2objc.translate.ReflectionUsageAnalyzerTest;
 import com.google.devtools.j2objc.translate.RewriterTest;
 import com.google.devtools.j2objc.translate.StaticVarRewriterTest;
+import com.google.devtools.j2objc.translate.StringIntrinsicRewriterTest;
+import com.google.devtools.j2objc.translate.SynchronizedRewriterTest;
 import com.google.devtools.j2objc.translate.TypeSorterTest;
 import com.google.devtools.j2objc.translate.UnsequencedExpressionRewriterTest;
+import com.google.devtools.j2objc.translate.ValueRangeAnalyzerTest;
 import com.google.devtools.j2objc.types.BindingMapBuilderTest;
 import com.google.devtools.j2objc.types.HeaderImportCollectorTest;
 import com.google.devtools.j2objc.types.ImplementationImportCollectorTest;
@@ -71,13 +83,17 @@ import junit.framework.TestSuite;
 public class SmallTests {
 
   private static final Class<?>[] smallTestClasses = new Class[] {
+    AccessorInlinerTest.class,
     AnonymousClassConverterTest.class,
     ArrayAccessTest.class,
     ArrayCreationTest.class,
     ArrayRewriterTest.class,
     AutoboxerTest.class,
+    AutoreleasePoolInserterTest.class,
     BindingMapBuilderTest.class,
     BindingUtilTest.class,
+    BoxingFunctionRewriterTest.class,
+    CastCheckResolverTest.class,
     ComplexExpressionExtractorTest.class,
     ConstantBranchPrunerTest.class,
     CopyAllFieldsWriterTest.class,
@@ -108,13 +124,21 @@ public class SmallTests {
     OuterReferenceResolverTest.class,
     PrimitiveArrayTest.class,
     ProGuardUsageParserTest.class,
+    ProfileCounterInserterTest.class,
+    ReachabilityAnalyzerTest.class,
+    ReflectionUsageAnalyzerTest.class,
     RenamedTypeBindingTest.class,
     RewriterTest.class,
+    SizeReportGeneratorTest.class,
     StatementGeneratorTest.class,
     StaticVarRewriterTest.class,
+    StringIntrinsicRewriterTest.class,
+    StringTableGeneratorTest.class,
+    SynchronizedRewriterTest.class,
     TypeSorterTest.class,
     UnicodeUtilsTest.class,
-    UnsequencedExpressionRewriterTest.class
+    UnsequencedExpressionRewriterTest.class,
+    ValueRangeAnalyzerTest.class
   };
 
   public static Test suite() {
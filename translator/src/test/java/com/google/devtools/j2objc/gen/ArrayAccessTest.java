@@ -33,7 +33,7 @@ public class ArrayAccessTest extends GenerationTest {
         "int[] arr = { 1, 2 }; int one = arr[0]; int two = arr[1];");
     assertEquals(3, stmts.size());
     String result = generateStatement(stmts.get(0));
-    assertEquals("IOSIntArray *arr = [IOSIntArray arrayWithInts:(int[]){ 1, 2 } count:2];", result);
+    assertEquals("IOSIntArray *arr = [IOSIntArray arrayWithInts:Test_0_data count:2];", result);
     result = generateStatement(stmts.get(1));
     assertEquals("int one = IOSIntArray_Get(arr, 0);", result);
     result = generateStatement(stmts.get(2));
@@ -99,7 +99,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals(
-        "IOSBooleanArray *foo = [IOSBooleanArray arrayWithBooleans:(BOOL[]){ YES, NO } count:2];",
+        "IOSBooleanArray *foo = [IOSBooleanArray arrayWithBooleans:Test_0_data count:2];",
         result);
   }
 
@@ -108,7 +108,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals(
-        "IOSByteArray *foo = [IOSByteArray arrayWithBytes:(char[]){ 1, -2 } count:2];", result);
+        "IOSByteArray *foo = [IOSByteArray arrayWithBytes:Test_0_data count:2];", result);
   }
 
   public void testCharArrayCreationNoDimension() {
@@ -116,7 +116,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSCharArray *foo = " +
-        "[IOSCharArray arrayWithChars:(unichar[]){ 'A', 'z' } count:2];", result);
+        "[IOSCharArray arrayWithChars:Test_0_data count:2];", result);
   }
 
   public void testDoubleArrayCreationNoDimension() {
@@ -124,7 +124,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSDoubleArray *foo = " +
-        "[IOSDoubleArray arrayWithDoubles:(double[]){ 123.45, 3.1416 } count:2];", result);
+        "[IOSDoubleArray arrayWithDoubles:Test_0_data count:2];", result);
   }
 
   public void testFloatArrayCreationNoDimension() {
@@ -132,7 +132,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSFloatArray *foo = " +
-        "[IOSFloatArray arrayWithFloats:(float[]){ 123.45f, -0.0001f } count:2];", result);
+        "[IOSFloatArray arrayWithFloats:Test_0_data count:2];", result);
   }
 
   public void testIntArrayCreationNoDimension() {
@@ -140,7 +140,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSIntArray *foo = " +
-        "[IOSIntArray arrayWithInts:(int[]){ -123, 1280000 } count:2];", result);
+        "[IOSIntArray arrayWithInts:Test_0_data count:2];", result);
   }
 
   public void testLongArrayCreationNoDimension() {
@@ -148,7 +148,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSLongArray *foo = " +
-        "[IOSLongArray arrayWithLongs:(long long int[]){ 123 * 456, 456789 } count:2];", result);
+        "[IOSLongArray arrayWithLongs:Test_0_data count:2];", result);
   }
 
   public void testShortArrayCreationNoDimension() {
@@ -156,7 +156,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSShortArray *foo = " +
-        "[IOSShortArray arrayWithShorts:(short int[]){ 24, 42 } count:2];", result);
+        "[IOSShortArray arrayWithShorts:Test_0_data count:2];", result);
   }
 
   public void testBooleanArrayCreation() {
@@ -164,7 +164,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSBooleanArray *foo = " +
-        "[IOSBooleanArray arrayWithBooleans:(BOOL[]){ YES, NO } count:2];", result);
+        "[IOSBooleanArray arrayWithBooleans:Test_0_data count:2];", result);
   }
 
   public void testByteArrayCreation() {
@@ -172,7 +172,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSByteArray *foo = " +
-        "[IOSByteArray arrayWithBytes:(char[]){ 1, -2 } count:2];", result);
+        "[IOSByteArray arrayWithBytes:Test_0_data count:2];", result);
   }
 
   public void testCharArrayCreation() {
@@ -180,7 +180,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSCharArray *foo = " +
-        "[IOSCharArray arrayWithChars:(unichar[]){ 'A', 'z' } count:2];", result);
+        "[IOSCharArray arrayWithChars:Test_0_data count:2];", result);
   }
 
   public void testDoubleArrayCreation() {
@@ -188,7 +188,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSDoubleArray *foo = " +
-        "[IOSDoubleArray arrayWithDoubles:(double[]){ 123.45, 3.1416 } count:2];", result);
+        "[IOSDoubleArray arrayWithDoubles:Test_0_data count:2];", result);
   }
 
   public void testFloatArrayCreation() {
@@ -197,7 +197,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSFloatArray *foo = " +
-        "[IOSFloatArray arrayWithFloats:(float[]){ 123.45f, -0.0001f } count:2];", result);
+        "[IOSFloatArray arrayWithFloats:Test_0_data count:2];", result);
   }
 
   public void testIntArrayCreation() {
@@ -205,7 +205,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSIntArray *foo = " +
-        "[IOSIntArray arrayWithInts:(int[]){ -123, 1280000 } count:2];", result);
+        "[IOSIntArray arrayWithInts:Test_0_data count:2];", result);
   }
 
   public void testLongArrayCreation() {
@@ -213,7 +213,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSLongArray *foo = " +
-        "[IOSLongArray arrayWithLongs:(long long int[]){ 123 * 456, 456789 } count:2];", result);
+        "[IOSLongArray arrayWithLongs:Test_0_data count:2];", result);
   }
 
   public void testShortArrayCreation() {
@@ -221,7 +221,7 @@ public class ArrayCreationTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSShortArray *foo = " +
-        "[IOSShortArray arrayWithShorts:(short int[]){ 24, 42 } count:2];", result);
+        "[IOSShortArray arrayWithShorts:Test_0_data count:2];", result);
   }
 
   public void testMultiDimArrayCreateWithSizes() {
@@ -32,6 +32,7 @@ public class ObjectiveCHeaderGeneratorTest extends GenerationTest {
   protected void tearDown() throws Exception {
     Options.resetDeprecatedDeclarations();
     Options.setDocCommentsEnabled(false);
+    Options.resetReorderIvars();
     super.tearDown();
   }
 
@@ -596,4 +597,26 @@ public class ObjectiveCHeaderGeneratorTest extends GenerationTest {
         "@param foo Unused.",
         "@return always false.");
   }
+
+  public void testInstanceVariablesNotReorderedByDefault() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { boolean a; Object o; byte b; long l; }", "Test", "Test.h");
+    assertTranslatedLines(translation, "BOOL a_;", "id o_;", "char b_;", "long long int l_;");
+  }
+
+  public void testInstanceVariablesReorderedByAlignment() throws IOException {
+    Options.enableReorderIvars();
+    String translation = translateSourceFile(
+        "class Test { boolean a; Object o; byte b; int i; long l; short s; }", "Test", "Test.h");
+    assertTranslatedLines(translation,
+        "id o_;", "long long int l_;", "int i_;", "short int s_;", "BOOL a_;", "char b_;");
+  }
+
+  public void testPublicInstanceVariablesKeepPositions() throws IOException {
+    Options.enableReorderIvars();
+    String translation = translateSourceFile(
+        "class Test { boolean a; Object o; public byte b; int i; long l; }", "Test", "Test.h");
+    assertTranslatedLines(translation,
+        "id o_;", "BOOL a_;", "char b_;", "long long int l_;", "int i_;");
+  }
 }
@@ -16,11 +16,14 @@
 
 package com.google.devtools.j2objc.gen;
 
+import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.Options.MemoryManagementOption;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Tests for {@link ObjectiveCImplementationGenerator}.
@@ -31,6 +34,8 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
 
   @Override
   protected void tearDown() throws Exception {
+    Options.resetCompactMetadata();
+    Options.resetSelectiveReflection();
     Options.resetDeprecatedDeclarations();
     Options.resetDocComments();
     Options.resetMemoryManagementOption();
@@ -117,8 +122,8 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
     assertTranslation(translation, "JavaUtilDate * Example_today_;");
     assertTranslation(translation, "+ (void)initialize {");
     assertTranslation(translation,
-        "JreOperatorRetainedAssign(&Example_today_, nil, "
-        + "[[[JavaUtilDate alloc] init] autorelease]);");
+        "JreOperatorTransferAssign(&Example_today_, nil, "
+        + "[[JavaUtilDate alloc] init]);");
   }
 
   public void testStaticVariableWithNonInitInitialization() throws IOException {
@@ -290,8 +295,8 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
         "Compatible", "foo/Compatible.m");
     assertTranslation(translation, "id FooCompatible_FOO_;");
     assertTranslation(translation,
-        "JreOperatorRetainedAssign(&FooCompatible_FOO_, nil, "
-        + "[[[NSObject alloc] init] autorelease]);");
+        "JreOperatorTransferAssign(&FooCompatible_FOO_, nil, "
+        + "[[NSObject alloc] init]);");
   }
 
   public void testAnnotationGeneration() throws IOException {
@@ -740,6 +745,72 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
         + "\"Ljava.lang.InterruptedException;Ljava.lang.Error;\" },");
   }
 
+  public void testCompactMetadata() throws IOException {
+    Options.enableCompactMetadata();
+    String translation = translateSourceFile(
+        "class Test { static final int K = 5; static String s; String name; "
+        + " Object test1() { return null; }"
+        + " String test2(String... s) throws Exception { return null; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "J2ObjcMethodInfo");
+    assertNotInTranslation(translation, "J2ObjcFieldInfo");
+    // Each string is stored once, and referenced by its offset plus one.
+    assertTranslatedLines(translation,
+        "static const char strings[] =",
+        "\"test1\\0\"",
+        "\"Ljava.lang.Object;\\0\"",
+        "\"test2WithNSStringArray:\\0\"",
+        "\"test2\\0\"",
+        "\"Ljava.lang.String;\\0\"",
+        "\"Ljava.lang.Exception;\\0\"",
+        "\"init\\0\"",
+        "\"K_\\0\"",
+        "\"I\\0\"",
+        "\"s_\\0\"",
+        "\"name_\\0\";");
+    // Values over 127, such as the varargs modifier, take more than one byte.
+    assertTranslatedLines(translation,
+        "static const uint8_t methods_data[] = {",
+        "1, 0, 7, 0, 0, 26, 50, 56, 128, 1, 75, 97, 0, 0, 0, 0,",
+        "};");
+    assertTranslatedLines(translation,
+        "static const uint8_t fields_data[] = {",
+        "102, 0, 24, 105, 0, 1, 107, 0, 8, 56, 1, 0, 110, 0, 0, 56,",
+        "0, 0,",
+        "};");
+    assertTranslatedLines(translation,
+        "static const void * const static_refs[] = {",
+        "&Test_s_,",
+        "};");
+    assertTranslatedLines(translation,
+        "static const J2ObjcRawValue constant_values[] = {",
+        "{ .asInt = Test_K },",
+        "};");
+    assertTranslation(translation, "static const J2ObjcCompactInfo compact_info = "
+        + "{ strings, methods_data, fields_data, static_refs, constant_values };");
+    assertTranslation(translation, "static J2ObjcClassInfo _Test = "
+        + "{ \"Test\", NULL, NULL, 0x0, 3, NULL, 3, NULL, 0, NULL, 0, NULL, &compact_info};");
+  }
+
+  public void testCompactMetadataWithoutMembers() throws IOException {
+    Options.enableCompactMetadata();
+    String translation = translateSourceFile("interface Test {}", "Test", "Test.m");
+    assertTranslation(translation, "static const char strings[] = \"\";");
+    assertTranslation(translation, "static const J2ObjcCompactInfo compact_info = "
+        + "{ strings, NULL, NULL, NULL, NULL };");
+  }
+
+  public void testSelectiveReflection() throws IOException {
+    Options.enableSelectiveReflection();
+    Options.setReflectionUsageMap(ReflectionUsageMap.builder().addReflectiveType("Test$A").build());
+    String translation = translateSourceFile(
+        "class Test { static class A {} static class B {} interface I {} }", "Test", "Test.m");
+    assertTranslation(translation, "static J2ObjcClassInfo _Test_A = ");
+    assertNotInTranslation(translation, "_Test_B = ");
+    assertNotInTranslation(translation, "_Test_I = ");
+    assertNotInTranslation(translation, "_Test = ");
+  }
+
   public void testAnnotationWithField() throws IOException {
     String translation = translateSourceFile(
         "@interface Test { String FOO = \"foo\"; int I = 5; }", "Test", "Test.h");
@@ -812,4 +883,69 @@ public class ObjectiveCImplementationGeneratorTest extends GenerationTest {
     assertNotInTranslation(translation, "+ (void)initialize OBJC_METHOD_FAMILY_NONE;");
     assertOccurrences(translation, "+ (void)initialize", 1);
   }
+
+  public void testParallelGenerationMatchesSequential() throws IOException {
+    StringBuilder manyMethods = new StringBuilder(
+        "package foo; public class Many { private int total; ");
+    for (int i = 0; i < 40; i++) {
+      manyMethods.append(String.format("public int m%d(int[] a, Object o) { "
+          + "for (int n : a) { total += n * %d; } "
+          + "return o instanceof String ? ((String) o).length() + total : \"s%d\".hashCode(); } ",
+          i, i, i));
+    }
+    manyMethods.append("}");
+    String[] typeNamesAndSources = {
+      "foo/Test", "package foo; class Test { int i; static final Object LOCK = new Object(); "
+          + "private int f(int n) { return n * i; } "
+          + "final String g(Object o) { return (String) o; } "
+          + "synchronized void h(int[] a) { for (int n : a) { i += f(n); } } "
+          + "public Object copyWithZone(Object zone) { return new Test(); } "
+          + "static class Inner { native void n(); } }",
+      "foo/Color", "package foo; public enum Color { "
+          + "RED(0xff0000) { int mix(Color c) { return c == BLUE ? 1 : 2; } }, "
+          + "GREEN(0x00ff00) { int mix(Color c) { return 3; } }, "
+          + "BLUE(0x0000ff) { int mix(Color c) { return rgb >> 8; } }; "
+          + "final int rgb; Color(int rgb) { this.rgb = rgb; } abstract int mix(Color c); "
+          + "static Color parse(String s) { switch (s.charAt(0)) { "
+          + "case 'r': return RED; case 'g': return GREEN; default: return valueOf(s); } } }",
+      "foo/Outer", "package foo; import java.lang.annotation.*; import java.util.*; "
+          + "public class Outer<T extends Comparable<T>> { "
+          + "@Retention(RetentionPolicy.RUNTIME) public @interface Tag { String value(); } "
+          + "@Tag(\"list\") private final List<T> items = new ArrayList<T>(); "
+          + "@Deprecated public class Inner implements Iterator<T> { int index; "
+          + "public boolean hasNext() { return index < items.size(); } "
+          + "public T next() { return items.get(index++); } "
+          + "public void remove() { throw new UnsupportedOperationException(); } } "
+          + "@Tag(\"sort\") public void sort() { Collections.sort(items, new Comparator<T>() { "
+          + "public int compare(T a, T b) { return b.compareTo(a); } }); } "
+          + "public static <E> List<E> of(E... values) { return Arrays.asList(values); } "
+          + "static { System.out.println(\"loaded\"); } }",
+      "foo/Many", manyMethods.toString(),
+    };
+    List<String> sequential = generateAll(typeNamesAndSources);
+    Options.setGenerationThreads(4);
+    try {
+      for (int i = 0; i < 5; i++) {
+        assertEquals(sequential, generateAll(typeNamesAndSources));
+      }
+    } finally {
+      Options.resetGenerationThreads();
+    }
+    // The generators didn't modify the tree.
+    assertTranslation(sequential.get(1), "return [[FooTest alloc] init];");
+    assertTranslation(sequential.get(3), "@implementation FooColorEnum_$1");
+    assertTranslation(sequential.get(5), "@implementation FooOuter_Inner");
+    assertTranslation(sequential.get(5), "+ (J2ObjcClassInfo *)__metadata {");
+  }
+
+  // Returns the header and implementation generated for each unit.
+  private List<String> generateAll(String[] typeNamesAndSources) throws IOException {
+    List<String> result = Lists.newArrayList();
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      String name = typeNamesAndSources[i];
+      result.add(translateSourceFile(typeNamesAndSources[i + 1], name, name + ".h"));
+      result.add(getTranslatedFile(name + ".m"));
+    }
+    return result;
+  }
 }
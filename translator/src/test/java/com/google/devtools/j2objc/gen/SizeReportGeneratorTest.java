@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link SizeReportGenerator}.
+ */
+public class SizeReportGeneratorTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.enableSizeReport(new File(tempDir, "size.json"));
+    SizeReportGenerator.reset();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetSizeReport();
+    SizeReportGenerator.reset();
+    super.tearDown();
+  }
+
+  public void testReport() throws IOException {
+    String header = translateSourceFile(
+        "package foo; class Test { "
+        + "int test(Object o, int[] a, Integer i) { return ((String) o).length() + a[0] + i; } "
+        + "Object box(long l, double d) { return l + (int) d; } "
+        + "class Inner { } }",
+        "foo/Test", "foo/Test.h");
+    String impl = getTranslatedFile("foo/Test.m");
+    translateSourceFile("package foo; public class A { }", "foo/A", "foo/A.m");
+    translateSourceFile("class B { }", "B", "B.m");
+    assertEquals(3, SizeReportGenerator.size());
+    SizeReportGenerator.generate();
+
+    String report = getTranslatedFile("size.json");
+    assertTranslation(report, String.format("\"foo.Test\": { "
+        + "\"headerLines\": %d, \"headerBytes\": %d, "
+        + "\"implementationLines\": %d, \"implementationBytes\": %d, "
+        + "\"methods\": 4, \"functions\": 0, \"nilChecks\": 3, \"castChecks\": 1, "
+        + "\"conversionChecks\": 1, \"arrayBoundsChecks\": 1, \"boxingSites\": 2, "
+        + "\"metadataBytes\": ",
+        countLines(header), header.length(), countLines(impl), impl.length()));
+    assertTrue(report.startsWith("{\n  \"classes\": {\n    \"B\": {"));
+    assertTranslation(report, "  \"packages\": {\n    \"\": {");
+    assertTranslation(report, "    \"foo\": {");
+    assertTrue(report.endsWith(" }\n  }\n}\n"));
+  }
+
+  private static int countLines(String s) {
+    return s.split("\n", -1).length - 1;
+  }
+}
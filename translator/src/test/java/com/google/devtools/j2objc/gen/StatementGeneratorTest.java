@@ -72,7 +72,7 @@ public class StatementGeneratorTest extends GenerationTest {
         + "public static void doSomething(EnumType e) {"
         + " switch (e) { case ONE: break; case TWO: break; }}}",
         "A", "A.m");
-    assertTranslation(translation, "switch ([e ordinal]) {");
+    assertTranslation(translation, "switch (((JavaLangEnum *) nil_chk(e))->ordinal_) {");
     assertTranslation(translation, "case A_EnumType_ONE:");
   }
 
@@ -131,7 +131,7 @@ public class StatementGeneratorTest extends GenerationTest {
   }
 
   public void testInterfaceCastTranslation() throws IOException {
-    String source = "java.util.ArrayList al = new java.util.ArrayList(); "
+    String source = "Object al = new java.util.ArrayList(); "
         + "java.util.List l = (java.util.List) al;";
     List<Statement> stmts = translateStatements(source);
     assertEquals(2, stmts.size());
@@ -248,8 +248,9 @@ public class StatementGeneratorTest extends GenerationTest {
         "Example", "Example.m");
     assertTranslation(translation,
         "Example_set_b1_(self, JavaLangBoolean_get_TRUE__())");
+    // Boolean is initialized by the first accessor.
     assertTranslation(translation,
-        "Example_set_b2_(self, JavaLangBoolean_get_FALSE__())");
+        "Example_set_b2_(self, JavaLangBoolean_FALSE__)");
   }
 
   public void testStringConcatenation() throws IOException {
@@ -352,7 +353,7 @@ public class StatementGeneratorTest extends GenerationTest {
     String translation = translateSourceFile(
         "class Test { void call() { foo(1); } void foo(int... i) {} }", "Test", "Test.m");
     assertTranslation(translation,
-        "[self fooWithIntArray:[IOSIntArray arrayWithInts:(int[]){ 1 } count:1]];");
+        "[self fooWithIntArray:[IOSIntArray arrayWithInts:Test_0_data count:1]];");
   }
 
   public void testStaticInnerSubclassAccessingOuterStaticVar() throws IOException {
@@ -538,11 +539,9 @@ public class StatementGeneratorTest extends GenerationTest {
     List<Statement> stmts = translateStatements(source);
     assertEquals(2, stmts.size());
     String result = generateStatement(stmts.get(0));
-    assertEquals("IOSIntArray *a = [IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3];",
-        result);
+    assertEquals("IOSIntArray *a = [IOSIntArray arrayWithInts:Test_0_data count:3];", result);
     result = generateStatement(stmts.get(1));
-    assertEquals("IOSCharArray *b = "
-        + "[IOSCharArray arrayWithChars:(unichar[]){ '4', '5' } count:2];", result);
+    assertEquals("IOSCharArray *b = [IOSCharArray arrayWithChars:Test_1_data count:2];", result);
   }
 
   /**
@@ -554,10 +553,10 @@ public class StatementGeneratorTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslation(translation,
         "JreOperatorRetainedAssign(&Test_a_, nil, "
-        + "[IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3]);");
+        + "[IOSIntArray arrayWithInts:Test_0_data count:3]);");
     assertTranslation(translation,
         "JreOperatorRetainedAssign(&Test_b_, nil, "
-        + "[IOSCharArray arrayWithChars:(unichar[]){ '4', '5' } count:2]);");
+        + "[IOSCharArray arrayWithChars:Test_1_data count:2]);");
   }
 
   public void testLocalArrayCreation() throws IOException {
@@ -626,7 +625,7 @@ public class StatementGeneratorTest extends GenerationTest {
         + "Test foo() { return Test.ONE; } "
         + "void bar() { switch (foo()) { case ONE: break; case TWO: break; }}}",
         "Example", "Example.m");
-    assertTranslation(translation, "switch ([[self foo] ordinal])");
+    assertTranslation(translation, "switch (((JavaLangEnum *) nil_chk([self foo]))->ordinal_)");
   }
 
   public void testClassVariable() throws IOException {
@@ -666,7 +665,7 @@ public class StatementGeneratorTest extends GenerationTest {
         "import java.util.*; public class A { Map map; A() { map = new HashMap(); }}",
         "A", "A.m");
     assertTranslation(translation,
-        "A_set_map_(self, [[[JavaUtilHashMap alloc] init] autorelease])");
+        "JreOperatorTransferAssign(&map_, self, [[JavaUtilHashMap alloc] init])");
   }
 
   public void testStringAddOperator() throws IOException {
@@ -856,7 +855,7 @@ public class StatementGeneratorTest extends GenerationTest {
     assertEquals(1, stmts.size());
     String result = generateStatement(stmts.get(0));
     assertEquals("IOSObjectArray *a = [IOSObjectArray "
-        + "arrayWithObjects:(id[]){ @\"one\", @\"two\", @\"three\" } "
+        + "arrayWithObjects:Test_0_data "
         + "count:3 type:[IOSClass classWithClass:[NSString class]]];", result);
 
     source = "Comparable[] a = { \"one\", \"two\", \"three\" };";
@@ -938,8 +937,8 @@ public class StatementGeneratorTest extends GenerationTest {
     String translation = generateStatement(stmts.get(0));
     assertTranslation(translation,
         "IOSObjectArray *a = [IOSObjectArray arrayWithObjects:(id[]){ nil, "
-        + "[IOSIntArray arrayWithInts:(int[]){ 0, 2 } count:2], "
-        + "[IOSIntArray arrayWithInts:(int[]){ 2, 2 } count:2] } count:3 "
+        + "[IOSIntArray arrayWithInts:Test_0_data count:2], "
+        + "[IOSIntArray arrayWithInts:Test_1_data count:2] } count:3 "
         + "type:[IOSIntArray iosClass]];");
   }
 
@@ -994,8 +993,7 @@ public class StatementGeneratorTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslation(translation,
         "c1 = [[IOSClass classWithClass:[Test class]] getConstructor:"
-        + "[IOSObjectArray arrayWithLength:0 type:"
-        + "[IOSClass classWithClass:[IOSClass class]]]];");
+        + "[IOSObjectArray emptyArrayWithType:[IOSClass classWithClass:[IOSClass class]]]];");
     assertTranslation(translation,
         "c2 = [[IOSClass classWithClass:[Test class]] getConstructor:"
         + "[IOSObjectArray arrayWithObjects:(id[]){ [IOSClass classWithClass:[NSString class]] } "
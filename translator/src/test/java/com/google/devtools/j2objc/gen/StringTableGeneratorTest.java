@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.gen;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link StringTableGenerator}.
+ */
+public class StringTableGeneratorTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.enableStringTable("Strings");
+    StringTableGenerator.reset();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetStringTable();
+    StringTableGenerator.reset();
+    super.tearDown();
+  }
+
+  public void testLiteralsReferenceTable() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String S = \"hello\"; static String t = \"x\"; "
+        + "String test() { return \"hello\"; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "#include \"Strings.h\"");
+    assertTranslation(translation, "return Strings_c11c35c4fc75cdcc;");
+    // Static variable initializers need a constant.
+    assertTranslation(translation, "NSString * Test_S_ = @\"hello\";");
+    assertTranslation(translation, "NSString * Test_t_ = @\"x\";");
+  }
+
+  public void testTableNotIncludedWithoutLiterals() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final String S = \"hello\"; int test() { return 1; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "Strings.h");
+    assertNotInTranslation(translation, "Strings_");
+  }
+
+  public void testStringSwitchComparesHashCodes() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(String s) { switch (s) { "
+        + "case \"a\": return 1; case \"hello\": return 2; default: return 0; } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "NSUInteger __index = NSString_indexOfSwitchCase(s, "
+        + "(NSString *[]){ Strings_3106600e0327ca77, Strings_c11c35c4fc75cdcc }, "
+        + "(int[]){ 97, 99162322 }, 2);",
+        "switch (__index) {");
+    assertNotInTranslation(translation, "__caseValues");
+  }
+
+  public void testGenerate() throws IOException {
+    translateSourceFile(
+        "class Test { String[] test() { "
+        + "return new String[] { \"hello\", \"??=\", \"\\ud83d\\ude00\", \"hello\" + 1 }; } }",
+        "Test", "Test.m");
+    StringTableGenerator.reset();
+    translateSourceFile(
+        "class Test { void test(StringBuilder sb) { "
+        + "sb.append(\"hello\").append(\"??=\").append(\"\\ud83d\\ude00\"); } }",
+        "Test", "Test.m");
+    assertEquals(3, StringTableGenerator.size());
+    StringTableGenerator.generate();
+
+    String header = getTranslatedFile("Strings.h");
+    assertTranslatedLines(header,
+        "#ifndef _Strings_H_",
+        "#define _Strings_H_",
+        "",
+        "#import <Foundation/Foundation.h>",
+        "",
+        "FOUNDATION_EXPORT NSString *const Strings_178e70d634cc2d25;",
+        "FOUNDATION_EXPORT NSString *const Strings_c11c35c4fc75cdcc;",
+        "FOUNDATION_EXPORT NSString *Strings_e20a33f935f79cb6;",
+        "",
+        "#endif // _Strings_H_");
+
+    String impl = getTranslatedFile("Strings.m");
+    assertTranslatedLines(impl,
+        "#include \"Strings.h\"",
+        "",
+        "NSString *const Strings_178e70d634cc2d25 = @\"?\" \"?=\";",
+        "NSString *const Strings_c11c35c4fc75cdcc = @\"hello\";",
+        "NSString *Strings_e20a33f935f79cb6;",
+        "",
+        "__attribute__((constructor)) static void Strings_initialize() {",
+        "  Strings_e20a33f935f79cb6 = [[NSString alloc] initWithCharacters:"
+        + "(unichar[]) { (int) 0xd83d, (int) 0xde00 } length:2];",
+        "}");
+  }
+
+  public void testSymbolsIncludeTableName() throws IOException {
+    Options.enableStringTable("Other");
+    String translation = translateSourceFile(
+        "class Test { String test() { return \"hello\"; } }", "Test", "Test.m");
+    assertTranslation(translation, "#include \"Other.h\"");
+    assertTranslation(translation, "return Other_c11c35c4fc75cdcc;");
+  }
+
+  // Verify that a table generated by a later invocation keeps the literals
+  // of the earlier ones.
+  public void testGenerateKeepsExistingLiterals() throws IOException {
+    translateSourceFile(
+        "class Test { void test(StringBuilder sb) { sb.append(\"hello\").append(\"??=\"); } }",
+        "Test", "Test.m");
+    StringTableGenerator.generate();
+    StringTableGenerator.reset();
+    translateSourceFile(
+        "class Test2 { String test() { return \"\\ud83d\\ude00\"; } }", "Test2", "Test2.m");
+    assertEquals(1, StringTableGenerator.size());
+    StringTableGenerator.generate();
+
+    assertTranslatedLines(getTranslatedFile("Strings.h"),
+        "FOUNDATION_EXPORT NSString *const Strings_178e70d634cc2d25;",
+        "FOUNDATION_EXPORT NSString *const Strings_c11c35c4fc75cdcc;",
+        "FOUNDATION_EXPORT NSString *Strings_e20a33f935f79cb6;");
+    String impl = getTranslatedFile("Strings.m");
+    assertTranslatedLines(impl,
+        "NSString *const Strings_178e70d634cc2d25 = @\"?\" \"?=\";",
+        "NSString *const Strings_c11c35c4fc75cdcc = @\"hello\";",
+        "NSString *Strings_e20a33f935f79cb6;");
+    assertTranslation(impl,
+        "  Strings_e20a33f935f79cb6 = [[NSString alloc] initWithCharacters:"
+        + "(unichar[]) { (int) 0xd83d, (int) 0xde00 } length:2];");
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.Options.MemoryManagementOption;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link AccessorInliner}.
+ */
+public class AccessorInlinerTest extends GenerationTest {
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetInlineAccessors();
+    Options.resetMemoryManagementOption();
+    super.tearDown();
+  }
+
+  public void testFinalGetterInlined() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { private int count; public final int getCount() { return count; } "
+        + "int test(Test t) { return t.getCount() + getCount(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return ((Test *) nil_chk(t))->count_ + self->count_;");
+  }
+
+  public void testSetterInlinedWithReferenceCounting() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { private String name; private int count; "
+        + "private void setName(String name) { this.name = name; } "
+        + "private void setCount(int c) { count = c; } "
+        + "void test(Test t) { t.setName(\"foo\"); setCount(1); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "Test_set_name_(nil_chk(t), @\"foo\");");
+    assertTranslation(translation, "self->count_ = 1;");
+  }
+
+  public void testSetterInlinedWithARC() throws IOException {
+    Options.setMemoryManagementOption(MemoryManagementOption.ARC);
+    String translation = translateSourceFile(
+        "class Test { private String name; "
+        + "private void setName(String name) { this.name = name; } "
+        + "void test(Test t) { t.setName(\"foo\"); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "((Test *) nil_chk(t))->name_ = @\"foo\";");
+  }
+
+  public void testOverridableAccessorsNotInlined() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int count; public int getCount() { return count; } "
+        + "final int getDouble() { return count * 2; } "
+        + "int test() { return getCount() + getDouble(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [self getCount] + [self getDouble];");
+  }
+
+  public void testInliningDisabled() throws IOException {
+    Options.disableInlineAccessors();
+    String translation = translateSourceFile(
+        "final class Test { int count; int getCount() { return count; } "
+        + "int test(Test t) { return t.getCount(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [((Test *) nil_chk(t)) getCount];");
+  }
+}
@@ -19,6 +19,7 @@ package com.google.devtools.j2objc.translate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
 import com.google.devtools.j2objc.ast.AbstractTypeDeclaration;
 import com.google.devtools.j2objc.ast.ClassInstanceCreation;
 import com.google.devtools.j2objc.ast.CompilationUnit;
@@ -40,6 +41,12 @@ import java.util.List;
  */
 public class AnonymousClassConverterTest extends GenerationTest {
 
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetShareAnonymousInstances();
+    super.tearDown();
+  }
+
   protected List<TypeDeclaration> translateClassBody(String testSource) {
     String source = "public class Test { " + testSource + " }";
     CompilationUnit unit = translateType("Test", source);
@@ -115,8 +122,8 @@ public class AnonymousClassConverterTest extends GenerationTest {
     assertTranslatedLines(translation,
         "+ (void)initialize {",
         "if (self == [Test class]) {",
-        "JreOperatorRetainedAssign(&Test_t_, nil, [[[Test_$1 alloc] "
-            + "initWithIOSClass:[IOSClass classWithClass:[Test class]]] autorelease]);");
+        "JreOperatorTransferAssign(&Test_t_, nil, [[Test_$1 alloc] "
+            + "initWithIOSClass:[IOSClass classWithClass:[Test class]]]);");
   }
 
   public void testFinalParameter() throws IOException {
@@ -175,8 +182,8 @@ public class AnonymousClassConverterTest extends GenerationTest {
     assertTranslatedLines(translation,
         "+ (void)initialize {",
         "if (self == [Test class]) {",
-        "JreOperatorRetainedAssign(&Test_EMPTY_ENUMERATION_, nil, "
-            + "[[[Test_$1 alloc] init] autorelease]);");
+        "JreOperatorTransferAssign(&Test_EMPTY_ENUMERATION_, nil, "
+            + "[[Test_$1 alloc] init]);");
   }
 
   public void testFinalParameterAccess() throws IOException {
@@ -505,4 +512,60 @@ public class AnonymousClassConverterTest extends GenerationTest {
         + "[IOSObjectArray arrayWithObjects:(id[]){ arg$1, arg$2 } count:2 "
         + "type:[IOSClass classWithClass:[NSObject class]]]]");
   }
+
+  public void testStatelessAnonymousClassShared() throws IOException {
+    Options.enableShareAnonymousInstances();
+    String translation = translateSourceFile(
+        "import java.util.*; class Test { void test(List<String> l) { "
+        + "Collections.sort(l, new Comparator<String>() { "
+        + "public int compare(String a, String b) { return a.length() - b.length(); } }); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[JavaUtilCollections sortWithJavaUtilList:l "
+        + "withJavaUtilComparator:Test_$1_get_shared$_()];");
+    assertTranslatedLines(translation,
+        "+ (void)initialize {",
+        "if (self == [Test_$1 class]) {",
+        "JreOperatorTransferAssign(&Test_$1_shared$_, nil, [[Test_$1 alloc] init]);");
+  }
+
+  public void testCapturingAnonymousClassNotShared() throws IOException {
+    Options.enableShareAnonymousInstances();
+    String translation = translateSourceFile(
+        "class Test { int i; Runnable test(final int j) { "
+        + "Runnable r1 = new Runnable() { public void run() { i++; } }; "
+        + "return new Runnable() { public void run() { int k = j; } }; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "shared$");
+  }
+
+  public void testStatefulAnonymousClassNotShared() throws IOException {
+    Options.enableShareAnonymousInstances();
+    String translation = translateSourceFile(
+        "class Test { Runnable test() { "
+        + "return new Runnable() { int count; public void run() { count++; } }; } "
+        + "Runnable test2() { return new Runnable() { public synchronized void run() {} }; } "
+        + "Object test3() { return new java.util.ArrayList<String>() {}; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "shared$");
+  }
+
+  public void testAnonymousClassIdentityNotShared() throws IOException {
+    Options.enableShareAnonymousInstances();
+    String translation = translateSourceFile(
+        "class Test { boolean test(Object o) { "
+        + "return o == new Runnable() { public void run() {} }; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "shared$");
+  }
+
+  public void testUniqueInstancesAnnotation() throws IOException {
+    Options.enableShareAnonymousInstances();
+    String translation = translateSourceFile(
+        "import com.google.j2objc.annotations.UniqueInstances; class Test { "
+        + "@UniqueInstances Runnable test() { return new Runnable() { public void run() {} }; } "
+        + "Runnable test2() { return new Runnable() { public void run() {} }; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [[[Test_$1 alloc] init] autorelease];");
+    assertTranslation(translation, "return Test_$2_get_shared$_();");
+  }
 }
@@ -71,4 +71,98 @@ public class ArrayRewriterTest extends GenerationTest {
         "[IOSObjectArray arrayWithObjects:(id[]){ array } count:1 " +
         "type:[IOSClass classWithClass:[NSObject class]]]];");
   }
+
+  public void testStaticFinalConstantArrayUsesStaticData() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final int SIZE = 2; static final int[] INTS = { 1, -2, SIZE }; "
+        + "static final String[] NAMES = new String[] { \"a\", \"b\" + SIZE }; }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "static int const Test_INTS_data[] = {", "  1, -2, 2", "};");
+    assertTranslatedLines(translation,
+        "static id const Test_NAMES_data[] = {", "  @\"a\", @\"b2\"", "};");
+    assertTranslation(translation,
+        "JreOperatorRetainedAssign(&Test_INTS_, nil, "
+        + "[IOSIntArray arrayWithInts:Test_INTS_data count:3]);");
+    assertTranslation(translation,
+        "JreOperatorRetainedAssign(&Test_NAMES_, nil, "
+        + "[IOSObjectArray arrayWithObjects:Test_NAMES_data count:2 "
+        + "type:[IOSClass classWithClass:[NSString class]]]);");
+  }
+
+  public void testInterfaceConstantArrayUsesStaticData() throws IOException {
+    String translation = translateSourceFile(
+        "interface Test { int[] TABLE = { 1, 2, 3 }; String[] NAMES = { \"a\" }; }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "static int const Test_TABLE_data[] = {", "  1, 2, 3", "};");
+    assertTranslatedLines(translation, "static id const Test_NAMES_data[] = {", "  @\"a\"", "};");
+    assertTranslation(translation, "[IOSIntArray arrayWithInts:Test_TABLE_data count:3]");
+    assertTranslation(translation, "[IOSObjectArray arrayWithObjects:Test_NAMES_data count:1 "
+        + "type:[IOSClass classWithClass:[NSString class]]]");
+    translation = translateSourceFile("@interface A { int[] X = { 4 }; }", "A", "A.m");
+    assertTranslatedLines(translation, "static int const A_X_data[] = {", "  4", "};");
+    assertTranslation(translation, "[IOSIntArray arrayWithInts:A_X_data count:1]");
+  }
+
+  public void testAnnotationDefaultArrayNotStaticData() throws IOException {
+    String translation = translateSourceFile(
+        "import java.lang.annotation.*; @Retention(RetentionPolicy.RUNTIME) "
+        + "@interface A { int[] value() default { 1, 2 }; }",
+        "A", "A.m");
+    assertNotInTranslation(translation, "_data");
+    assertTranslatedLines(translation,
+        "+ (IOSIntArray *)valueDefault {",
+        "return [IOSIntArray arrayWithInts:(int[]){ 1, 2 } count:2];",
+        "}");
+  }
+
+  public void testNonConstantArrayNotStaticData() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static int i = 1; static final int[] A = { 1, i }; "
+        + "static final Object[] C = { \"a\" }; int[] test() { return new int[0]; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "_data");
+    assertTranslation(translation, "[IOSIntArray arrayWithInts:(int[]){ 1, Test_i_ } count:2]");
+    assertTranslation(translation, "return [IOSIntArray arrayWithLength:0];");
+  }
+
+  public void testConstantArrayUsesNumberedStaticData() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static int[] B = { 1, 2 }; long[] l = { 1L << 40 }; "
+        + "void test(float f) { float[] floats = { 1.5f, -2 }; char[][] chars = { { 'a' }, {} }; "
+        + "String[] names = { \"x\", \"y\" + 1 }; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "static float const Test_0_data[] = {", "  1.5f, -2", "};");
+    assertTranslatedLines(translation, "static unichar const Test_1_data[] = {", "  'a'", "};");
+    assertTranslatedLines(translation,
+        "static id const Test_2_data[] = {", "  @\"x\", @\"y1\"", "};");
+    assertTranslatedLines(translation,
+        "static long long int const Test_3_data[] = {", "  1099511627776LL", "};");
+    assertTranslatedLines(translation, "static int const Test_4_data[] = {", "  1, 2", "};");
+    assertTranslation(translation,
+        "IOSFloatArray *floats = [IOSFloatArray arrayWithFloats:Test_0_data count:2];");
+    // Only arrays with elements are declared as data.
+    assertTranslation(translation, "IOSObjectArray *chars = [IOSObjectArray arrayWithObjects:"
+        + "(id[]){ [IOSCharArray arrayWithChars:Test_1_data count:1], "
+        + "[IOSCharArray arrayWithChars:(unichar[]){  } count:0] } count:2 "
+        + "type:[IOSCharArray iosClass]];");
+    assertTranslation(translation, "IOSObjectArray *names = [IOSObjectArray "
+        + "arrayWithObjects:Test_2_data count:2 type:[IOSClass classWithClass:[NSString class]]];");
+    assertTranslation(translation, "[IOSLongArray arrayWithLongs:Test_3_data count:1]");
+    assertTranslation(translation, "JreOperatorRetainedAssign(&Test_B_, nil, "
+        + "[IOSIntArray arrayWithInts:Test_4_data count:2]);");
+  }
+
+  public void testEmptyVarargsUseSharedArray() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void ints(int... i) {} void test() { ints(); "
+        + "String.format(\"x\"); java.util.Arrays.asList(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "[self intsWithIntArray:[IOSIntArray emptyArray]];");
+    assertTranslation(translation, "[NSString formatWithNSString:@\"x\" "
+        + "withNSObjectArray:[IOSObjectArray emptyArrayWithType:"
+        + "[IOSClass classWithClass:[NSObject class]]]];");
+    assertTranslation(translation, "[JavaUtilArrays asListWithNSObjectArray:"
+        + "[IOSObjectArray emptyArrayWithType:[IOSClass classWithClass:[NSObject class]]]];");
+    assertNotInTranslation(translation, "arrayWithLength:0");
+  }
 }
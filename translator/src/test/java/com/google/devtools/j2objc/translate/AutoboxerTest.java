@@ -220,7 +220,7 @@ public class AutoboxerTest extends GenerationTest {
     String translation = translateSourceFile(
       "public class Test { public int values[] = new int[] { 1, 2, 3 }; }",
       "Test", "Test.m");
-    assertTranslation(translation, "[IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3]");
+    assertTranslation(translation, "[IOSIntArray arrayWithInts:Test_0_data count:3]");
     translation = translateSourceFile(
       "public class Test { private Integer i = 1; private Integer j = 2; private Integer k = 3;" +
       "  public Integer values[] = new Integer[] { i, j, k }; }",
@@ -449,4 +449,22 @@ public class AutoboxerTest extends GenerationTest {
     assertTranslation(translation,
         "NSAssert(i == 0, [[JavaLangInteger valueOfWithInt:i] description]);");
   }
+
+  public void testBoxUnboxRoundTripRemoved() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(int i, long l) { int j = (Integer) i; "
+        + "long k = Long.valueOf(l).longValue(); Integer n = (Integer) i; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "int j = i;");
+    assertTranslation(translation, "long long int k = l;");
+    // The boxed value is still needed when assigned to a wrapper variable.
+    assertTranslation(translation, "JavaLangInteger *n = [JavaLangInteger valueOfWithInt:i];");
+  }
+
+  public void testBoxUnboxWithWideningNotRemoved() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { long test(int i) { return Integer.valueOf(i).longValue(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [[JavaLangInteger valueOfWithInt:i] longLongValue];");
+  }
 }
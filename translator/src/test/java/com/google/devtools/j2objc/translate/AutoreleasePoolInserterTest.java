@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link AutoreleasePoolInserter}.
+ */
+public class AutoreleasePoolInserterTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.setAutoreleasePoolThreshold(3);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetAutoreleasePoolThreshold();
+    super.tearDown();
+  }
+
+  public void testAllocatingLoopGetsPool() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(java.util.List<String> l, int n) { "
+        + "for (int i = 0; i < n; i++) { l.add(\"item\" + i + String.valueOf(i) + new Object()); } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "for (int i = 0; i < n; i++) {",
+        "@autoreleasepool {");
+  }
+
+  public void testCheapLoopUnchanged() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(int[] values) { int sum = 0; "
+        + "for (int v : values) { sum += v; } "
+        + "while (sum > 100) { sum -= new Object().hashCode(); } return sum; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "@autoreleasepool");
+  }
+
+  public void testNestedLoopCounted() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(java.util.List<Object> l, int n) { "
+        + "for (int i = 0; i < n; i++) { for (int j = 0; j < 2; j++) { l.add(new Object()); } } } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "@autoreleasepool", 1);
+    assertTranslatedLines(translation,
+        "for (int i = 0; i < n; i++) {",
+        "@autoreleasepool {",
+        "for (int j = 0; j < 2; j++) {");
+  }
+
+  // Verify that loops that store autoreleased objects in outer locals, or
+  // that return them, aren't changed.
+  public void testEscapingObjectsNotPooled() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(int n) { String last = null; "
+        + "for (int i = 0; i < n; i++) { last = \"a\" + i + \"b\" + new Object(); } "
+        + "for (int i = 0; i < n; i++) { String s = \"a\" + i + new Object(); "
+        + "  if (s.length() > 3) { return s + new Object(); } } "
+        + "return last; } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "@autoreleasepool");
+  }
+
+  public void testThreshold() throws IOException {
+    Options.setAutoreleasePoolThreshold(4);
+    String translation = translateSourceFile(
+        "class Test { void test(java.util.List<Object> l, int n) { "
+        + "while (n-- > 0) { l.add(new Object()); l.add(new Object()); l.add(new Object()); } } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "@autoreleasepool");
+    Options.setAutoreleasePoolThreshold(3);
+    translation = translateSourceFile(
+        "class Test { void test(java.util.List<Object> l, int n) { "
+        + "while (n-- > 0) { l.add(new Object()); l.add(new Object()); l.add(new Object()); } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "while (n-- > 0) {", "@autoreleasepool {");
+  }
+}
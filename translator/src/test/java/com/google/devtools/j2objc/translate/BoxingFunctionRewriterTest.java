@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link BoxingFunctionRewriter}.
+ */
+public class BoxingFunctionRewriterTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.enableBoxingFunctions();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetBoxingFunctions();
+    super.tearDown();
+  }
+
+  public void testBoxingFunctions() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(boolean z, byte b, char c, short s, long l, float f, double d) { "
+        + "Boolean bz = z; Byte bb = b; Character bc = c; Short bs = s; Long bl = l; "
+        + "Float bf = f; Double bd = d; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "JavaLangBoolean *bz = JavaLangBoolean_valueOfWithBoolean_(z);",
+        "JavaLangByte *bb = JavaLangByte_valueOfWithByte_(b);",
+        "JavaLangCharacter *bc = JavaLangCharacter_valueOfWithChar_(c);",
+        "JavaLangShort *bs = JavaLangShort_valueOfWithShort_(s);",
+        "JavaLangLong *bl = JavaLangLong_valueOfWithLong_(l);",
+        "JavaLangFloat *bf = JavaLangFloat_valueOfWithFloat_(f);",
+        "JavaLangDouble *bd = JavaLangDouble_valueOfWithDouble_(d);");
+  }
+
+  public void testUnboxingFunctionsAfterNilCheck() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(Integer i, Double d) { int n = i; return n + (int) (double) d; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int n = JavaLangInteger_intValue(nil_chk(i));",
+        "return n + J2ObjCFpToInt(JavaLangDouble_doubleValue(nil_chk(d)));");
+  }
+
+  public void testExplicitCalls() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { Integer test(Integer i, Long l) { "
+        + "long n = l.longValue() + i.longValue(); return Integer.valueOf((int) n); } }",
+        "Test", "Test.m");
+    // Only intValue() and valueOf(int) have functions in Integer.
+    assertTranslatedLines(translation,
+        "long long int n = JavaLangLong_longValue(nil_chk(l)) "
+        + "+ [((JavaLangInteger *) nil_chk(i)) longLongValue];",
+        "return JavaLangInteger_valueOfWithInt_((int) n);");
+  }
+
+  public void testMessagesSentWithoutOption() throws IOException {
+    Options.resetBoxingFunctions();
+    String translation = translateSourceFile(
+        "class Test { Integer test(int i) { return i; } }", "Test", "Test.m");
+    assertTranslation(translation, "return [JavaLangInteger valueOfWithInt:i];");
+  }
+}
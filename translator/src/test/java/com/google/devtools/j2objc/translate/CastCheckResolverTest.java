@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link CastCheckResolver}.
+ */
+public class CastCheckResolverTest extends GenerationTest {
+
+  public void testInstanceofGuard() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(Object o) { "
+        + "if (o instanceof String) { return (String) o; } return null; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (NSString *) o;");
+  }
+
+  public void testInstanceofElseBranchKeepsCheck() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { String test(Object o) { "
+        + "if (!(o instanceof String)) { return (String) o; } return (String) o; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (NSString *) check_class_cast(o, [NSString class]);");
+    // The second cast is only reached if o is a String.
+    assertTranslation(translation, "return (NSString *) o;");
+  }
+
+  public void testConditionalAndGuard() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { boolean test(Object o) { "
+        + "return o instanceof Runnable && o != ((Runnable) o); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "o != ((id<JavaLangRunnable>) o)");
+  }
+
+  public void testRepeatedCast() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(Object o) { "
+        + "String s = (String) o; return ((String) o).length() + s.length(); } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "check_class_cast", 1);
+    assertTranslation(translation, "NSString *s = (NSString *) check_class_cast(o, "
+        + "[NSString class]);");
+  }
+
+  public void testConditionalCastDoesNotProveType() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(boolean b, Object o) { "
+        + "String s = b ? (String) o : null; s = (String) o; } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "check_class_cast", 2);
+  }
+
+  public void testReassignedVariableNotTracked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(Object o) { "
+        + "if (o instanceof String) { o = new Object(); String s = (String) o; } } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "NSString *s = (NSString *) check_class_cast(o, "
+        + "[NSString class]);");
+  }
+
+  public void testCastOfKnownElementType() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.List; class Test { int test(List<String> l) { "
+        + "return ((String) l.get(0)).length(); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "check_class_cast");
+  }
+}
@@ -143,4 +143,108 @@ public class ConstantBranchPrunerTest extends GenerationTest {
         "{", "result = 2;", "}",
         "{", "result = 3;", "}");
   }
+
+  // Verify that locals initialized with constants are propagated, and
+  // removed when no references remain.
+  public void testConstantLocals() throws IOException {
+    String translation = translateSourceFile(
+        "class Flags { static final int LEVEL = 1; } "
+        + "class Test { void log(String s) {} void test(int x) { "
+        + "  boolean trace = false; int level = Flags.LEVEL; final boolean verbose = level > 2; "
+        + "  if (trace) { log(\"trace\"); } "
+        + "  if (verbose && x > 0) { log(\"verbose\"); } "
+        + "  if (level == 1) { log(\"one\"); } }}",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "trace");
+    assertNotInTranslation(translation, "verbose");
+    assertNotInTranslation(translation, "level");
+    assertTranslatedLines(translation,
+        "- (void)testWithInt:(int)x {",
+        "{",
+        "[self logWithNSString:@\"one\"];",
+        "}",
+        "}");
+  }
+
+  // Verify that reassigned locals aren't treated as constants.
+  public void testReassignedLocalNotPropagated() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void log(String s) {} void test(boolean b) { "
+        + "  boolean enabled = false; if (b) { enabled = true; } "
+        + "  if (enabled) { log(\"enabled\"); } }}",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "if (enabled) {", "[self logWithNSString:@\"enabled\"];", "}");
+  }
+
+  // Verify that a local initialized from a local that is reassigned later
+  // isn't treated as a constant.
+  public void testCopyOfReassignedLocalNotPropagated() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void log(String s) {} void test(int n) { "
+        + "  int a = 0; for (int i = 0; i < n; i++) { int b = a; "
+        + "  if (b > 0) { log(\"positive\"); } a++; } }}",
+        "Test", "Test.m");
+    assertTranslation(translation, "int b = a;");
+    assertTranslatedLines(translation,
+        "if (b > 0) {", "[self logWithNSString:@\"positive\"];", "}");
+  }
+
+  // Verify that a constant local has the value of its declared type, so
+  // "float f = 16777217;" is rounded to 16777216.
+  public void testConstantLocalConvertedToDeclaredType() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void log(String s) {} void test() { "
+        + "  float f = 16777217; if (f == 16777216) { log(\"rounded\"); } "
+        + "  byte b = (byte) 200; long l = 16777217L; "
+        + "  if (b > 0) { log(\"positive\"); } if (l == f) { log(\"float\"); } }}",
+        "Test", "Test.m");
+    assertTranslation(translation, "[self logWithNSString:@\"rounded\"];");
+    assertNotInTranslation(translation, "positive");
+    assertTranslation(translation, "[self logWithNSString:@\"float\"];");
+    assertNotInTranslation(translation, "if (");
+  }
+
+  public void testConditionalExpression() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final boolean DEBUG = false; "
+        + "String test() { return DEBUG ? \"debug\" : \"release\"; }}",
+        "Test", "Test.m");
+    assertTranslation(translation, "return @\"release\";");
+  }
+
+  // Verify that the kept branch is promoted to the conditional's type.
+  public void testConditionalExpressionNumericPromotion() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final boolean F = true; "
+        + "String test() { return \"\" + (F ? 1 : 2.0); } "
+        + "double test2() { return F ? 1 : 2.0; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [NSString stringWithFormat:@\"%f\", ((double) 1)];");
+    assertTranslation(translation, "return (double) 1;");
+  }
+
+  // Verify that the body of a do-while(false) statement is kept.
+  public void testFalseDoExpression() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void tick() {} void test(boolean b) { "
+        + "do { tick(); } while (false); "
+        + "do { if (b) { break; } tick(); } while (false); }}",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (void)testWithBoolean:(BOOL)b {", "{", "[self tick];", "}");
+    assertTranslatedLines(translation,
+        "do {", "if (b) {", "break;", "}", "[self tick];", "}", "while (NO);");
+  }
+
+  // Verify that statements after a pruned branch that returns are removed.
+  public void testUnreachableStatementsRemoved() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final boolean DEBUG = true; void tick() {} "
+        + "int test() { if (DEBUG) { return 1; } tick(); return 0; }}",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "[self tick];");
+    assertNotInTranslation(translation, "return 0;");
+    assertTranslatedLines(translation, "- (int)test {", "{", "return 1;", "}", "}");
+  }
 }
@@ -59,4 +59,57 @@ public class EnhancedForRewriterTest extends GenerationTest {
           "}",
         "}");
   }
+
+  public void testArrayListIndexedLoop() throws IOException {
+    String translation = translateSourceFile(
+        "import java.util.ArrayList;"
+        + "class Test { int test(ArrayList<Integer> list) { int sum = 0; "
+        + "for (int i : list) { if (i < 0) continue; sum += i; } return sum; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "{",
+          "JavaUtilArrayList *l__ = list;",
+          "int n__ = [((JavaUtilArrayList *) nil_chk(l__)) size];",
+          "int m__ = l__->modCount_;",
+          "int i__ = 0;",
+          "for (; i__ < n__; i__++) {",
+            "if (l__->modCount_ != m__) {",
+              "@throw [[[JavaUtilConcurrentModificationException alloc] init] autorelease];",
+            "}",
+            "int i = [((JavaLangInteger *) nil_chk([l__ getWithInt:i__])) intValue];",
+            "if (i < 0) continue;",
+            "sum += i;",
+          "}",
+        "}");
+    assertTranslation(translation, "#include \"java/util/ConcurrentModificationException.h\"");
+  }
+
+  public void testArrayListLoopAnnotationKeepsFastEnumeration() throws IOException {
+    String translation = translateSourceFile(
+        "import com.google.j2objc.annotations.LoopTranslation;"
+        + "import com.google.j2objc.annotations.LoopTranslation.LoopStyle;"
+        + "import java.util.ArrayList;"
+        + "class Test { void test(ArrayList<String> list) { "
+        + "for (@LoopTranslation(LoopStyle.FAST_ENUMERATION) String s : list) {} } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "for (NSString * __strong s in nil_chk(list)) {");
+  }
+
+  public void testEnumValuesLoop() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { enum Color { RED, GREEN } "
+        + "int test() { int n = 0; for (Color c : Color.values()) { n += c.ordinal(); } "
+        + "return n; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "{",
+          "Test_ColorEnum_init();",
+          "Test_ColorEnum * const *b__ = Test_ColorEnum_values;",
+          "Test_ColorEnum * const *e__ = b__ + 2;",
+          "while (b__ < e__) {",
+            "Test_ColorEnum *c = *b__++;",
+            "n += [((Test_ColorEnum *) nil_chk(c)) ordinal];",
+          "}",
+        "}");
+  }
 }
@@ -35,4 +35,30 @@ public class EnumRewriterTest extends GenerationTest {
     assertTranslation(translation,
         "TestEnum_A = [[TestEnum alloc] initWithId:@\"foo\" withNSString:@\"A\" withInt:0];");
   }
+
+  public void testSmallEnumValueOfScansValues() throws IOException {
+    String translation = translateSourceFile("enum Test { A, B, C }", "Test", "Test.m");
+    assertTranslation(translation, "if ([name isEqual:[e name]]) {");
+    assertNotInTranslation(translation, "constantsByName");
+  }
+
+  public void testLargeEnumValueOfUsesHashTable() throws IOException {
+    String translation = translateSourceFile(
+        "enum Test { A, B, C, D, E, F, G, H, I }", "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "+ (TestEnum *)valueOfWithNSString:(NSString *)name {",
+        "  static NSDictionary *constantsByName;",
+        "  static dispatch_once_t once;",
+        "  dispatch_once(&once, ^{",
+        "    NSMutableDictionary *map = [[NSMutableDictionary alloc] initWithCapacity:9];",
+        "    for (int i = 0; i < 9; i++) {",
+        "      [map setObject:TestEnum_values[i] forKey:[TestEnum_values[i] name]];",
+        "    }",
+        "    constantsByName = map;",
+        "  });",
+        "  TestEnum *e = [constantsByName objectForKey:name];",
+        "  if (e) {",
+        "    return e;",
+        "  }");
+  }
 }
@@ -16,6 +16,7 @@ package com.google.devtools.j2objc.translate;
 
 import com.google.devtools.j2objc.GenerationTest;
 import com.google.devtools.j2objc.Options;
+import com.google.devtools.j2objc.util.ClassHierarchyMap;
 
 import java.io.IOException;
 
@@ -30,11 +31,15 @@ public class FunctionizerTest extends GenerationTest {
   protected void setUp() throws IOException {
     super.setUp();
     Options.enableFinalMethodsAsFunctions();
+    // Many test methods are trivial getters, which would otherwise be inlined.
+    Options.disableInlineAccessors();
   }
 
   @Override
   protected void tearDown() throws Exception {
     Options.resetFinalMethodsAsFunctions();
+    Options.resetClosedWorld();
+    Options.resetInlineAccessors();
     super.tearDown();
   }
 
@@ -254,8 +259,8 @@ public class FunctionizerTest extends GenerationTest {
     assertNotInTranslation(translation, functionHeader + ';');
     translation = getTranslatedFile("A.m");
     assertTranslation(translation, functionHeader + " {");
-    assertTranslation(translation, "return A_strchars_(["
-        + "IOSCharArray arrayWithChars:(unichar[]){ 'a', 'b', 'c' } count:3]);");
+    assertTranslation(translation,
+        "return A_strchars_([IOSCharArray arrayWithChars:A_0_data count:3]);");
   }
 
   public void testAssertInFunction() throws IOException {
@@ -343,4 +348,80 @@ public class FunctionizerTest extends GenerationTest {
         "Test", "Test.m");
     assertNotInTranslation(translation, "Test_A_foo");
   }
+
+  private void analyzeClassHierarchy(String... typeNamesAndSources) throws IOException {
+    ClassHierarchyMap.Builder builder = ClassHierarchyMap.builder();
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      String name = typeNamesAndSources[i];
+      String source = typeNamesAndSources[i + 1];
+      addSourceFile(source, name + ".java");
+      new ClassHierarchyAnalyzer(builder).run(compileType(name, source));
+    }
+    Options.enableClosedWorld();
+    Options.setClassHierarchyMap(builder.build());
+  }
+
+  public void testClosedWorldDevirtualization() throws IOException {
+    String aSource = "public class A { void foo() {} void bar() {} }";
+    String cSource = "public class C { void test(A a) { a.foo(); a.bar(); } }";
+    analyzeClassHierarchy("A", aSource, "B", "public class B extends A { void bar() {} }",
+        "C", cSource);
+    String translation = translateSourceFile(cSource, "C", "C.m");
+    assertTranslation(translation, "A_foo_(nil_chk(a));");
+    assertTranslation(translation, "[a bar];");
+
+    translation = translateSourceFile(aSource, "A", "A.h");
+    assertTranslation(translation, "FOUNDATION_EXPORT void A_foo_(A * self);");
+    assertNotInTranslation(translation, "A_bar_");
+    translation = getTranslatedFile("A.m");
+    assertTranslatedLines(translation, "- (void)foo {", "A_foo_(self);", "}");
+    assertTranslation(translation, "void A_foo_(A * self) {");
+    assertNotInTranslation(translation, "static void A_foo_");
+  }
+
+  public void testClosedWorldAnonymousOverride() throws IOException {
+    String source = "public class A { void foo() {} "
+        + "static void test(A a) { a.foo(); new A() { void foo() {} }.foo(); } }";
+    analyzeClassHierarchy("A", source);
+    String translation = translateSourceFile(source, "A", "A.m");
+    assertTranslation(translation, "[((A *) nil_chk(a)) foo];");
+    assertNotInTranslation(translation, "A_foo_");
+  }
+
+  public void testClosedWorldStaticMethod() throws IOException {
+    String aSource = "public class A { static int count; "
+        + "public static int next(int n) { return count += n; } }";
+    String bSource = "public class B { int test() { return A.next(1); } }";
+    analyzeClassHierarchy("A", aSource, "B", bSource);
+    String translation = translateSourceFile(bSource, "B", "B.m");
+    assertTranslation(translation, "return A_next_(1);");
+    assertNotInTranslation(translation, "[A nextWithInt:1]");
+
+    translation = translateSourceFile(aSource, "A", "A.h");
+    assertTranslation(translation, "FOUNDATION_EXPORT int A_next_(int n);");
+    translation = getTranslatedFile("A.m");
+    // The function checks class initialization, and the class method forwards to it.
+    assertTranslatedLines(translation, "int A_next_(int n) {", "A_init();");
+    assertTranslatedLines(translation, "+ (int)nextWithInt:(int)n {", "return A_next_(n);", "}");
+  }
+
+  public void testClosedWorldUninvokedStaticMethod() throws IOException {
+    String source = "public class A { public static void foo() {} }";
+    analyzeClassHierarchy("A", source);
+    String translation = translateSourceFile(source, "A", "A.h");
+    assertNotInTranslation(translation, "A_foo_");
+  }
+
+  public void testClosedWorldClassNestedInEnum() throws IOException {
+    // The Functionizer doesn't visit enums, so no function is generated for
+    // Inner.foo() and its callers must keep sending messages.
+    String aSource = "public enum A { X; public static class Inner { public void foo() {} } }";
+    String bSource = "public class B { void test(A.Inner i) { i.foo(); } }";
+    analyzeClassHierarchy("A", aSource, "B", bSource);
+    String translation = translateSourceFile(bSource, "B", "B.m");
+    assertTranslation(translation, "[((AEnum_Inner *) nil_chk(i)) foo];");
+    assertNotInTranslation(translation, "AEnum_Inner_foo_");
+    translation = translateSourceFile(aSource, "A", "A.h");
+    assertNotInTranslation(translation, "AEnum_Inner_foo_");
+  }
 }
@@ -101,7 +101,7 @@ public class InitializationNormalizerTest extends GenerationTest {
     assertTranslatedLines(translation,
         "+ (void)initialize {",
         "if (self == [Test class]) {",
-        "JreOperatorRetainedAssign(&Test_date_, nil, [[[JavaUtilDate alloc] init] autorelease]);");
+        "JreOperatorTransferAssign(&Test_date_, nil, [[JavaUtilDate alloc] init]);");
   }
 
   public void testFieldInitializer() throws IOException {
@@ -112,7 +112,7 @@ public class InitializationNormalizerTest extends GenerationTest {
     assertTranslatedLines(translation,
         "- (instancetype)init {",
         "if (self = [super init]) {",
-        "Test_set_date_(self, [[[JavaUtilDate alloc] init] autorelease]);",
+        "JreOperatorTransferAssign(&date_, self, [[JavaUtilDate alloc] init]);",
         "JreMemDebugAdd(self);",
         "}",
         "return self;",
@@ -128,7 +128,7 @@ public class InitializationNormalizerTest extends GenerationTest {
         "- (instancetype)init {",
         "if (self = [super init]) {",
         "{",
-        "Test_set_date_(self, [[[JavaUtilDate alloc] init] autorelease]);",
+        "JreOperatorTransferAssign(&date_, self, [[JavaUtilDate alloc] init]);",
         "}",
         "JreMemDebugAdd(self);",
         "}",
@@ -162,7 +162,7 @@ public class InitializationNormalizerTest extends GenerationTest {
         "- (instancetype)initTestWithInt:(int)i {",
         "if (self = [super init]) {",
         "{",
-        "Test_set_date_(self, [[[JavaUtilDate alloc] init] autorelease]);",
+        "JreOperatorTransferAssign(&date_, self, [[JavaUtilDate alloc] init]);",
         "}",
         "[((JavaIoPrintStream *) nil_chk(JavaLangSystem_get_out_())) printlnWithInt:i];",
         "JreMemDebugAdd(self);",
@@ -241,8 +241,8 @@ public class InitializationNormalizerTest extends GenerationTest {
         "  public static final int iSetSize = iSet.size(); }";
     String translation = translateSourceFile(source, "Test", "Test.m");
     String setInit =
-        "JreOperatorRetainedAssign(&Test_iSet_, nil, " +
-        "[[[JavaUtilHashSet alloc] init] autorelease])";
+        "JreOperatorTransferAssign(&Test_iSet_, nil, " +
+        "[[JavaUtilHashSet alloc] init])";
     String setAdd = "[Test_iSet_ addWithId:[JavaLangInteger valueOfWithInt:Test_I]]";
     String setSize = "Test_iSetSize_ = [Test_iSet_ size]";
     assertTranslation(translation, setInit);
@@ -212,8 +212,8 @@ public class InnerClassExtractorTest extends GenerationTest {
         "class Test { Inner inner = new Inner(true); public int size() { return 0; }" +
         "class Inner { Inner(boolean b) {} int size() { return Test.this.size(); } } }",
         "Test", "Test.m");
-    assertTranslation(translation, "Test_set_inner_(self, " +
-        "[[[Test_Inner alloc] initWithTest:self withBoolean:YES] autorelease]);");
+    assertTranslation(translation, "JreOperatorTransferAssign(&inner_, self, " +
+        "[[Test_Inner alloc] initWithTest:self withBoolean:YES]);");
     assertTranslation(translation, "Test_Inner_set_this$0_(self, outer$);");
   }
 
@@ -584,7 +584,7 @@ public class InnerClassExtractorTest extends GenerationTest {
     translation = getTranslatedFile("A.m");
     assertFalse(translation.contains("this$0_"));
     assertTranslation(translation,
-        "JreOperatorRetainedAssign(&A_test_, nil, [[[A_$1 alloc] init] autorelease]);");
+        "JreOperatorTransferAssign(&A_test_, nil, [[A_$1 alloc] init]);");
   }
 
   // Verify that an anonymous class in a static method does not reference
@@ -664,10 +664,14 @@ public class InnerClassExtractorTest extends GenerationTest {
         "  } " +
         "}";
     String translation = translateSourceFile(source, "Outer", "Outer.m");
-    assertTranslation(translation, "[IOSObjectArray arrayWithObjects:(id[]){ " +
-        "@\"1\", @\"2\", @\"3\" } count:3 type:[IOSClass classWithClass:[NSString class]]]");
-    assertTranslation(translation, "[IOSObjectArray arrayWithObjects:(id[]){ " +
-        "@\"4\", @\"5\", @\"6\" } count:3 type:[IOSClass classWithClass:[NSString class]]]");
+    assertTranslatedLines(translation,
+        "static id const Outer_InnerEnum_0_data[] = {", "  @\"1\", @\"2\", @\"3\"", "};");
+    assertTranslatedLines(translation,
+        "static id const Outer_InnerEnum_1_data[] = {", "  @\"4\", @\"5\", @\"6\"", "};");
+    assertTranslation(translation, "[IOSObjectArray arrayWithObjects:Outer_InnerEnum_0_data " +
+        "count:3 type:[IOSClass classWithClass:[NSString class]]]");
+    assertTranslation(translation, "[IOSObjectArray arrayWithObjects:Outer_InnerEnum_1_data " +
+        "count:3 type:[IOSClass classWithClass:[NSString class]]]");
   }
 
   public void testInnerClassVarargsConstructor() throws IOException {
@@ -676,7 +680,7 @@ public class InnerClassExtractorTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslation(translation,
         "[[Test_Inner alloc] initWithTest:self withIntArray:" +
-        "[IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3]]");
+        "[IOSIntArray arrayWithInts:Test_0_data count:3]]");
   }
 
   public void testInnerClassConstructedInSuperConstructorInvocation() throws IOException {
@@ -59,4 +59,49 @@ public class OperatorRewriterTest extends GenerationTest {
     assertTranslation(translation, "return fmod(one, two);");
     assertTranslation(translation, "return fmodf(three, four);");
   }
+
+  public void testFirstStoreOfNewObjectInConstructor() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { private Object a = new Object(); final Object b; Object c; private Object d;"
+        + " Test() { b = new Object(); c = new Object(); d = new Object(); d = new Object(); }"
+        + " Test(int i) { this(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (instancetype)initTest {",
+        "if (self = [super init]) {",
+        "a_ = [[NSObject alloc] init];",
+        "b_ = [[NSObject alloc] init];",
+        // Fields that aren't private or final may be set by a subclass method
+        // called from a superclass constructor.
+        "JreOperatorTransferAssign(&c_, self, [[NSObject alloc] init]);",
+        "d_ = [[NSObject alloc] init];",
+        "JreOperatorTransferAssign(&d_, self, [[NSObject alloc] init]);");
+  }
+
+  public void testFieldAssignedOutsideConstructor() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { private Object a; Test() { foo(); a = new Object(); }"
+        + " void foo() { a = new Object(); } void bar(Test t) { t.a = new Object(); } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "a_ = [[NSObject alloc] init];");
+    assertOccurrences(translation,
+        "JreOperatorTransferAssign(&a_, self, [[NSObject alloc] init]);", 2);
+    // Another object's field is set with its setter.
+    assertTranslation(translation,
+        "Test_set_a_(nil_chk(t), [[[NSObject alloc] init] autorelease]);");
+    translation = translateSourceFile(
+        "class Test { private Object a; Test() { a = new Test(a = new Object()); }"
+        + " Test(Object o) {} }",
+        "Test", "Test.m");
+    // The nested store happens first, so neither is the field's first store.
+    assertTranslation(translation, "JreOperatorTransferAssign(&a_, self, [[Test alloc] "
+        + "initWithId:JreOperatorTransferAssign(&a_, self, [[NSObject alloc] init])]);");
+  }
+
+  public void testNewObjectReturnedFromCopyWithZone() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { Object copyWithZone(Object zone) { return new Test(); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return [[Test alloc] init];");
+  }
 }
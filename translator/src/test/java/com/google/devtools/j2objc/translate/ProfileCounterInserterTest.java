@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link ProfileCounterInserter}.
+ */
+public class ProfileCounterInserterTest extends GenerationTest {
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetProfileMethods();
+    super.tearDown();
+  }
+
+  public void testMethodsAndConstructors() throws IOException {
+    Options.enableProfileMethods(null);
+    String translation = translateSourceFile(
+        "class Test { int i; Test(int i) { this.i = i; } int foo(String s) { return i; } "
+        + "public String toString() { return null; } "
+        + "abstract static class A { abstract void bar(); native void baz(); } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (instancetype)initWithInt:(int)i {",
+        "  J2OBJC_PROFILE_METHOD(\"Test\", \"<init>(I)V\");",
+        "  if (self = [super init]) {");
+    assertTranslatedLines(translation,
+        "- (int)fooWithNSString:(NSString *)s {",
+        "  J2OBJC_PROFILE_METHOD(\"Test\", \"foo(Ljava/lang/String;)I\");",
+        "  return i_;");
+    // Mapped methods keep their Java names.
+    assertTranslatedLines(translation,
+        "- (NSString *)description {",
+        "  J2OBJC_PROFILE_METHOD(\"Test\", \"toString()Ljava/lang/String;\");");
+    // Methods without bodies and generated methods aren't profiled.
+    assertNotInTranslation(translation, "\"bar()V\"");
+    assertNotInTranslation(translation, "\"baz()V\"");
+    assertNotInTranslation(translation, "\"copyAllFieldsTo");
+    // Default constructors are.
+    assertTranslation(translation, "J2OBJC_PROFILE_METHOD(\"Test$A\", \"<init>()V\");");
+  }
+
+  public void testInnerClassAndEnumConstructors() throws IOException {
+    Options.enableProfileMethods(null);
+    String translation = translateSourceFile(
+        "class Test { class Inner { Inner() {} } "
+        + "enum E { A(1); E(int i) { System.out.println(i); } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "- (instancetype)initWithTest:(Test *)outer$ {",
+        "  J2OBJC_PROFILE_METHOD(\"Test$Inner\", \"<init>(LTest;)V\");");
+    // Enum constructors start with their super invocation.
+    assertTranslatedLines(translation,
+        "if ((self = [super initWithNSString:__name withInt:__ordinal])) {",
+        "  J2OBJC_PROFILE_METHOD(\"Test$E\", \"<init>(I)V\");");
+  }
+
+  public void testFilter() throws IOException {
+    Options.enableProfileMethods("#foo$");
+    String translation = translateSourceFile(
+        "class Test { void foo() {} void food() {} }", "Test", "Test.m");
+    assertOccurrences(translation, "J2OBJC_PROFILE_METHOD", 1);
+    assertTranslation(translation, "J2OBJC_PROFILE_METHOD(\"Test\", \"foo()V\");");
+  }
+
+  public void testNotProfiledByDefault() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void foo() {} }", "Test", "Test.m");
+    assertNotInTranslation(translation, "J2OBJC_PROFILE_METHOD");
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.util.DeadCodeMap;
+import com.google.devtools.j2objc.util.ReachabilityGraph;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link ReachabilityAnalyzer}.
+ */
+public class ReachabilityAnalyzerTest extends GenerationTest {
+
+  private ReachabilityGraph graph;
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    graph = new ReachabilityGraph();
+  }
+
+  private void analyze(String... typeNamesAndSources) throws IOException {
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      addSourceFile(typeNamesAndSources[i + 1], typeNamesAndSources[i] + ".java");
+    }
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      String name = typeNamesAndSources[i];
+      new ReachabilityAnalyzer(graph).run(compileType(name, typeNamesAndSources[i + 1]));
+    }
+  }
+
+  public void testUnreachableClassesAndMethods() throws IOException {
+    analyze("Main", "public class Main { public static void main(String[] args) { "
+        + "new A().foo(); } }",
+        "A", "public class A { void foo() {} void bar() {} }",
+        "B", "public class B { void baz() {} }");
+    DeadCodeMap map = graph.computeDeadCode();
+    assertFalse(map.isDeadClass("Main"));
+    assertFalse(map.isDeadMethod("Main", "main", "([Ljava/lang/String;)V"));
+    assertFalse(map.isDeadClass("A"));
+    assertFalse(map.isDeadMethod("A", "A", "()V"));
+    assertFalse(map.isDeadMethod("A", "foo", "()V"));
+    assertTrue(map.isDeadMethod("A", "bar", "()V"));
+    assertTrue(map.isDeadClass("B"));
+  }
+
+  public void testOverridingMethodsKept() throws IOException {
+    analyze("Main", "public class Main { public static void main(String[] args) { "
+        + "A a = new B(); a.foo(); Runnable r = new C(); } }",
+        "A", "public class A { void foo() {} void bar() {} }",
+        "B", "public class B extends A { void foo() {} void bar() {} }",
+        "C", "public class C implements Runnable { public void run() {} "
+        + "public String toString() { return \"C\"; } void unused() {} }");
+    DeadCodeMap map = graph.computeDeadCode();
+    assertFalse(map.isDeadMethod("B", "foo", "()V"));
+    assertTrue(map.isDeadMethod("B", "bar", "()V"));
+    assertFalse(map.isDeadMethod("B", "B", "()V"));
+    // The superclass's implicitly invoked constructor is live.
+    assertFalse(map.isDeadMethod("A", "A", "()V"));
+    // Methods that library code may call are live.
+    assertFalse(map.isDeadMethod("C", "run", "()V"));
+    assertFalse(map.isDeadMethod("C", "toString", "()Ljava/lang/String;"));
+    assertTrue(map.isDeadMethod("C", "unused", "()V"));
+  }
+
+  public void testInheritedInterfaceImplementationKept() throws IOException {
+    analyze("Main", "public class Main { public static void main(String[] args) { "
+        + "((Runnable) new Task()).run(); new Base(); I i = new Sub(); i.foo(); } }",
+        "Base", "public class Base { public void run() {} public void foo() {} "
+        + "public void bar() {} }",
+        "Task", "public class Task extends Base implements Runnable {}",
+        "I", "public interface I { void foo(); void bar(); }",
+        "Sub", "public class Sub extends Base implements I {}");
+    DeadCodeMap map = graph.computeDeadCode();
+    // Runnable.run() is a library method, so Task's inherited run() is live.
+    assertFalse(map.isDeadMethod("Base", "run", "()V"));
+    // I.foo() is invoked, but I.bar() isn't.
+    assertFalse(map.isDeadMethod("Base", "foo", "()V"));
+    assertTrue(map.isDeadMethod("Base", "bar", "()V"));
+  }
+
+  public void testObjectiveCNameRoots() throws IOException {
+    analyze("A", "import com.google.j2objc.annotations.ObjectiveCName; "
+        + "@ObjectiveCName(\"FooA\") public class A { void foo() { new B(); } }",
+        "B", "public class B { @com.google.j2objc.annotations.ObjectiveCName(\"bar\") "
+        + "public static void bar() {} void baz() {} }");
+    DeadCodeMap map = graph.computeDeadCode();
+    assertFalse(map.isDeadMethod("A", "foo", "()V"));
+    assertFalse(map.isDeadMethod("B", "B", "()V"));
+    assertFalse(map.isDeadMethod("B", "bar", "()V"));
+    assertTrue(map.isDeadMethod("B", "baz", "()V"));
+  }
+
+  public void testRootsFileAndReflection() throws IOException {
+    analyze("A", "public class A { void foo() throws Exception { Class.forName(\"B\"); } "
+        + "void bar() {} }",
+        "B", "public class B { public B() {} void baz() {} }",
+        "C", "public class C { void run() {} void stop() {} }");
+    graph.keepClass("A");
+    graph.keepMethods("C", "run");
+    DeadCodeMap map = graph.computeDeadCode();
+    assertFalse(map.isDeadMethod("A", "bar", "()V"));
+    // Classes named by string literals keep their constructors.
+    assertFalse(map.isDeadMethod("B", "B", "()V"));
+    assertTrue(map.isDeadMethod("B", "baz", "()V"));
+    assertFalse(map.isDeadMethod("C", "run", "()V"));
+    assertTrue(map.isDeadMethod("C", "stop", "()V"));
+  }
+
+  public void testStaticInitializerAndNativeMethods() throws IOException {
+    analyze("Main", "public class Main { public static void main(String[] args) { "
+        + "A.foo(); } }",
+        "A", "public class A { static Object o = B.create(); static void foo() {} "
+        + "static native void bar(); static void baz() {} }",
+        "B", "public class B { static Object create() { return null; } void unused() {} }");
+    DeadCodeMap map = graph.computeDeadCode();
+    assertFalse(map.isDeadMethod("B", "create", "()Ljava/lang/Object;"));
+    assertTrue(map.isDeadMethod("B", "unused", "()V"));
+    // Native code may call any method of its class.
+    assertFalse(map.isDeadMethod("A", "baz", "()V"));
+  }
+}
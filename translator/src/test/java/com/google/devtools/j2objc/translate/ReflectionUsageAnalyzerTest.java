@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.util.ReflectionUsageMap;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link ReflectionUsageAnalyzer}.
+ */
+public class ReflectionUsageAnalyzerTest extends GenerationTest {
+
+  private ReflectionUsageMap analyze(String... typeNamesAndSources) throws IOException {
+    ReflectionUsageMap.Builder builder = ReflectionUsageMap.builder();
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      addSourceFile(typeNamesAndSources[i + 1], typeNamesAndSources[i] + ".java");
+    }
+    for (int i = 0; i < typeNamesAndSources.length; i += 2) {
+      String name = typeNamesAndSources[i];
+      new ReflectionUsageAnalyzer(builder).run(compileType(name, typeNamesAndSources[i + 1]));
+    }
+    return builder.build();
+  }
+
+  public void testClassLiteralsAndForName() throws IOException {
+    ReflectionUsageMap map = analyze(
+        "Test", "class Test { void test() throws Exception { "
+        + "A.class.getDeclaredMethods(); Class.forName(\"B\"); C.class.isInstance(this); } }",
+        "A", "class A extends Base {}",
+        "B", "class B {}",
+        "C", "class C {}",
+        "Base", "class Base {}");
+    assertTrue(map.needsMetadata("A"));
+    assertTrue(map.needsMetadata("B"));
+    // Reflecting on a class also reads its superclasses.
+    assertTrue(map.needsMetadata("Base"));
+    assertFalse(map.needsMetadata("C"));
+    assertFalse(map.needsMetadata("Test"));
+  }
+
+  public void testGetClassIncludesSubtypes() throws IOException {
+    ReflectionUsageMap map = analyze(
+        "Test", "class Test { String test(I i, Class<? extends D> c) { "
+        + "c.getFields(); return i.getClass().getName(); } }",
+        "I", "interface I {}",
+        "A", "class A implements I {}",
+        "B", "class B {}",
+        "D", "class D {}",
+        "E", "class E extends D {}");
+    assertTrue(map.needsMetadata("I"));
+    assertTrue(map.needsMetadata("A"));
+    assertFalse(map.needsMetadata("B"));
+    assertTrue(map.needsMetadata("D"));
+    assertTrue(map.needsMetadata("E"));
+  }
+
+  public void testAnnotatedAndSerializableTypes() throws IOException {
+    ReflectionUsageMap map = analyze(
+        "Inject", "import java.lang.annotation.*; "
+        + "@Retention(RetentionPolicy.RUNTIME) @interface Inject {}",
+        "A", "class A { @Inject Object foo; }",
+        "B", "class B implements java.io.Serializable { int i; }",
+        "C", "class C { @SuppressWarnings(\"unused\") void foo() {} }");
+    assertTrue(map.needsMetadata("Inject"));
+    assertTrue(map.needsMetadata("A"));
+    assertTrue(map.needsMetadata("B"));
+    assertFalse(map.needsMetadata("C"));
+  }
+}
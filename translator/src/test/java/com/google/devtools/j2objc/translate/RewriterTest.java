@@ -290,8 +290,8 @@ public class RewriterTest extends GenerationTest {
         "public class Test { void test() { int[] a = { 1, 2, 3 }; char b[] = { '4', '5' }; } }",
         "Test", "Test.m");
     assertTranslatedLines(translation,
-        "IOSIntArray *a = [IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3];",
-        "IOSCharArray *b = [IOSCharArray arrayWithChars:(unichar[]){ '4', '5' } count:2];");
+        "IOSIntArray *a = [IOSIntArray arrayWithInts:Test_0_data count:3];",
+        "IOSCharArray *b = [IOSCharArray arrayWithChars:Test_1_data count:2];");
   }
 
   /**
@@ -305,9 +305,9 @@ public class RewriterTest extends GenerationTest {
         "+ (void)initialize {",
         "if (self == [Test class]) {",
         "JreOperatorRetainedAssign(&Test_a_, nil, "
-            + "[IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3]);",
+            + "[IOSIntArray arrayWithInts:Test_0_data count:3]);",
         "JreOperatorRetainedAssign(&Test_b_, nil, "
-            + "[IOSCharArray arrayWithChars:(unichar[]){ '4', '5' } count:2]);");
+            + "[IOSCharArray arrayWithChars:Test_1_data count:2]);");
   }
 
   public void testNonStaticMultiDimArrayInitializer() throws IOException {
@@ -315,7 +315,7 @@ public class RewriterTest extends GenerationTest {
         "class Test { int[][] a = { { 1, 2, 3 } }; }", "Test", "Test.m");
     assertTranslation(translation,
         "[IOSObjectArray arrayWithObjects:(id[]){"
-        + " [IOSIntArray arrayWithInts:(int[]){ 1, 2, 3 } count:3] } count:1"
+        + " [IOSIntArray arrayWithInts:Test_0_data count:3] } count:1"
         + " type:[IOSIntArray iosClass]]");
   }
 
@@ -362,10 +362,14 @@ public class RewriterTest extends GenerationTest {
         + "0x1.7cac197cfe503p605, 0x1.1e5dfc140e1e5p716, 0x1.8ce85fadb707ep829, "
         + "0x1.95d5f3d928edep945 }; }";
     String translation = translateSourceFile(source, "Test", "Test.m");
-    assertTranslation(translation, "{ 1.0, 2.0922789888E13, 2.631308369336935E35, "
-        + "1.2413915592536073E61, 1.2688693218588417E89, 7.156945704626381E118, "
-        + "9.916779348709496E149, 1.974506857221074E182, 3.856204823625804E215, "
-        + "5.5502938327393044E249, 4.7147236359920616E284 }");
+    assertTranslatedLines(translation,
+        "static double const Test_EVERY_SIXTEENTH_FACTORIAL_data[] = {",
+        "  1.0, 2.0922789888E13, 2.631308369336935E35, 1.2413915592536073E61, "
+        + "1.2688693218588417E89,",
+        "  7.156945704626381E118, 9.916779348709496E149, 1.974506857221074E182, "
+        + "3.856204823625804E215,",
+        "  5.5502938327393044E249, 4.7147236359920616E284",
+        "};");
   }
 
   public void testTypeCheckInCompareToMethod() throws IOException {
@@ -508,8 +512,8 @@ public class RewriterTest extends GenerationTest {
         + "return (object == this) || (object instanceof Test) && (i == ((Test) object).i); } }",
         "Test", "Test.m");
     assertTranslatedLines(translation, "(object == self) || "
-        + "(([object isKindOfClass:[Test class]]) && (i_ == ((Test *) nil_chk(((Test *) "
-        + "check_class_cast(object, [Test class]))))->i_));");
+        + "(([object isKindOfClass:[Test class]]) && "
+        + "(i_ == ((Test *) nil_chk(((Test *) object)))->i_));");
   }
 
   // Objective-C requires that bit-wise and tests be surrounded by parens when mixed with or tests.
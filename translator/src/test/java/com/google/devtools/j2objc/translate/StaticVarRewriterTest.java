@@ -32,6 +32,49 @@ public class StaticVarRewriterTest extends GenerationTest {
         "Test", "Test.m");
     assertTranslatedLines(translation,
         "[nil_chk(((Test *) nil_chk(Test_get_test_()))->obj_) description];",
-        "[Test_get_test_()->obj_ description];");
+        "[Test_test_->obj_ description];");
+  }
+
+  public void testSuperclassFieldAccessedDirectly() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static Object foo; static class Sub extends Test { "
+        + "Object test() { return foo; } } static class Other { "
+        + "Object test() { return foo; } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation, "- (id)test {", "return Test_foo_;", "}");
+    assertTranslatedLines(translation, "- (id)test {", "return Test_get_foo_();", "}");
+  }
+
+  public void testAccessorOnlyForFirstAccess() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static class A { static int i; static Object o; } "
+        + "int test() { int j = A.i; A.o = null; A.i++; return A.i + j; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int j = Test_A_get_i_();",
+        "JreOperatorRetainedAssign(&Test_A_o_, nil, nil);",
+        "Test_A_i_++;",
+        "return Test_A_i_ + j;");
+  }
+
+  public void testConditionalAccessDoesNotInitialize() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static class A { static int i; } "
+        + "int test(boolean b) { int j = b ? A.i : 0; if (b) { j = A.i; } "
+        + "boolean c = b && A.i > 0; return A.i + j; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "int j = b ? Test_A_get_i_() : 0;");
+    assertTranslatedLines(translation, "if (b) {", "j = Test_A_get_i_();", "}");
+    assertTranslation(translation, "BOOL c = b && Test_A_get_i_() > 0;");
+    assertTranslation(translation, "return Test_A_get_i_() + j;");
+  }
+
+  public void testNestedBlockInheritsInitializedTypes() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static class A { static int i; } "
+        + "void test(boolean b) { int j = A.i; if (b) { j = A.i; } } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int j = Test_A_get_i_();", "if (b) {", "j = Test_A_i_;", "}");
   }
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+import com.google.devtools.j2objc.Options;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link StringIntrinsicRewriter}.
+ */
+public class StringIntrinsicRewriterTest extends GenerationTest {
+
+  @Override
+  protected void setUp() throws IOException {
+    super.setUp();
+    Options.enableStringIntrinsics();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Options.resetStringIntrinsics();
+    super.tearDown();
+  }
+
+  public void testIntrinsics() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { boolean test(String s, Object o) { "
+        + "int n = s.length(); char c = s.charAt(0); boolean b = s.equals(o) || s.isEmpty(); "
+        + "return s.indexOf('a') + s.indexOf('b', 2) > 0; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "int n = NSString_length(nil_chk(s));",
+        "unichar c = NSString_charAt(s, 0);",
+        "BOOL b = NSString_equals(s, o) || NSString_isEmpty(s);",
+        "return NSString_indexOf(s, 'a', 0) + NSString_indexOf(s, 'b', 2) > 0;");
+  }
+
+  public void testCategoryMethodsCalledForOtherReceivers() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(CharSequence cs, String s) { "
+        + "return cs.length() + s.lastIndexOf('a'); } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "return [((id<JavaLangCharSequence>) nil_chk(cs)) sequenceLength] "
+        + "+ [((NSString *) nil_chk(s)) lastIndexOf:'a'];");
+  }
+
+  public void testLoopBuffersCharacters() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int count(String s) { int n = 0; "
+        + "for (int i = 0; i < s.length(); i++) { if (s.charAt(i) == ' ') n++; } "
+        + "return n; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "{",
+        "  CFStringInlineBuffer sChars__;",
+        "  NSString_initCharBuffer(s, &sChars__);",
+        "  for (int i = 0; i < NSString_charBufferLength(&sChars__); i++) {",
+        "    if (NSString_charAtFromBuffer(&sChars__, i) == ' ') n++;",
+        "  }",
+        "}");
+  }
+
+  public void testLoopAssigningStringNotBuffered() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { void test(String s) { "
+        + "while (s.charAt(0) == ' ') { s = s.substring(1); } "
+        + "for (int i = 0; i < 10; i++) { String t = s + i; char c = t.charAt(0); } } }",
+        "Test", "Test.m");
+    assertNotInTranslation(translation, "CFStringInlineBuffer");
+    assertTranslation(translation, "while (NSString_charAt(nil_chk(s), 0) == ' ') {");
+    assertTranslation(translation, "unichar c = NSString_charAt(t, 0);");
+  }
+
+  public void testLabeledLoop() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(String s) { int i = 0; "
+        + "loop: for (; i < s.length(); i++) { if (s.charAt(i) == ' ') break loop; } "
+        + "return i; } }",
+        "Test", "Test.m");
+    assertTranslatedLines(translation,
+        "CFStringInlineBuffer sChars__;",
+        "NSString_initCharBuffer(s, &sChars__);",
+        "for (; i < NSString_charBufferLength(&sChars__); i++) {",
+        "  if (NSString_charAtFromBuffer(&sChars__, i) == ' ') goto break_loop;",
+        "}",
+        "}",
+        "break_loop: ;");
+  }
+
+  public void testNestedReads() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(String s, String t) { int n = 0; "
+        + "for (int i = 0; i < 3; i++) { n += s.charAt(t.charAt(i)); } return n; } }",
+        "Test", "Test.m");
+    assertTranslation(translation,
+        "n += NSString_charAtFromBuffer(&sChars__, NSString_charAtFromBuffer(&tChars__, i));");
+  }
+}
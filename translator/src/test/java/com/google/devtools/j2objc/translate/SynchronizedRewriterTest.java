@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link SynchronizedRewriter}.
+ */
+public class SynchronizedRewriterTest extends GenerationTest {
+
+  public void testAdjacentBlocksMerged() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int i; void test() { "
+        + "synchronized (this) { i++; } synchronized (this) { i--; } } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "@synchronized", 1);
+    assertTranslatedLines(translation,
+        "@synchronized (self) {",
+        "{",
+        "i_++;",
+        "}",
+        "{",
+        "i_--;",
+        "}",
+        "}");
+  }
+
+  public void testDifferentLocksNotMerged() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int i; void test(Object o) { "
+        + "synchronized (this) { i++; } synchronized (o) { i--; } } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "@synchronized", 2);
+  }
+
+  // Verify that a throw in a merged block still exits through the one
+  // @synchronized statement, which releases the monitor.
+  public void testMergedBlocksThrowInsideMonitor() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int i; void test() { "
+        + "synchronized (this) { if (i < 0) throw new IllegalStateException(); } "
+        + "synchronized (this) { i++; } } }",
+        "Test", "Test.m");
+    assertOccurrences(translation, "@synchronized", 1);
+    assertTranslatedLines(translation,
+        "@synchronized (self) {",
+        "{",
+        "if (i_ < 0) @throw [[[JavaLangIllegalStateException alloc] init] autorelease];",
+        "}",
+        "{",
+        "i_++;",
+        "}",
+        "}");
+  }
+
+  public void testHeldLockNotReacquired() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int i; Object lock = new Object(); "
+        + "synchronized void test() { synchronized (this) { i++; } } "
+        + "void test2() { synchronized (lock) { synchronized (this) { i--; } } } "
+        + "void test3() { synchronized (this) { synchronized (this) { i = 0; } } } "
+        + "static synchronized void test4(Test t) { synchronized (t) { t.i = 1; } } "
+        + "synchronized Runnable test5() { return new Runnable() { public void run() { "
+        + "  synchronized (this) { i = 2; } } }; } }",
+        "Test", "Test.m");
+    // The method's own monitor is acquired once.
+    assertTranslatedLines(translation,
+        "- (void)test {",
+        "@synchronized(self) {",
+        "{",
+        "{",
+        "i_++;",
+        "}",
+        "}",
+        "}",
+        "}");
+    assertTranslatedLines(translation,
+        "@synchronized (lock_) {",
+        "@synchronized (self) {",
+        "i_--;",
+        "}",
+        "}");
+    assertTranslatedLines(translation,
+        "@synchronized (self) {",
+        "{",
+        "i_ = 0;",
+        "}",
+        "}");
+    assertTranslation(translation, "@synchronized (t) {");
+    // The anonymous class's monitor isn't the outer instance's.
+    assertTranslatedLines(translation,
+        "- (void)run {",
+        "@synchronized (self) {");
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.devtools.j2objc.translate;
+
+import com.google.devtools.j2objc.GenerationTest;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link ValueRangeAnalyzer}.
+ */
+public class ValueRangeAnalyzerTest extends GenerationTest {
+
+  public void testUnknownValueKeepsCheck() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(double d) { return (int) d; } }", "Test", "Test.m");
+    assertTranslation(translation, "return J2ObjCFpToInt(d);");
+  }
+
+  public void testScaledIntegerIsUnchecked() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(int i) { return (int) (i * 0.5); } "
+        + "char test2(char c) { return (char) (c + 0.5); } "
+        + "long test3(int i, short s) { return (long) (i * (double) s - 1.0); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (int) (i * 0.5);");
+    assertTranslation(translation, "return (unichar) (c + 0.5);");
+    assertTranslation(translation, "return (long long int) (i * (double) s - 1.0);");
+    assertNotInTranslation(translation, "J2ObjCFpTo");
+  }
+
+  public void testOverflowKeepsCheck() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { int test(long l) { return (int) (l * 1.0); } "
+        + "int test2(int i) { return (int) (i + 1.0); } "
+        + "int test3(int i) { return (int) (1.0 / i); } "
+        // Integer.MAX_VALUE rounds up to 2^31 as a float.
+        + "int test4(int i) { return (int) (i * 1.0f); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return J2ObjCFpToInt((l * 1.0));");
+    assertTranslation(translation, "return J2ObjCFpToInt((i + 1.0));");
+    assertTranslation(translation, "return J2ObjCFpToInt((1.0 / i));");
+    assertTranslation(translation, "return J2ObjCFpToInt((i * 1.0f));");
+  }
+
+  public void testFloatArithmeticRoundedEachStep() throws IOException {
+    String translation = translateSourceFile(
+        // a * a overflows to infinity as a float, and infinity * 0 is NaN.
+        "class Test { int test() { float a = 1e30f; return (int) (a * a * 0f); } "
+        + "short test2(int i) { float s = (float) Math.sin(i); return (short) (s * 100f); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return J2ObjCFpToInt((a * a * 0.0f));");
+    assertTranslation(translation, "return (short int) (s * 100.0f);");
+  }
+
+  public void testLocalVariables() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { static final double SCALE = 32767; "
+        + "short test(int i) { double s = Math.sin(i); return (short) (s * SCALE); } "
+        + "short test2(int i) { double s = Math.sin(i); s *= 2; return (short) (s * SCALE); } "
+        + "int test3(double d) { double s = Math.sin(d); return (int) s; } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (short int) (s * Test_SCALE);");
+    // Reassigned.
+    assertTranslation(translation, "return (short int) J2ObjCFpToInt((s * Test_SCALE));");
+    // Math.sin(NaN) is NaN.
+    assertTranslation(translation, "return J2ObjCFpToInt(s);");
+  }
+
+  public void testMathMethods() throws IOException {
+    String translation = translateSourceFile(
+        "class Test { "
+        + "int test(int i) { return (int) Math.floor(Math.sqrt(Math.abs(i * 1.0))); } "
+        + "byte test2() { return (byte) (Math.random() * 256); } "
+        + "byte test3(int i) { return (byte) Math.min(Math.max(i * 0.1, -10), 10); } }",
+        "Test", "Test.m");
+    assertTranslation(translation, "return (int) [JavaLangMath floorWithDouble:"
+        + "[JavaLangMath sqrtWithDouble:[JavaLangMath absWithDouble:i * 1.0]]];");
+    // The product is in [0, 256), which doesn't fit in a byte.
+    assertTranslation(translation, "return (char) J2ObjCFpToInt(([JavaLangMath random] * 256));");
+    assertTranslation(translation, "return (char) [JavaLangMath minWithDouble:"
+        + "[JavaLangMath maxWithDouble:i * 0.1 withDouble:-10] withDouble:10];");
+  }
+}